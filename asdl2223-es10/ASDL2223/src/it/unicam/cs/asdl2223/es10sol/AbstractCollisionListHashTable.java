@@ -0,0 +1,222 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+/**
+ * Parte comune delle tabelle hash con indirizzamento primario e liste di
+ * collisione, usata da CollisionListResizableHashTable e da
+ * CollisionListResizableHashMap: l'array dei bucket, la funzione di hash
+ * primaria, la capacità iniziale, arrotondata alla potenza di due successiva
+ * se la funzione di hash lo richiede, il numero di elementi, il contatore
+ * delle modifiche e il trasferimento dei nodi in una nuova tabella.
+ *
+ * Ogni nodo memorizza l'hashCode del suo elemento, calcolato una sola volta
+ * all'inserimento, in modo che i nodi possano essere riposizionati senza
+ * richiamare hashCode() e che gli elementi diversi siano scartati con un
+ * confronto tra interi prima di chiamare equals().
+ *
+ * Un bucket contiene null oppure il primo nodo di una lista di collisioni;
+ * una sottoclasse può mettere nei bucket anche altri oggetti che contengono
+ * una lista di collisioni, ridefinendo firstNode e moveNode.
+ *
+ * @param <N>
+ *                il tipo dei nodi delle liste di collisione
+ */
+abstract class AbstractCollisionListHashTable<N extends AbstractCollisionListHashTable.HashNode<N>> {
+
+    /*
+     * La capacità iniziale di default. E' una potenza di due e quindi la
+     * capacità sarà sempre una potenza di due, in quanto ogni resize raddoppia
+     * la tabella.
+     */
+    static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Capacità massima, la più grande potenza di due rappresentabile con un
+     * int.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /*
+     * Fattore di bilanciamento di default. Tipico valore.
+     */
+    static final double LOAD_FACTOR = 0.75;
+
+    /*
+     * Numero di elementi effettivamente presenti nella hash table in questo
+     * momento. ATTENZIONE: questo valore è diverso dalla capacity, che è la
+     * lunghezza attuale dell'array di Object che rappresenta la tabella.
+     */
+    int size;
+
+    /*
+     * L'idea è che l'elemento in posizione i della tabella hash è un bucket che
+     * contiene null oppure il puntatore al primo nodo di una lista concatenata
+     * di elementi.
+     *
+     * ATTENZIONE: la tabella hash vera e propria può essere solo un generico
+     * array di Object e non di N per una impossibilità del compilatore di
+     * accettare di creare array a runtime con un tipo generics. Ciò infatti
+     * comporterebbe dei problemi nel sistema di check dei tipi Java che, a
+     * run-time, potrebbe eseguire degli assegnamenti in violazione del tipo
+     * effettivo della variabile. Quindi usiamo un array di Object che
+     * riempiremo sempre con null o con puntatori ai nodi.
+     *
+     * Per inserire un nodo nella tabella possiamo usare il polimorfismo di
+     * Object, ma quando dobbiamo prendere un nodo dalla tabella saremo
+     * costretti a fare un cast esplicito. Ci sarà dato un warning di cast non
+     * controllato, ma possiamo eliminarlo con un tag @SuppressWarning,
+     */
+    Object[] table;
+
+    /*
+     * La capacità iniziale di questa tabella, a cui si ritorna con clear().
+     */
+    final int initialCapacity;
+
+    /*
+     * Funzione di hash primaria usata da questa hash table.
+     */
+    final PrimaryHashFunction phf;
+
+    /*
+     * Contatore del numero di modifiche strutturali. Serve per rendere gli
+     * iteratori fail-fast.
+     */
+    int modCount;
+
+    /*
+     * Crea una tabella vuota con capacità iniziale data, arrotondata alla
+     * potenza di due successiva se la funzione di hash lo richiede.
+     */
+    AbstractCollisionListHashTable(PrimaryHashFunction phf,
+            int initialCapacity) {
+        if (phf == null)
+            throw new NullPointerException("Funzione di hash primaria nulla");
+        if (initialCapacity < 1)
+            throw new IllegalArgumentException(
+                    "Capacità iniziale non positiva: " + initialCapacity);
+        this.phf = phf;
+        if (phf.requiresPowerOfTwoCapacity())
+            this.initialCapacity = powerOfTwoAtLeast(initialCapacity);
+        else
+            this.initialCapacity = initialCapacity;
+        this.table = new Object[this.initialCapacity];
+        this.size = 0;
+        this.modCount = 0;
+    }
+
+    /*
+     * Restituisce la più piccola potenza di due maggiore o uguale a n, senza
+     * superare MAXIMUM_CAPACITY.
+     */
+    static int powerOfTwoAtLeast(int n) {
+        if (n >= MAXIMUM_CAPACITY)
+            return MAXIMUM_CAPACITY;
+        int p = Integer.highestOneBit(n);
+        return p == n ? n : p << 1;
+    }
+
+    // I due metodi seguenti sono di comodo per gestire la capacity e la soglia
+    // oltre la quale bisogna fare il resize.
+
+    /* Numero di elementi della tabella corrente */
+    int getCurrentCapacity() {
+        return this.table.length;
+    }
+
+    /*
+     * Valore corrente soglia oltre la quale si deve fare la resize,
+     * getCurrentCapacity * LOAD_FACTOR
+     */
+    int getCurrentThreshold() {
+        return (int) (getCurrentCapacity() * LOAD_FACTOR);
+    }
+
+    /*
+     * Restituisce la capacità che si ottiene raddoppiando la tabella, anche
+     * più volte, finché può contenere expectedSize elementi senza superare il
+     * fattore di caricamento e senza superare MAXIMUM_CAPACITY.
+     */
+    int capacityFor(long expectedSize) {
+        int capacity = this.table.length;
+        while (expectedSize > (long) (capacity * LOAD_FACTOR)
+                && capacity <= MAXIMUM_CAPACITY / 2)
+            capacity = capacity * 2;
+        return capacity;
+    }
+
+    /*
+     * Restituisce il primo nodo della lista di collisioni contenuta in un
+     * bucket. Una sottoclasse che mette nei bucket altri oggetti deve
+     * ridefinire questo metodo.
+     */
+    @SuppressWarnings("unchecked")
+    N firstNode(Object bucket) {
+        return (N) bucket;
+    }
+
+    /*
+     * Sposta un nodo, che non appartiene a nessuna lista, in testa al bucket
+     * in posizione pos della tabella corrente. Una sottoclasse che mette nei
+     * bucket altri oggetti deve ridefinire questo metodo.
+     */
+    void moveNode(N node, int pos) {
+        node.next = firstNode(this.table[pos]);
+        this.table[pos] = node;
+    }
+
+    /*
+     * Trasferisce nella tabella corrente i nodi del bucket in posizione j di
+     * from, che viene svuotato. I nodi vengono spostati, senza crearne di
+     * nuovi e senza controllare i duplicati, che non ci possono essere. La
+     * nuova posizione è calcolata con l'hash memorizzato nel nodo, senza
+     * richiamare hashCode().
+     */
+    void transferBucket(Object[] from, int j) {
+        N list = firstNode(from[j]);
+        from[j] = null;
+        while (list != null) {
+            N next = list.next;
+            moveNode(list, this.phf.hash(list.hash, this.table.length));
+            list = next;
+        }
+    }
+
+    /*
+     * Sostituisce la tabella con una nuova tabella di capacità data e vi
+     * trasferisce subito tutti i nodi.
+     */
+    void replaceTable(int capacity) {
+        Object[] old = this.table;
+        this.table = new Object[capacity];
+        for (int j = 0; j < old.length; j++)
+            transferBucket(old, j);
+    }
+
+    /*
+     * Classe base per i nodi delle liste di collisione, con l'hashCode
+     * memorizzato e il puntatore al nodo successivo. Le sottoclassi
+     * aggiungono l'elemento o la coppia chiave-valore.
+     */
+    static class HashNode<N extends HashNode<N>> {
+        /*
+         * L'hashCode dell'elemento, calcolato una sola volta all'inserimento.
+         * Non è final perché una sottoclasse può spostare un elemento da un
+         * nodo a un altro.
+         */
+        protected int hash;
+
+        protected N next;
+
+        /*
+         * Crea un nodo con hashCode hash, seguito dalla lista next.
+         */
+        HashNode(int hash, N next) {
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+}
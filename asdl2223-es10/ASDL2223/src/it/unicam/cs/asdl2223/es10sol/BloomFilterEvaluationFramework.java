@@ -0,0 +1,113 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Misura l'effetto del filtro di Bloom di CollisionListResizableHashTable su
+ * un carico di ricerche in cui il 95% delle chiavi cercate non è presente.
+ * Per numeri di chiavi crescenti (stringhe, in modo che equals() abbia un
+ * costo realistico) confronta la stessa tabella con e senza filtro e misura
+ * il tempo medio in nanosecondi per ricerca.
+ *
+ * Ogni misura viene ripetuta più volte e si riporta la migliore, in modo da
+ * ridurre l'effetto della compilazione JIT e della garbage collection. I dati
+ * sono scritti su un file .csv (Comma Separated Values) e riassunti sullo
+ * standard output.
+ *
+ * Il main può essere chiamato con il nome della directory di destinazione del
+ * file come parametro di linea di comando. Se non è presente nessun parametro
+ * allora si assume la directory corrente.
+ *
+ */
+public class BloomFilterEvaluationFramework {
+
+    /*
+     * Numero minimo di chiavi.
+     */
+    private static final int MIN_KEYS = 1 << 12;
+
+    /*
+     * Numero massimo di chiavi.
+     */
+    private static final int MAX_KEYS = 1 << 20;
+
+    /*
+     * Numero di ricerche per ogni misura.
+     */
+    private static final int LOOKUPS = 1 << 20;
+
+    /*
+     * Percentuale di ricerche di chiavi presenti.
+     */
+    private static final int HIT_PERCENT = 5;
+
+    /*
+     * Numero di ripetizioni di ogni misura.
+     */
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        String dirName = null;
+        if (args.length > 0)
+            dirName = args[0];
+        else
+            dirName = ".";
+        // Creo il file di output
+        PrintStream o = null;
+        try {
+            o = new PrintStream(new File(dirName + "/" + "bloomfilter.csv"));
+        } catch (FileNotFoundException e) {
+            System.out.println("Errore creazione file di ouput" + dirName + "/"
+                    + "bloomfilter.csv");
+            System.exit(1);
+        }
+        o.println("Keys,BloomFilter,NsPerLookup");
+        PrimaryHashFunction phf = new MultiplicationPrimaryHashFunction();
+        Random randomGenerator = new Random(42);
+        for (int n = MIN_KEYS; n <= MAX_KEYS; n *= 2) {
+            CollisionListResizableHashTable<String> table = new CollisionListResizableHashTable<String>(
+                    phf);
+            for (int i = 0; i < n; i++)
+                table.add("chiave-" + i);
+            // Le chiavi cercate: il 5% presenti, le altre assenti
+            String[] lookups = new String[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++)
+                if (randomGenerator.nextInt(100) < HIT_PERCENT)
+                    lookups[i] = "chiave-" + randomGenerator.nextInt(n);
+                else
+                    lookups[i] = "assente-" + randomGenerator.nextInt();
+            // il primo hashCode di una String viene memorizzato: lo calcolo
+            // qui in modo che non pesi sulla prima misura
+            for (String key : lookups)
+                key.hashCode();
+            for (int f = 0; f < 2; f++) {
+                boolean withFilter = f == 1;
+                if (withFilter)
+                    table.enableBloomFilter();
+                else
+                    table.disableBloomFilter();
+                long best = Long.MAX_VALUE;
+                long found = 0;
+                for (int r = 0; r < ROUNDS; r++) {
+                    long start = System.nanoTime();
+                    for (String key : lookups)
+                        if (table.contains(key))
+                            found++;
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                double nsPerLookup = (double) best / LOOKUPS;
+                o.println(n + "," + withFilter + ","
+                        + String.format(Locale.ROOT, "%.2f", nsPerLookup));
+                System.out.println(String.format(
+                        "n=%8d filtro=%-5b %7.2fns/ricerca (trovate %d)", n,
+                        withFilter, nsPerLookup, found / ROUNDS));
+            }
+        }
+        o.close();
+    } // end main
+
+}
@@ -0,0 +1,580 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Realizza una mappa tramite una tabella hash con indirizzamento primario e
+ * liste di collisione, con la stessa organizzazione di
+ * CollisionListResizableHashTable, di cui condivide la parte comune
+ * AbstractCollisionListHashTable: la funzione di hash primario deve essere
+ * passata come parametro nel costruttore e deve implementare l'interface
+ * PrimaryHashFunction, ogni nodo memorizza l'hashCode della sua chiave e la
+ * tabella viene raddoppiata quando il fattore di bilanciamento effettivo
+ * eccede quello di default (0.75), riposizionando i nodi senza richiamare
+ * hashCode().
+ *
+ * La mappa non accetta chiavi null né valori null: un risultato null di get()
+ * indica quindi sempre che la chiave non è presente.
+ *
+ * I metodi computeIfAbsent e merge sono ridefiniti in modo da cercare la
+ * chiave una sola volta e da non creare oggetti oltre al nodo di una nuova
+ * associazione: sono adatti per contare o raggruppare elementi. I nodi sono
+ * essi stessi le coppie (Map.Entry) restituite da entrySet().
+ *
+ */
+public class CollisionListResizableHashMap<K, V> extends
+        AbstractCollisionListHashTable<CollisionListResizableHashMap.Node<K, V>>
+        implements Map<K, V> {
+
+    /**
+     * Costruisce una mappa con capacità iniziale di default e fattore di
+     * caricamento di default.
+     *
+     * @param phf
+     *                la funzione di hash primaria da usare
+     * @throws NullPointerException
+     *                                  se la funzione di hash passata è null
+     */
+    public CollisionListResizableHashMap(PrimaryHashFunction phf) {
+        this(phf, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Costruisce una mappa con capacità iniziale data e fattore di
+     * caricamento di default.
+     *
+     * @param phf
+     *                            la funzione di hash primaria da usare
+     * @param initialCapacity
+     *                            la capacità iniziale della tabella, che viene
+     *                            arrotondata alla potenza di due successiva se
+     *                            la funzione di hash lo richiede
+     * @throws NullPointerException
+     *                                      se la funzione di hash passata è
+     *                                      null
+     * @throws IllegalArgumentException
+     *                                      se la capacità iniziale non è
+     *                                      positiva
+     */
+    public CollisionListResizableHashMap(PrimaryHashFunction phf,
+            int initialCapacity) {
+        super(phf, initialCapacity);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /*
+     * Restituisce il nodo con chiave key, con hashCode h, oppure null se la
+     * chiave non è presente.
+     */
+    private Node<K, V> findNode(int h, Object key) {
+        @SuppressWarnings("unchecked")
+        Node<K, V> list = (Node<K, V>) this.table[this.phf.hash(h,
+                this.table.length)];
+        while (list != null) {
+            // Prima confronto gli hash: se sono diversi le chiavi non possono
+            // essere uguali
+            if (list.hash == h && key.equals(list.key))
+                return list;
+            list = list.next;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null)
+            throw new NullPointerException(
+                    "Ricerca di chiave null in una mappa che non accetta null");
+        return findNode(key.hashCode(), key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException(
+                    "Ricerca di valore null in una mappa che non accetta null");
+        for (Object bucket : this.table) {
+            @SuppressWarnings("unchecked")
+            Node<K, V> list = (Node<K, V>) bucket;
+            for (; list != null; list = list.next)
+                if (value.equals(list.value))
+                    return true;
+        }
+        return false;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key == null)
+            throw new NullPointerException(
+                    "Ricerca di chiave null in una mappa che non accetta null");
+        Node<K, V> node = findNode(key.hashCode(), key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (key == null || value == null)
+            throw new NullPointerException(
+                    "Inserimento di chiave o valore null in una mappa che non accetta null");
+        int h = key.hashCode();
+        Node<K, V> node = findNode(h, key);
+        if (node != null) {
+            // la chiave è già presente, sostituisco il valore
+            V old = node.value;
+            node.value = value;
+            return old;
+        }
+        addNode(h, key, value);
+        return null;
+    }
+
+    /*
+     * Inserisce in testa alla lista di collisioni una nuova associazione, la
+     * cui chiave, con hashCode h, non è presente, e controlla se bisogna
+     * raddoppiare la tabella.
+     */
+    private void addNode(int h, K key, V value) {
+        int pos = this.phf.hash(h, this.table.length);
+        @SuppressWarnings("unchecked")
+        Node<K, V> head = (Node<K, V>) this.table[pos];
+        this.table[pos] = new Node<K, V>(h, key, value, head);
+        this.modCount++;
+        this.size++;
+        // Oltre la capacità massima la tabella non può più crescere
+        if (this.size > getCurrentThreshold()
+                && this.table.length < MAXIMUM_CAPACITY)
+            replaceTable(this.table.length * 2);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null)
+            throw new NullPointerException(
+                    "Cancellazione di chiave null in una mappa che non accetta null");
+        Node<K, V> node = removeNode(key.hashCode(), key);
+        return node == null ? null : node.value;
+    }
+
+    /*
+     * Toglie dalla lista di collisioni il nodo con chiave key, con hashCode h,
+     * e lo restituisce, oppure restituisce null se la chiave non è presente.
+     */
+    private Node<K, V> removeNode(int h, Object key) {
+        int pos = this.phf.hash(h, this.table.length);
+        Node<K, V> previous = null;
+        @SuppressWarnings("unchecked")
+        Node<K, V> list = (Node<K, V>) this.table[pos];
+        while (list != null) {
+            if (list.hash == h && key.equals(list.key)) {
+                if (previous == null)
+                    // il nodo da togliere è in testa
+                    this.table[pos] = list.next;
+                else
+                    previous.next = list.next;
+                this.modCount++;
+                this.size--;
+                return list;
+            }
+            previous = list;
+            list = list.next;
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Prima di inserire le associazioni la tabella viene ingrandita, in un
+     * solo passo, fino alla capacità sufficiente per il massimo tra size() e
+     * m.size(), come in CollisionListResizableHashTable.addAll: le chiavi di
+     * m potrebbero essere in gran parte già presenti, e gli eventuali
+     * raddoppi in più li fa put.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (m == null)
+            throw new NullPointerException("PutAll di mappa null");
+        int capacity = capacityFor(Math.max(this.size, m.size()));
+        if (capacity != this.table.length) {
+            replaceTable(capacity);
+            // la tabella è cambiata anche se put aggiornerà solo dei valori
+            this.modCount++;
+        }
+        for (Map.Entry<? extends K, ? extends V> e : m.entrySet())
+            put(e.getKey(), e.getValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * La chiave viene cercata una sola volta. Se non è presente e la funzione
+     * restituisce un valore non null, il nuovo nodo viene inserito
+     * direttamente nel bucket già individuato, salvo che la funzione abbia
+     * modificato la mappa.
+     */
+    @Override
+    public V computeIfAbsent(K key,
+            Function<? super K, ? extends V> mappingFunction) {
+        if (key == null || mappingFunction == null)
+            throw new NullPointerException(
+                    "ComputeIfAbsent con chiave o funzione null");
+        int h = key.hashCode();
+        Node<K, V> node = findNode(h, key);
+        if (node != null)
+            return node.value;
+        int expectedModCount = this.modCount;
+        V value = mappingFunction.apply(key);
+        if (value == null)
+            return null;
+        if (this.modCount != expectedModCount)
+            throw new ConcurrentModificationException(
+                    "Mappa modificata dalla funzione di computeIfAbsent");
+        addNode(h, key, value);
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * La chiave viene cercata una sola volta: se è presente il valore del nodo
+     * viene aggiornato sul posto, altrimenti viene inserito un nuovo nodo con
+     * il valore dato. Se la funzione restituisce null l'associazione viene
+     * cancellata.
+     */
+    @Override
+    public V merge(K key, V value,
+            BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (key == null || value == null || remappingFunction == null)
+            throw new NullPointerException(
+                    "Merge con chiave, valore o funzione null");
+        int h = key.hashCode();
+        Node<K, V> node = findNode(h, key);
+        if (node == null) {
+            addNode(h, key, value);
+            return value;
+        }
+        int expectedModCount = this.modCount;
+        V newValue = remappingFunction.apply(node.value, value);
+        if (this.modCount != expectedModCount)
+            throw new ConcurrentModificationException(
+                    "Mappa modificata dalla funzione di merge");
+        if (newValue == null) {
+            removeNode(h, key);
+            return null;
+        }
+        node.value = newValue;
+        return newValue;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null)
+            throw new NullPointerException("Azione nulla");
+        int expectedModCount = this.modCount;
+        for (Object bucket : this.table) {
+            @SuppressWarnings("unchecked")
+            Node<K, V> list = (Node<K, V>) bucket;
+            for (; list != null; list = list.next)
+                action.accept(list.key, list.value);
+        }
+        if (this.modCount != expectedModCount)
+            throw new ConcurrentModificationException(
+                    "ForEach su mappa modificata");
+    }
+
+    @Override
+    public void clear() {
+        // Ritorno alla situazione iniziale
+        this.table = new Object[this.initialCapacity];
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new Itr<K>() {
+                    @Override
+                    K valueOf(Node<K, V> node) {
+                        return node.key;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                return CollisionListResizableHashMap.this.remove(o) != null;
+            }
+
+            @Override
+            public void clear() {
+                CollisionListResizableHashMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Itr<V>() {
+                    @Override
+                    V valueOf(Node<K, V> node) {
+                        return node.value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                CollisionListResizableHashMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new Itr<Map.Entry<K, V>>() {
+                    @Override
+                    Map.Entry<K, V> valueOf(Node<K, V> node) {
+                        return node;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                CollisionListResizableHashMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof Map))
+            return false;
+        Map<?, ?> other = (Map<?, ?>) o;
+        if (other.size() != this.size)
+            return false;
+        for (Object bucket : this.table) {
+            @SuppressWarnings("unchecked")
+            Node<K, V> list = (Node<K, V>) bucket;
+            for (; list != null; list = list.next)
+                if (!list.value.equals(other.get(list.key)))
+                    return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (Object bucket : this.table) {
+            @SuppressWarnings("unchecked")
+            Node<K, V> list = (Node<K, V>) bucket;
+            for (; list != null; list = list.next)
+                h += list.hashCode();
+        }
+        return h;
+    }
+
+    /*
+     * Classe per i nodi delle liste di collisione, che sono anche le coppie
+     * chiave-valore della mappa. Lo specificatore è protected solo per
+     * permettere i test JUnit.
+     */
+    protected static class Node<K, V> extends
+            AbstractCollisionListHashTable.HashNode<Node<K, V>>
+            implements Map.Entry<K, V> {
+
+        protected final K key;
+
+        protected V value;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            super(hash, next);
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return this.key;
+        }
+
+        @Override
+        public V getValue() {
+            return this.value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (value == null)
+                throw new NullPointerException(
+                        "Valore null in una mappa che non accetta null");
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return this.key.equals(e.getKey())
+                    && this.value.equals(e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash ^ this.value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "=" + this.value;
+        }
+    }
+
+    /*
+     * Iteratore fail-fast sui nodi della tabella, usato dalle viste keySet(),
+     * values() ed entrySet(), che restituiscono rispettivamente la chiave, il
+     * valore o il nodo stesso. L'iteratore individua il nodo successivo subito
+     * dopo aver restituito quello corrente, in modo che hasNext() non debba
+     * fare nessuna ricerca e che remove() possa cancellare il nodo corrente.
+     */
+    private abstract class Itr<T> implements Iterator<T> {
+
+        // prossimo nodo da restituire, null se non ce ne sono altri
+        private Node<K, V> nextNode;
+
+        // posizione del bucket successivo a quello di nextNode
+        private int nextPos;
+
+        // ultimo nodo restituito, null se non c'è o è stato cancellato
+        private Node<K, V> lastReturned;
+
+        private int numeroModificheAtteso;
+
+        Itr() {
+            this.numeroModificheAtteso = modCount;
+            this.nextPos = 0;
+            this.nextNode = null;
+            advanceToNextBucket();
+        }
+
+        /*
+         * Restituisce il valore da restituire per il nodo dato.
+         */
+        abstract T valueOf(Node<K, V> node);
+
+        /*
+         * Porta nextNode sul primo nodo del prossimo bucket non vuoto.
+         */
+        @SuppressWarnings("unchecked")
+        private void advanceToNextBucket() {
+            Object[] t = table;
+            while (this.nextNode == null && this.nextPos < t.length)
+                this.nextNode = (Node<K, V>) t[this.nextPos++];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextNode != null;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != this.numeroModificheAtteso)
+                throw new ConcurrentModificationException(
+                        "Next in iteratore su tabella modificata");
+            if (this.nextNode == null)
+                throw new NoSuchElementException(
+                        "Richiesta di next con hasNext falso");
+            this.lastReturned = this.nextNode;
+            this.nextNode = this.nextNode.next;
+            if (this.nextNode == null)
+                advanceToNextBucket();
+            return valueOf(this.lastReturned);
+        }
+
+        @Override
+        public void remove() {
+            if (this.lastReturned == null)
+                throw new IllegalStateException(
+                        "Remove senza next o ripetuta");
+            if (modCount != this.numeroModificheAtteso)
+                throw new ConcurrentModificationException(
+                        "Remove in iteratore su tabella modificata");
+            removeNode(this.lastReturned.hash, this.lastReturned.key);
+            this.lastReturned = null;
+            this.numeroModificheAtteso = modCount;
+        }
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected Object[] getTable() {
+        return this.table;
+    }
+
+}
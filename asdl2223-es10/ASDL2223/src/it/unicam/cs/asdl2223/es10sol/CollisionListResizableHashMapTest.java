@@ -0,0 +1,188 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe di test JUnit per la classe CollisionListResizableHashMap
+ *
+ *
+ */
+class CollisionListResizableHashMapTest {
+
+    private PrimaryHashFunction divisionHash = new DivisionPrimaryHashFunction();
+
+    private PrimaryHashFunction multiplicationHash = new MultiplicationPrimaryHashFunction();
+
+    @Test
+    void divisionHash_testPutGetRemove() {
+        CollisionListResizableHashMap<String, Integer> map = new CollisionListResizableHashMap<>(
+                divisionHash);
+        assertNull(map.put("uno", 1));
+        assertNull(map.put("due", 2));
+        assertEquals((Integer) 1, map.put("uno", 11));
+        assertEquals((Integer) 11, map.get("uno"));
+        assertEquals((Integer) 2, map.get("due"));
+        assertNull(map.get("tre"));
+        assertEquals((Integer) (-1), map.getOrDefault("tre", -1));
+        assertTrue(map.containsKey("due"));
+        assertTrue(map.containsValue(11));
+        assertFalse(map.containsValue(1));
+        assertEquals(2, map.size());
+        assertEquals((Integer) 11, map.remove("uno"));
+        assertNull(map.remove("uno"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void multiplicationHash_testShouldResize() {
+        CollisionListResizableHashMap<Integer, Integer> map = new CollisionListResizableHashMap<>(
+                multiplicationHash);
+        for (int i = 0; i < 12; i++)
+            map.put(i, i * i);
+        assertEquals(16, map.getTable().length);
+        map.put(12, 144);
+        assertEquals(32, map.getTable().length);
+        for (int i = 0; i < 13; i++)
+            assertEquals((Integer) (i * i), map.get(i));
+    }
+
+    @Test
+    void divisionHash_testNullPointer() {
+        CollisionListResizableHashMap<String, Integer> map = new CollisionListResizableHashMap<>(
+                divisionHash);
+        assertThrows(NullPointerException.class, () -> {
+            map.put(null, 1);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            map.put("uno", null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            map.get(null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            new CollisionListResizableHashMap<String, Integer>(null);
+        });
+    }
+
+    @Test
+    void divisionHash_testComputeIfAbsent() {
+        CollisionListResizableHashMap<Integer, List<String>> groups = new CollisionListResizableHashMap<>(
+                divisionHash);
+        String words[] = { "a", "bb", "cc", "d", "eee", "ff" };
+        for (String w : words)
+            groups.computeIfAbsent(w.length(), k -> new ArrayList<String>())
+                    .add(w);
+        assertEquals(3, groups.size());
+        assertEquals(2, groups.get(1).size());
+        assertEquals(3, groups.get(2).size());
+        assertEquals(1, groups.get(3).size());
+        // una funzione che restituisce null non inserisce niente
+        assertNull(groups.computeIfAbsent(4, k -> null));
+        assertFalse(groups.containsKey(4));
+        // la funzione non deve modificare la mappa
+        assertThrows(ConcurrentModificationException.class, () -> {
+            groups.computeIfAbsent(5, k -> {
+                groups.put(6, new ArrayList<String>());
+                return new ArrayList<String>();
+            });
+        });
+    }
+
+    @Test
+    void multiplicationHash_testMerge() {
+        CollisionListResizableHashMap<String, Integer> counts = new CollisionListResizableHashMap<>(
+                multiplicationHash);
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            String key = "k" + (i % 37);
+            counts.merge(key, 1, Integer::sum);
+            expected.merge(key, 1, Integer::sum);
+        }
+        assertEquals(expected, counts);
+        assertEquals(counts, expected);
+        assertEquals(expected.hashCode(), counts.hashCode());
+        // un risultato null cancella l'associazione
+        assertNull(counts.merge("k0", 1, (a, b) -> null));
+        assertFalse(counts.containsKey("k0"));
+        assertEquals(36, counts.size());
+    }
+
+    @Test
+    void divisionHash_testViewsAndIteratorRemove() {
+        CollisionListResizableHashMap<Integer, String> map = new CollisionListResizableHashMap<>(
+                divisionHash);
+        for (int i = 0; i < 100; i++)
+            map.put(i, "v" + i);
+        assertEquals(100, map.keySet().size());
+        assertTrue(map.keySet().contains(42));
+        assertTrue(map.values().contains("v42"));
+        Iterator<Map.Entry<Integer, String>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, String> e = it.next();
+            if (e.getKey() % 2 == 0)
+                it.remove();
+            else
+                e.setValue(e.getValue() + "!");
+        }
+        assertEquals(50, map.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i % 2 == 0 ? null : "v" + i + "!", map.get(i));
+        Iterator<Integer> keys = map.keySet().iterator();
+        assertThrows(IllegalStateException.class, () -> {
+            keys.remove();
+        });
+        keys.next();
+        map.put(1000, "nuovo");
+        assertThrows(ConcurrentModificationException.class, () -> {
+            keys.next();
+        });
+        map.keySet().remove(1000);
+        assertFalse(map.containsKey(1000));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    void divisionHash_testPutAllPresizes() {
+        Map<Integer, Integer> source = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 1000; i++)
+            source.put(i, -i);
+        CollisionListResizableHashMap<Integer, Integer> map = new CollisionListResizableHashMap<>(
+                divisionHash);
+        map.putAll(source);
+        assertEquals(2048, map.getTable().length);
+        assertEquals(source, map);
+        int[] sum = { 0 };
+        map.forEach((k, v) -> sum[0] += k + v);
+        assertEquals(0, sum[0]);
+    }
+
+    @Test
+    void divisionHash_testPutAllOverlapping() {
+        CollisionListResizableHashMap<Integer, Integer> map = new CollisionListResizableHashMap<>(
+                divisionHash);
+        Map<Integer, Integer> source = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+            source.put(i, -i);
+        }
+        source.put(1000, -1000);
+        int capacity = map.getTable().length;
+        // le chiavi di source sono quasi tutte già presenti: la tabella non
+        // deve raddoppiare
+        map.putAll(source);
+        assertEquals(capacity, map.getTable().length);
+        assertEquals(source, map);
+    }
+
+}
@@ -3,11 +3,21 @@
  */
 package it.unicam.cs.asdl2223.es10sol;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Realizza un insieme tramite una tabella hash con indirizzamento primario (la
@@ -18,90 +28,179 @@ import java.util.Set;
  * duplicati (individuati tramite il metodo equals() che si assume sia
  * opportunamente ridefinito nella classe E) e non accetta elementi null.
  * 
- * La tabella ha una dimensione iniziale di default (16) e un fattore di
- * caricamento di defaut (0.75). Quando il fattore di bilanciamento effettivo
- * eccede quello di default la tabella viene raddoppiata e viene fatto un
- * riposizionamento di tutti gli elementi.
+ * La tabella ha una dimensione iniziale di default (16), che può essere
+ * cambiata nel costruttore, e un fattore di caricamento di defaut (0.75).
+ * Quando il fattore di bilanciamento effettivo eccede quello di default la
+ * tabella viene raddoppiata e viene fatto un riposizionamento di tutti gli
+ * elementi. Se la funzione di hash primaria richiede una dimensione potenza di
+ * due (vedi PrimaryHashFunction.requiresPowerOfTwoCapacity()) la dimensione
+ * iniziale viene arrotondata alla potenza di due successiva, e quindi la
+ * dimensione resta una potenza di due a ogni raddoppio.
+ * 
+ * Su richiesta, passando il relativo parametro al costruttore, il
+ * riposizionamento può essere fatto in modo incrementale: al momento del
+ * raddoppio la vecchia tabella viene mantenuta e ogni successiva operazione di
+ * inserimento o cancellazione trasferisce nella nuova tabella solo un numero
+ * limitato di bucket. In questo modo il costo del riposizionamento è
+ * distribuito sulle operazioni e nessuna singola operazione deve riposizionare
+ * tutti gli elementi.
+ * 
+ * Normalmente la cancellazione non riduce mai la tabella. Passando al
+ * costruttore un fattore di caricamento minimo, quando dopo una cancellazione
+ * il fattore di bilanciamento effettivo scende sotto di esso la tabella viene
+ * dimezzata, senza però scendere sotto la capacità iniziale. Se il
+ * riposizionamento è incrementale anche il dimezzamento lo è, e mentre è in
+ * corso un riposizionamento la tabella non viene dimezzata. Il metodo
+ * trimToSize() riduce invece esplicitamente la tabella alla capacità minima
+ * sufficiente per gli elementi presenti.
+ * 
+ * Con il metodo enableStatistics() si può abilitare la raccolta di
+ * statistiche sulle liste di collisione, sulle ricerche e sui
+ * riposizionamenti, utili per valutare la funzione di hash primaria. Quando
+ * le statistiche non sono abilitate non viene fatto nessun conteggio.
+ * 
+ * Quando una lista di collisione raggiunge una certa lunghezza (8) e i suoi
+ * elementi sono tutti Comparable e della stessa classe, il bucket viene
+ * trasformato in un albero bilanciato (un TreeMap ordinato prima secondo
+ * l'hashCode memorizzato e poi secondo l'ordinamento naturale degli
+ * elementi), in modo che ricerche, inserimenti e cancellazioni nel bucket
+ * costino O(log n) anche con una funzione di hash inadatta o con hashCode
+ * scelti apposta per collidere. Come in java.util.HashMap, ogni elemento
+ * trovato nell'albero viene confermato con equals, per cui non serve che
+ * compareTo sia coerente con equals: elementi uguali per compareTo ma con
+ * hashCode diversi, come new BigDecimal("1.0") e new BigDecimal("1.00"),
+ * sono distinti dall'hashCode. Gli elementi con lo stesso hashCode uguali per
+ * compareTo ma diversi per equals sono ordinati, come in java.util.HashMap,
+ * secondo System.identityHashCode e una ricerca li confronta tutti con
+ * equals. Quando gli elementi del bucket scendono
+ * sotto un'altra soglia (6) il bucket torna una semplice lista.
+ * 
+ * Con il metodo enableBloomFilter() si può mettere davanti alla tabella un
+ * filtro di Bloom, che risponde alla maggior parte delle ricerche senza
+ * successo senza calcolare la posizione e senza scorrere la lista di
+ * collisioni. Il filtro è dimensionato in base alla soglia della tabella e
+ * viene ricostruito a ogni riposizionamento, mentre la tabella viene
+ * riempita; le cancellazioni non tolgono niente dal filtro, che si
+ * ripulisce al riposizionamento successivo.
+ * 
+ * Con i metodi writeTo() e readFrom() la tabella può essere salvata su uno
+ * stream e ricaricata con la stessa capacità e gli hashCode memorizzati,
+ * senza riposizionamenti e senza richiamare hashCode() sugli elementi.
  * 
  * 
  *
  */
-public class CollisionListResizableHashTable<E> implements Set<E> {
+public class CollisionListResizableHashTable<E> extends
+        AbstractCollisionListHashTable<CollisionListResizableHashTable.Node<E>>
+        implements Set<E> {
 
     /*
-     * La capacità iniziale. E' una potenza di due e quindi la capacità sarà
-     * sempre una potenza di due, in quanto ogni resize raddoppia la tabella.
+     * Numero di bucket della vecchia tabella trasferiti nella nuova tabella a
+     * ogni modifica durante un riposizionamento incrementale. Deve essere
+     * almeno 2: la nuova tabella ha il doppio dei bucket della vecchia e deve
+     * essere riempita oltre la soglia, cioè ricevere almeno
+     * LOAD_FACTOR * capacity nuovi elementi, prima del prossimo raddoppio.
      */
-    private static final int INITIAL_CAPACITY = 16;
+    private static final int RESIZE_STEP = 8;
 
     /*
-     * Fattore di bilanciamento di default. Tipico valore.
+     * Fattore di caricamento minimo di default: 0 indica che la tabella non
+     * viene mai dimezzata dopo una cancellazione.
      */
-    private static final double LOAD_FACTOR = 0.75;
+    private static final double NO_SHRINK_LOAD_FACTOR = 0.0;
 
     /*
-     * Numero di elementi effettivamente presenti nella hash table in questo
-     * momento. ATTENZIONE: questo valore è diverso dalla capacity, che è la
-     * lunghezza attuale dell'array di Object che rappresenta la tabella.
+     * Lunghezza della lista di collisioni a partire dalla quale il bucket
+     * viene trasformato in un albero, se gli elementi lo permettono.
      */
-    private int size;
+    private static final int TREEIFY_THRESHOLD = 8;
 
     /*
-     * L'idea è che l'elemento in posizione i della tabella hash è un bucket che
-     * contiene null oppure il puntatore al primo nodo di una lista concatenata
-     * di elementi. Si può riprendere e adattare il proprio codice della
-     * Esercitazione 6 che realizzava una lista concatenata di elementi
-     * generici. La classe interna Node<E> è ripresa proprio da lì.
-     * 
-     * ATTENZIONE: la tabella hash vera e propria può essere solo un generico
-     * array di Object e non di Node<E> per una impossibilità del compilatore di
-     * accettare di creare array a runtime con un tipo generics. Ciò infatti
-     * comporterebbe dei problemi nel sistema di check dei tipi Java che, a
-     * run-time, potrebbe eseguire degli assegnamenti in violazione del tipo
-     * effettivo della variabile. Quindi usiamo un array di Object che
-     * riempiremo sempre con null o con puntatori a oggetti di tipo Node<E>.
-     * 
-     * Per inserire un elemento nella tabella possiamo usare il polimorfismo di
-     * Object:
-     * 
-     * this.table[i] = new Node<E>(item, next);
-     * 
-     * ma quando dobbiamo prendere un elemento dalla tabella saremo costretti a
-     * fare un cast esplicito:
-     * 
-     * Node<E> myNode = (Node<E>) this.table[i];
-     * 
-     * Ci sarà dato un warning di cast non controllato, ma possiamo eliminarlo
-     * con un tag @SuppressWarning,
+     * Numero di elementi di un bucket trasformato in albero al di sotto del
+     * quale il bucket torna una lista. E' minore di TREEIFY_THRESHOLD in modo
+     * che inserimenti e cancellazioni alternati non trasformino il bucket
+     * ogni volta.
+     */
+    private static final int UNTREEIFY_THRESHOLD = 6;
+
+    /*
+     * Valore scritto all'inizio di ogni istantanea della tabella, per
+     * riconoscere gli stream che non ne contengono una.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x434c5254;
+
+    /*
+     * Numero di elementi dopo il quale lo stream di un'istantanea dimentica
+     * gli oggetti già scritti.
+     */
+    private static final int SNAPSHOT_RESET_INTERVAL = 1024;
+
+    /*
+     * Numero minimo di bit del filtro di Bloom per ogni elemento che la
+     * tabella può contenere prima del prossimo raddoppio.
      */
-    private Object[] table;
+    private static final int BLOOM_BITS_PER_ELEMENT = 8;
 
     /*
-     * Funzion di hash primaria usata da questa hash table. Va inizializzata nel
-     * costruttore all'atto di creazione dell'oggetto.
+     * Numero di bit del filtro di Bloom controllati per ogni hashCode. Con
+     * 8 bit per elemento i falsi positivi sono circa il 2,4%.
      */
-    private final PrimaryHashFunction phf;
+    private static final int BLOOM_PROBES = 4;
 
     /*
-     * Contatore del numero di modifiche. Serve per rendere l'iterator
-     * fail-fast.
+     * Durante un riposizionamento incrementale contiene la tabella prima del
+     * raddoppio, altrimenti è null. I bucket della vecchia tabella in
+     * posizione minore di transferIndex sono già stati trasferiti in table e
+     * sono vuoti; quelli in posizione maggiore o uguale contengono ancora i
+     * loro elementi. Ogni elemento si trova quindi nella vecchia tabella se e
+     * solo se il suo bucket nella vecchia tabella non è stato ancora
+     * trasferito.
      */
-    private int modCount;
+    private Object[] oldTable;
 
-    // I due metodi seguenti sono di comodo per gestire la capacity e la soglia
-    // oltre la quale bisogna fare il resize.
+    /*
+     * Prossimo bucket della vecchia tabella da trasferire.
+     */
+    private int transferIndex;
 
-    /* Numero di elementi della tabella corrente */
-    private int getCurrentCapacity() {
-        return this.table.length;
-    };
+    /*
+     * Indica se il riposizionamento dopo il raddoppio viene fatto in modo
+     * incrementale oppure tutto in una volta.
+     */
+    private final boolean incrementalResize;
+
+    /*
+     * Fattore di caricamento minimo: se dopo una cancellazione size scende
+     * sotto getCurrentCapacity() * shrinkLoadFactor la tabella viene
+     * dimezzata. Se è 0 la tabella non viene mai dimezzata.
+     */
+    private final double shrinkLoadFactor;
 
     /*
-     * Valore corrente soglia oltre la quale si deve fare la resize,
-     * getCurrentCapacity * LOAD_FACTOR
+     * I contatori per le statistiche, null se le statistiche non sono
+     * abilitate.
      */
-    private int getCurrentThreshold() {
-        return (int) (getCurrentCapacity() * LOAD_FACTOR);
+    private Counters counters;
+
+    /*
+     * Il filtro di Bloom che contiene gli hashCode degli elementi, null se il
+     * filtro non è abilitato.
+     */
+    private BloomFilter bloom;
+
+    /*
+     * Durante un riposizionamento il filtro precedente, che contiene gli
+     * elementi non ancora trasferiti e quindi non ancora aggiunti a bloom,
+     * altrimenti null.
+     */
+    private BloomFilter oldBloom;
+
+    /*
+     * Soglia sotto la quale si deve dimezzare una tabella di capacità data
+     * dopo una cancellazione, capacity * shrinkLoadFactor
+     */
+    private int getShrinkThreshold(int capacity) {
+        return (int) (capacity * this.shrinkLoadFactor);
     }
 
     /**
@@ -109,10 +208,127 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
      * caricamento di default.
      */
     public CollisionListResizableHashTable(PrimaryHashFunction phf) {
-        this.phf = phf;
-        this.table = new Object[INITIAL_CAPACITY];
-        this.size = 0;
-        this.modCount = 0;
+        this(phf, INITIAL_CAPACITY, false, NO_SHRINK_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una Hash Table con capacità iniziale data e fattore di
+     * caricamento di default.
+     * 
+     * @param phf
+     *                            la funzione di hash primaria da usare
+     * @param initialCapacity
+     *                            la capacità iniziale della tabella, che viene
+     *                            arrotondata alla potenza di due successiva se
+     *                            la funzione di hash lo richiede
+     * @throws IllegalArgumentException
+     *                                      se la capacità iniziale non è
+     *                                      positiva
+     */
+    public CollisionListResizableHashTable(PrimaryHashFunction phf,
+            int initialCapacity) {
+        this(phf, initialCapacity, false, NO_SHRINK_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una Hash Table con capacità iniziale di default e fattore di
+     * caricamento di default, specificando se il riposizionamento degli
+     * elementi dopo ogni raddoppio deve essere fatto in modo incrementale.
+     * 
+     * @param phf
+     *                              la funzione di hash primaria da usare
+     * @param incrementalResize
+     *                              se true gli elementi vengono trasferiti
+     *                              nella tabella raddoppiata un po' alla volta
+     *                              durante le successive operazioni di
+     *                              modifica, se false tutti insieme al momento
+     *                              del raddoppio
+     */
+    public CollisionListResizableHashTable(PrimaryHashFunction phf,
+            boolean incrementalResize) {
+        this(phf, INITIAL_CAPACITY, incrementalResize, NO_SHRINK_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una Hash Table con capacità iniziale data e fattore di
+     * caricamento di default, specificando se il riposizionamento degli
+     * elementi dopo ogni raddoppio deve essere fatto in modo incrementale.
+     * 
+     * @param phf
+     *                              la funzione di hash primaria da usare
+     * @param initialCapacity
+     *                              la capacità iniziale della tabella, che
+     *                              viene arrotondata alla potenza di due
+     *                              successiva se la funzione di hash lo
+     *                              richiede
+     * @param incrementalResize
+     *                              se true gli elementi vengono trasferiti
+     *                              nella tabella raddoppiata un po' alla volta
+     *                              durante le successive operazioni di
+     *                              modifica, se false tutti insieme al momento
+     *                              del raddoppio
+     * @throws NullPointerException
+     *                                      se la funzione di hash passata è
+     *                                      null
+     * @throws IllegalArgumentException
+     *                                      se la capacità iniziale non è
+     *                                      positiva
+     */
+    public CollisionListResizableHashTable(PrimaryHashFunction phf,
+            int initialCapacity, boolean incrementalResize) {
+        this(phf, initialCapacity, incrementalResize, NO_SHRINK_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una Hash Table con capacità iniziale data e fattore di
+     * caricamento di default, specificando se il riposizionamento degli
+     * elementi dopo ogni raddoppio deve essere fatto in modo incrementale e il
+     * fattore di caricamento minimo sotto il quale la tabella viene dimezzata
+     * dopo una cancellazione.
+     * 
+     * @param phf
+     *                              la funzione di hash primaria da usare
+     * @param initialCapacity
+     *                              la capacità iniziale della tabella, che
+     *                              viene arrotondata alla potenza di due
+     *                              successiva se la funzione di hash lo
+     *                              richiede
+     * @param incrementalResize
+     *                              se true gli elementi vengono trasferiti
+     *                              nella tabella raddoppiata un po' alla volta
+     *                              durante le successive operazioni di
+     *                              modifica, se false tutti insieme al momento
+     *                              del raddoppio
+     * @param shrinkLoadFactor
+     *                              fattore di caricamento minimo; 0 indica che
+     *                              la tabella non viene mai dimezzata. Deve
+     *                              essere minore della metà del fattore di
+     *                              caricamento di default, in modo che una
+     *                              tabella appena dimezzata non debba essere
+     *                              subito raddoppiata
+     * @throws NullPointerException
+     *                                      se la funzione di hash passata è
+     *                                      null
+     * @throws IllegalArgumentException
+     *                                      se la capacità iniziale non è
+     *                                      positiva o il fattore di
+     *                                      caricamento minimo non è compreso
+     *                                      tra 0 (incluso) e la metà del
+     *                                      fattore di caricamento di default
+     *                                      (escluso)
+     */
+    public CollisionListResizableHashTable(PrimaryHashFunction phf,
+            int initialCapacity, boolean incrementalResize,
+            double shrinkLoadFactor) {
+        super(phf, initialCapacity);
+        if (!(shrinkLoadFactor >= 0 && shrinkLoadFactor < LOAD_FACTOR / 2))
+            throw new IllegalArgumentException(
+                    "Fattore di caricamento minimo non valido: "
+                            + shrinkLoadFactor);
+        this.incrementalResize = incrementalResize;
+        this.shrinkLoadFactor = shrinkLoadFactor;
+        this.oldTable = null;
+        this.transferIndex = 0;
     }
 
     @Override
@@ -141,18 +357,32 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
         if (o == null)
             throw new NullPointerException(
                     "Ricerca di elemento null in un set che non accetta null");
-        // Determino la posizione in cui si dovrebbe trovare l'oggetto
-        int pos = this.phf.hash(o.hashCode(), this.getCurrentCapacity());
-        if (this.table[pos] == null)
+        // Determino la tabella e la posizione in cui si dovrebbe trovare
+        // l'oggetto
+        int h = o.hashCode();
+        if (this.bloom != null && !this.bloom.mightContain(h)
+                && (this.oldBloom == null || !this.oldBloom.mightContain(h)))
+            // il filtro di Bloom garantisce che l'oggetto non è presente
+            return false;
+        Object[] t = this.tableFor(h);
+        int pos = this.phf.hash(h, t.length);
+        if (this.counters != null)
+            // ricerca con conteggio dei confronti
+            return containsCounting(o, h, t, pos);
+        if (t[pos] == null)
             // l'oggetto non è presente poiché la lista di collisioni è null
             return false;
+        if (t[pos] instanceof TreeBin)
+            // il bucket è stato trasformato in albero
+            return ((TreeBin<?>) t[pos]).find(h, o) != null;
         // Cerco se l'oggetto è presente nella lista di collisioni
         @SuppressWarnings("unchecked")
-        Node<E> list = (Node<E>) this.table[pos];
+        Node<E> list = (Node<E>) t[pos];
         do {
             // controllo l'elemento corrente attraverso il metodo equals
-            // chiamato su o, cfr. API
-            if (o.equals(list.item))
+            // chiamato su o, cfr. API. Prima confronto gli hash: se sono
+            // diversi gli oggetti non possono essere uguali
+            if (list.hash == h && o.equals(list.item))
                 return true;
             // altrimenti vado avanti nella lista di collisioni
             list = list.next;
@@ -162,11 +392,58 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
         return false;
     }
 
+    /*
+     * Versione di contains usata quando le statistiche sono abilitate: cerca
+     * l'oggetto o, con hashCode h, nella lista di collisioni t[pos] e registra
+     * il numero di elementi confrontati. Per un bucket trasformato in albero
+     * si conta il numero di livelli di un albero bilanciato con i suoi
+     * elementi.
+     */
+    private boolean containsCounting(Object o, int h, Object[] t, int pos) {
+        int comparisons = 0;
+        boolean found = false;
+        if (t[pos] instanceof TreeBin && ((TreeBin<?>) t[pos]).accepts(o)) {
+            TreeBin<?> bin = (TreeBin<?>) t[pos];
+            comparisons = 32 - Integer.numberOfLeadingZeros(bin.size());
+            found = bin.find(h, o) != null;
+        } else {
+            Node<E> list = first(t[pos]);
+            while (list != null && !found) {
+                comparisons++;
+                found = list.hash == h && o.equals(list.item);
+                list = list.next;
+            }
+        }
+        this.counters.containsCalls++;
+        this.counters.containsComparisons += comparisons;
+        if (comparisons > this.counters.maxContainsComparisons)
+            this.counters.maxContainsComparisons = comparisons;
+        return found;
+    }
+
     @Override
     public Iterator<E> iterator() {
         return new Itr();
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * Lo spliterator divide l'insieme per intervalli di bucket della tabella,
+     * e permette quindi di elaborare in parallelo gli elementi con
+     * parallelStream(). Lo spliterator iniziale conosce il numero esatto di
+     * elementi, quelli ottenuti dalle divisioni ne forniscono una stima. E'
+     * fail-fast come l'iteratore.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        if (this.oldTable != null)
+            return new BucketSpliterator(this.oldTable, this.transferIndex,
+                    this.oldTable.length, this.table, this.size, true);
+        return new BucketSpliterator(this.table, 0, this.table.length, null,
+                this.size, true);
+    }
+
     @Override
     public Object[] toArray() {
         throw new UnsupportedOperationException("Operazione non supportata");
@@ -196,73 +473,374 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
         if (e == null)
             throw new NullPointerException(
                     "Inserimento di elemento null in un set che non accetta null");
+        return addHashed(e.hashCode(), e);
+    }
+
+    /*
+     * Inserisce l'elemento e, non null e con hashCode h, se non è già
+     * presente e controlla se bisogna fare resize(). Separato da add per poter
+     * inserire gli elementi di un'altra tabella senza richiamare hashCode().
+     */
+    private boolean addHashed(int h, E e) {
         // vado alla ricerca dell'elemento, nel caso non lo trovi lo inserisco,
         // altrimenti non faccio niente
-        // Determino la posizione in cui si dovrebbe trovare l'oggetto
-        int pos = this.phf.hash(e.hashCode(), this.getCurrentCapacity());
+        // Determino la tabella e la posizione in cui si dovrebbe trovare
+        // l'oggetto
+        Object[] t = this.tableFor(h);
+        int pos = this.phf.hash(h, t.length);
         // Provo a inserire l'elemento
-        boolean inserted = insertElementInTable(this.table, pos, e);
+        boolean inserted = insertElementInTable(t, pos, h, e);
         if (!inserted)
             return false;
+        if (this.bloom != null)
+            this.bloom.add(h);
         // Aggiorno size e modCount
         this.modCount++;
         this.size++;
         // Controllo resize
         if (this.size > this.getCurrentThreshold())
             resize();
+        else if (this.oldTable != null)
+            // vado avanti con il riposizionamento incrementale in corso
+            transferStep();
         return true;
     }
 
     /*
-     * Inserisce un elemento nella tabella hash con liste di collisioni nella
-     * posizione indicata, se non è già presente
+     * Restituisce la tabella in cui si trova il bucket di un elemento con
+     * hashCode h: durante un riposizionamento incrementale è la vecchia
+     * tabella se il bucket dell'elemento non è stato ancora trasferito,
+     * altrimenti è sempre la tabella corrente.
+     */
+    private Object[] tableFor(int h) {
+        if (this.oldTable != null
+                && this.phf.hash(h, this.oldTable.length) >= this.transferIndex)
+            return this.oldTable;
+        return this.table;
+    }
+
+    /*
+     * Restituisce il primo nodo della lista di collisioni contenuta in un
+     * bucket, che sia una semplice lista o sia stato trasformato in albero.
      */
-    private boolean insertElementInTable(Object[] table, int pos, E e) {
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> first(Object bucket) {
+        if (bucket instanceof TreeBin)
+            return ((TreeBin<E>) bucket).first;
+        return (Node<E>) bucket;
+    }
+
+    /*
+     * Inserisce un elemento, con hashCode h, nella tabella hash con liste di
+     * collisioni nella posizione indicata, se non è già presente
+     */
+    private boolean insertElementInTable(Object[] table, int pos, int h, E e) {
         if (table[pos] == null) {
             // l'oggetto non è presente, lo inserisco
-            table[pos] = new Node<E>(e, null);
+            table[pos] = new Node<E>(h, e, null);
             return true;
         }
-        // vado alla ricerca dell'oggetto nella lista di collisioni
-        @SuppressWarnings("unchecked")
-        Node<E> list = (Node<E>) table[pos];
-        do {
-            // controllo l'elemento corrente attraverso il metodo equals
-            // chiamato su e, cfr. API
-            if (e.equals(list.item))
-                // l'oggetto è già presente, quindi non lo inserisco
+        if (table[pos] instanceof TreeBin) {
+            // il bucket è stato trasformato in albero
+            @SuppressWarnings("unchecked")
+            TreeBin<E> bin = (TreeBin<E>) table[pos];
+            if (bin.find(h, e) != null)
                 return false;
-            // altrimenti vado avanti nella lista di collisioni
-            list = list.next;
-        } while (list != null);
+            Node<E> node = new Node<E>(h, e, null);
+            if (bin.accepts(e) && bin.addNode(node))
+                return true;
+            // elemento di un'altra classe o che l'albero non distingue da un
+            // altro, il bucket torna una lista
+            node.next = bin.first;
+            table[pos] = node;
+            return true;
+        } else {
+            // vado alla ricerca dell'oggetto nella lista di collisioni
+            @SuppressWarnings("unchecked")
+            Node<E> list = (Node<E>) table[pos];
+            int length = 0;
+            do {
+                // controllo l'elemento corrente attraverso il metodo equals
+                // chiamato su e, cfr. API, solo se gli hash coincidono
+                if (list.hash == h && e.equals(list.item))
+                    // l'oggetto è già presente, quindi non lo inserisco
+                    return false;
+                // altrimenti vado avanti nella lista di collisioni
+                list = list.next;
+                length++;
+            } while (list != null);
+            if (length + 1 >= TREEIFY_THRESHOLD) {
+                // Inserisco in testa e provo a trasformare il bucket
+                @SuppressWarnings("unchecked")
+                Node<E> head = (Node<E>) table[pos];
+                table[pos] = new Node<E>(h, e, head);
+                treeifyIfNeeded(table, pos);
+                return true;
+            }
+        }
         // Non ho trovato l'elemento nella lista di collisioni, quindi non è
         // presente e lo inserisco in testa alla lista
         @SuppressWarnings("unchecked")
         Node<E> head = (Node<E>) table[pos];
-        table[pos] = new Node<E>(e, head);
+        table[pos] = new Node<E>(h, e, head);
         return true;
     }
 
     /*
-     * Raddoppia la tabella corrente e riposiziona tutti gli elementi. Da
-     * chiamare quando this.size diventa maggiore di getCurrentThreshold()
+     * Trasforma in albero il bucket in posizione pos di t se contiene una
+     * lista di almeno TREEIFY_THRESHOLD elementi, tutti Comparable e della
+     * stessa classe.
+     */
+    private static <E> void treeifyIfNeeded(Object[] t, int pos) {
+        if (t[pos] == null || t[pos] instanceof TreeBin)
+            return;
+        Node<E> list = first(t[pos]);
+        Class<?> elementClass = list.item.getClass();
+        if (!(list.item instanceof Comparable))
+            return;
+        int length = 0;
+        for (; list != null; list = list.next) {
+            if (list.item.getClass() != elementClass)
+                return;
+            length++;
+        }
+        if (length < TREEIFY_THRESHOLD)
+            return;
+        // se l'albero non contiene tutti i nodi ci sono elementi che non
+        // riesce a distinguere, cosa che in pratica non succede, e il bucket
+        // resta una lista
+        TreeBin<E> bin = new TreeBin<E>(first(t[pos]));
+        if (bin.size() == length)
+            t[pos] = bin;
+    }
+
+    /*
+     * Raddoppia la tabella corrente e riposiziona gli elementi. Da chiamare
+     * quando this.size diventa maggiore di getCurrentThreshold(). Se il
+     * riposizionamento è incrementale ne viene fatto solo il primo passo,
+     * altrimenti vengono trasferiti subito tutti i bucket.
      */
     private void resize() {
-        // Creo la nuova tabella
-        Object[] newTable = new Object[this.getCurrentCapacity() * 2];
-        // Scorro tutti gli elementi attualmente presenti e li inserisco nella
-        // nuova tabella
-        Iterator<E> iter = this.iterator();
-        while (iter.hasNext()) {
-            E item = iter.next();
-            // Determino la posizione in cui si dovrebbe trovare l'oggetto nella
-            // nuova tabella
-            int pos = this.phf.hash(item.hashCode(), newTable.length);
-            // Inserisco l'elemento nella nuova tabella
-            insertElementInTable(newTable, pos, item);
+        long start = startTiming();
+        // Se c'è ancora un riposizionamento in corso lo completo
+        if (this.oldTable != null)
+            transferBuckets(this.oldTable.length);
+        // Oltre la capacità massima la tabella non può più crescere: conto
+        // comunque il tempo speso per completare il trasferimento precedente
+        if (this.table.length > MAXIMUM_CAPACITY / 2) {
+            stopTiming(start, false);
+            return;
         }
-        // aggiorno la tabella nell'oggetto
-        this.table = newTable;
+        // La tabella corrente diventa la vecchia tabella e creo la nuova
+        startTransfer(this.table.length * 2);
+        if (this.incrementalResize)
+            transferBuckets(RESIZE_STEP);
+        else
+            transferBuckets(this.oldTable.length);
+        stopTiming(start, true);
+    }
+
+    /*
+     * Inizia un riposizionamento verso una nuova tabella di capacità data: la
+     * tabella corrente diventa la vecchia tabella, da cui nessun bucket è
+     * ancora stato trasferito. Non deve esserci un riposizionamento in corso.
+     */
+    private void startTransfer(int capacity) {
+        this.oldTable = this.table;
+        this.transferIndex = 0;
+        this.table = new Object[capacity];
+        startBloomRebuild();
+    }
+
+    /*
+     * Se il filtro di Bloom è abilitato lo sostituisce con uno vuoto,
+     * dimensionato per la soglia della nuova tabella, a cui vengono aggiunti
+     * gli elementi man mano che sono trasferiti. Fino alla fine del
+     * trasferimento il filtro precedente resta in oldBloom.
+     */
+    private void startBloomRebuild() {
+        if (this.bloom == null)
+            return;
+        this.oldBloom = this.bloom;
+        this.bloom = new BloomFilter(getCurrentThreshold());
+    }
+
+    /*
+     * Trasferisce i prossimi RESIZE_STEP bucket del riposizionamento
+     * incrementale in corso.
+     */
+    private void transferStep() {
+        long start = startTiming();
+        transferBuckets(RESIZE_STEP);
+        stopTiming(start, false);
+    }
+
+    /*
+     * Se le statistiche sono abilitate restituisce l'istante corrente in
+     * nanosecondi, altrimenti 0 senza interrogare il timer.
+     */
+    private long startTiming() {
+        return this.counters != null ? System.nanoTime() : 0;
+    }
+
+    /*
+     * Se le statistiche sono abilitate aggiunge al tempo speso nei
+     * riposizionamenti quello trascorso da start e, se newResize è true,
+     * conta un nuovo riposizionamento.
+     */
+    private void stopTiming(long start, boolean newResize) {
+        if (this.counters == null)
+            return;
+        this.counters.resizeTimeNano += System.nanoTime() - start;
+        if (newResize)
+            this.counters.resizeCount++;
+    }
+
+    /*
+     * Trasferisce al più n bucket della vecchia tabella nella tabella
+     * corrente, a partire da transferIndex. Quando tutti i bucket sono stati
+     * trasferiti la vecchia tabella viene rilasciata.
+     */
+    private void transferBuckets(int n) {
+        int end = Math.min(this.transferIndex + n, this.oldTable.length);
+        for (int j = this.transferIndex; j < end; j++)
+            transferBucket(this.oldTable, j);
+        this.transferIndex = end;
+        if (this.transferIndex == this.oldTable.length) {
+            // riposizionamento terminato
+            this.oldTable = null;
+            this.transferIndex = 0;
+            this.oldBloom = null;
+        }
+    }
+
+    /*
+     * Trasferisce i nodi del bucket in posizione j di from come nella classe
+     * base. Se il bucket è un albero ne ricorda le nuove posizioni dei nodi,
+     * per trasformare di nuovo in albero le liste troppo lunghe.
+     */
+    @Override
+    void transferBucket(Object[] from, int j) {
+        if (!(from[j] instanceof TreeBin)) {
+            super.transferBucket(from, j);
+            return;
+        }
+        int[] positions = new int[((TreeBin<?>) from[j]).size()];
+        int k = 0;
+        for (Node<E> node = first(from[j]); node != null; node = node.next)
+            positions[k++] = this.phf.hash(node.hash, this.table.length);
+        super.transferBucket(from, j);
+        for (int pos : positions)
+            treeifyIfNeeded(this.table, pos);
+    }
+
+    @Override
+    Node<E> firstNode(Object bucket) {
+        return first(bucket);
+    }
+
+    /*
+     * Sposta un nodo della vecchia tabella in testa al bucket in posizione pos
+     * della tabella corrente, che può essere stato trasformato in albero
+     * durante un riposizionamento incrementale, e aggiunge il suo hashCode al
+     * filtro di Bloom, se abilitato.
+     */
+    @Override
+    void moveNode(Node<E> node, int pos) {
+        if (this.bloom != null)
+            this.bloom.add(node.hash);
+        if (this.table[pos] instanceof TreeBin) {
+            @SuppressWarnings("unchecked")
+            TreeBin<E> bin = (TreeBin<E>) this.table[pos];
+            if (bin.accepts(node.item) && bin.addNode(node))
+                return;
+            // elemento di un'altra classe o che l'albero non distingue da un
+            // altro, il bucket torna una lista
+            this.table[pos] = bin.first;
+        }
+        @SuppressWarnings("unchecked")
+        Node<E> head = (Node<E>) this.table[pos];
+        node.next = head;
+        this.table[pos] = node;
+    }
+
+    /*
+     * Sostituisce la tabella corrente con una nuova tabella di capacità data e
+     * vi riposiziona subito tutti gli elementi, completando prima l'eventuale
+     * riposizionamento incrementale in corso. Usato per ridurre la tabella o
+     * per ingrandirla in un solo passo.
+     */
+    private void rehash(int capacity) {
+        long start = startTiming();
+        if (this.oldTable != null)
+            transferBuckets(this.oldTable.length);
+        startTransfer(capacity);
+        transferBuckets(this.oldTable.length);
+        stopTiming(start, true);
+    }
+
+    /*
+     * Dimezza la tabella, anche più volte, finché size è sotto la soglia di
+     * dimezzamento, senza scendere sotto la capacità iniziale. Restituisce
+     * true se la tabella è stata ridotta.
+     * 
+     * Se il riposizionamento è incrementale la riduzione è fatta come il
+     * raddoppio: ne viene fatto solo il primo passo e i bucket restanti sono
+     * trasferiti dalle operazioni successive. Se è già in corso un
+     * riposizionamento la riduzione viene rimandata a una cancellazione
+     * successiva alla sua fine, in modo che nessuna singola cancellazione
+     * debba trasferire tutti gli elementi.
+     */
+    private boolean shrinkIfNeeded() {
+        if (this.oldTable != null)
+            return false;
+        int capacity = this.table.length;
+        while (capacity / 2 >= this.initialCapacity
+                && this.size < getShrinkThreshold(capacity))
+            capacity = capacity / 2;
+        if (capacity == this.table.length)
+            return false;
+        if (!this.incrementalResize) {
+            rehash(capacity);
+            return true;
+        }
+        long start = startTiming();
+        startTransfer(capacity);
+        transferBuckets(RESIZE_STEP);
+        stopTiming(start, true);
+        return true;
+    }
+
+    /*
+     * Raddoppia la tabella, anche più volte, finché può contenere
+     * expectedSize elementi senza superare il fattore di caricamento, e
+     * riposiziona gli elementi una volta sola.
+     */
+    private void ensureCapacity(long expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity == this.table.length)
+            return;
+        rehash(capacity);
+        this.modCount++;
+    }
+
+    /**
+     * Riduce la capacità della tabella alla minima sufficiente per contenere
+     * gli elementi presenti senza superare il fattore di caricamento di
+     * default. La capacità viene dimezzata finché è possibile, in modo da
+     * restare una potenza di due se la funzione di hash lo richiede, e può
+     * scendere anche sotto la capacità iniziale. Serve per restituire la
+     * memoria dopo la cancellazione di molti elementi e per rendere più veloce
+     * l'iterazione, che deve scorrere tutti i bucket.
+     */
+    public void trimToSize() {
+        int capacity = this.table.length;
+        while (capacity > 1 && this.size <= (int) (capacity / 2 * LOAD_FACTOR))
+            capacity = capacity / 2;
+        if (capacity == this.table.length)
+            return;
+        rehash(capacity);
+        this.modCount++;
     }
 
     @Override
@@ -279,39 +857,71 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
          * eliminato dalla lista concatenata
          * 
          */
-        // ATTENZIONE: la rimozione, in questa implementazione, **non** comporta
-        // mai una resize "al ribasso", cioè un dimezzamento della tabella se si
-        // scende sotto il fattore di bilanciamento desiderato.
+        // ATTENZIONE: la rimozione comporta una resize "al ribasso", cioè un
+        // dimezzamento della tabella, solo se è stato specificato un fattore
+        // di caricamento minimo e si scende sotto di esso.
         if (o == null)
             throw new NullPointerException(
                     "Cancellazione di elemento null in un set che non accetta null");
         // vado alla ricerca dell'elemento, nel caso lo trovi lo cancello,
         // altrimenti non faccio niente
-        // Determino la posizione in cui si dovrebbe trovare l'oggetto
-        int pos = this.phf.hash(o.hashCode(), this.getCurrentCapacity());
-        if (this.table[pos] == null) {
+        // Determino la tabella e la posizione in cui si dovrebbe trovare
+        // l'oggetto
+        int h = o.hashCode();
+        Object[] t = this.tableFor(h);
+        int pos = this.phf.hash(h, t.length);
+        if (!removeElementFromTable(t, pos, h, o))
             // l'oggetto non è presente, ritorno
             return false;
+        // aggiorno la size e il modCount e ritorno
+        this.modCount++;
+        this.size--;
+        // Controllo resize al ribasso
+        if (!shrinkIfNeeded() && this.oldTable != null)
+            // vado avanti con il riposizionamento incrementale in corso
+            transferStep();
+        return true;
+    }
+
+    /*
+     * Cancella un elemento, con hashCode h, dalla lista di collisioni nella
+     * posizione indicata, se presente
+     */
+    private boolean removeElementFromTable(Object[] t, int pos, int h,
+            Object o) {
+        if (t[pos] == null) {
+            // l'oggetto non è presente, ritorno
+            return false;
+        }
+        if (t[pos] instanceof TreeBin) {
+            // il bucket è stato trasformato in albero
+            @SuppressWarnings("unchecked")
+            TreeBin<E> bin = (TreeBin<E>) t[pos];
+            Node<E> node = bin.find(h, o);
+            if (node == null)
+                return false;
+            bin.removeNode(node);
+            if (bin.size() < UNTREEIFY_THRESHOLD)
+                // il bucket torna una lista
+                t[pos] = bin.first;
+            return true;
         }
         // vado alla ricerca dell'oggetto nella lista di collisioni
-        @SuppressWarnings("unchecked")
         Node<E> previous = null;
-        Node<E> list = (Node<E>) this.table[pos];
+        @SuppressWarnings("unchecked")
+        Node<E> list = (Node<E>) t[pos];
         do {
             // controllo l'elemento corrente attraverso il metodo equals
-            // chiamato su o, cfr. API
-            if (o.equals(list.item)) {
+            // chiamato su o, cfr. API, solo se gli hash coincidono
+            if (list.hash == h && o.equals(list.item)) {
                 // l'oggetto è presente, quindi lo cancello dalla lista
                 if (previous == null) {
                     // l'elemento da togliere è in testa
-                    this.table[pos] = list.next;
+                    t[pos] = list.next;
                 } else {
                     // l'elemento non è in testa
                     previous.next = list.next;
                 }
-                // aggiorno la size e il modCount e ritorno
-                this.modCount++;
-                this.size--;
                 return true;
             }
             // altrimenti vado avanti nella lista di collisioni
@@ -341,11 +951,39 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * Prima di inserire gli elementi la tabella viene ingrandita, in un solo
+     * passo, fino alla capacità sufficiente per il numero di elementi atteso
+     * alla fine, in modo da evitare raddoppi successivi. Poiché gli elementi
+     * di c potrebbero essere già presenti, il numero atteso è il massimo tra
+     * size() e c.size(), e se poi servono altri raddoppi li fa il normale
+     * inserimento. Se c è un'altra CollisionListResizableHashTable vengono
+     * invece contati esattamente i suoi elementi non ancora presenti, usando
+     * gli hash memorizzati nei nodi, e poi i suoi elementi vengono inseriti
+     * direttamente dalle liste di collisione, sempre senza richiamare
+     * hashCode().
+     */
     @Override
     public boolean addAll(Collection<? extends E> c) {
         // utilizzare un iteratore della collection e chiamare il metodo add
         if (c == null)
             throw new NullPointerException("AddAll di collection null");
+        if (c == this)
+            // gli elementi sono già tutti presenti
+            return false;
+        if (c instanceof CollisionListResizableHashTable) {
+            @SuppressWarnings("unchecked")
+            CollisionListResizableHashTable<? extends E> other = (CollisionListResizableHashTable<? extends E>) c;
+            ensureCapacity((long) this.size + countMissing(other));
+            return mergeFrom(other);
+        }
+        // Numero di elementi atteso: gli elementi di c, anche se c è un
+        // insieme, potrebbero essere in gran parte già presenti, e sommare le
+        // dimensioni raddoppierebbe la tabella per elementi che non vengono
+        // inseriti; l'eventuale raddoppio in più è fatto da add
+        ensureCapacity(Math.max(this.size, c.size()));
         boolean changed = false;
         Iterator<? extends E> iter = c.iterator();
         while (iter.hasNext()) {
@@ -361,9 +999,161 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
         return changed;
     }
 
+    /*
+     * Restituisce il numero di elementi di un'altra tabella che non sono
+     * presenti in questa, cercandoli con gli hash memorizzati nei nodi.
+     */
+    private long countMissing(CollisionListResizableHashTable<?> other) {
+        if (this.size == 0)
+            return other.size;
+        long missing = 0;
+        if (other.oldTable != null)
+            missing = countMissingInBuckets(other.oldTable,
+                    other.transferIndex);
+        return missing + countMissingInBuckets(other.table, 0);
+    }
+
+    /*
+     * Conta gli elementi delle liste di collisione di una tabella di
+     * un'altra hash table, a partire dal bucket in posizione from, che non
+     * sono presenti in questa.
+     */
+    private long countMissingInBuckets(Object[] buckets, int from) {
+        long missing = 0;
+        for (int j = from; j < buckets.length; j++) {
+            Node<?> list = first(buckets[j]);
+            while (list != null) {
+                if (!containsHashed(list.hash, list.item))
+                    missing++;
+                list = list.next;
+            }
+        }
+        return missing;
+    }
+
+    /*
+     * Restituisce true se l'oggetto o, non null e con hashCode h, è presente.
+     * Non aggiorna le statistiche.
+     */
+    private boolean containsHashed(int h, Object o) {
+        Object[] t = this.tableFor(h);
+        int pos = this.phf.hash(h, t.length);
+        if (t[pos] instanceof TreeBin)
+            return ((TreeBin<?>) t[pos]).find(h, o) != null;
+        for (Node<E> list = first(t[pos]); list != null; list = list.next)
+            if (list.hash == h && o.equals(list.item))
+                return true;
+        return false;
+    }
+
+    /*
+     * Inserisce tutti gli elementi di un'altra tabella. Se le due tabelle
+     * usano lo stesso tipo di funzione di hash, hanno la stessa capacità e non
+     * hanno un riposizionamento incrementale in corso, ogni elemento va nel
+     * bucket con la stessa posizione che ha nell'altra tabella e quindi le
+     * liste di collisione vengono unite bucket per bucket, senza calcolare
+     * nessuna posizione. Altrimenti la posizione viene calcolata dall'hash
+     * memorizzato nel nodo.
+     */
+    private boolean mergeFrom(CollisionListResizableHashTable<? extends E> other) {
+        boolean changed = false;
+        if (this.phf.getClass() == other.phf.getClass()
+                && this.table.length == other.table.length
+                && this.oldTable == null && other.oldTable == null) {
+            for (int j = 0; j < other.table.length; j++) {
+                Node<? extends E> list = first(other.table[j]);
+                while (list != null) {
+                    if (insertElementInTable(this.table, j, list.hash,
+                            list.item)) {
+                        if (this.bloom != null)
+                            this.bloom.add(list.hash);
+                        this.modCount++;
+                        this.size++;
+                        changed = true;
+                    }
+                    list = list.next;
+                }
+            }
+            // la capacità è già stata adeguata da addAll, ma controllo
+            // comunque la soglia
+            if (this.size > this.getCurrentThreshold())
+                resize();
+            return changed;
+        }
+        if (other.oldTable != null)
+            changed = mergeBuckets(other.oldTable, other.transferIndex);
+        // E' necessario usare l'OR NON PIGRO per assicurarsi che venga
+        // chiamato il metodo mergeBuckets
+        return changed | mergeBuckets(other.table, 0);
+    }
+
+    /*
+     * Inserisce gli elementi delle liste di collisione di una tabella di
+     * un'altra hash table a partire dal bucket in posizione from.
+     */
+    private boolean mergeBuckets(Object[] buckets, int from) {
+        boolean changed = false;
+        for (int j = from; j < buckets.length; j++) {
+            Node<? extends E> list = first(buckets[j]);
+            while (list != null) {
+                changed = changed | addHashed(list.hash, list.item);
+                list = list.next;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Le liste di collisione vengono scorse una sola volta e i nodi degli
+     * elementi che non appartengono a c vengono tolti sul posto. Alla fine la
+     * tabella viene eventualmente ridotta come dopo una cancellazione.
+     */
     @Override
     public boolean retainAll(Collection<?> c) {
-        throw new UnsupportedOperationException("Operazione non supportata");
+        if (c == null)
+            throw new NullPointerException("RetainAll di collection null");
+        int oldSize = this.size;
+        if (this.oldTable != null)
+            retainInBuckets(this.oldTable, this.transferIndex, c);
+        retainInBuckets(this.table, 0, c);
+        if (this.size == oldSize)
+            return false;
+        this.modCount++;
+        shrinkIfNeeded();
+        return true;
+    }
+
+    /*
+     * Toglie dalle liste di collisione di buckets, a partire dal bucket in
+     * posizione from, i nodi degli elementi che non appartengono a c e
+     * aggiorna size.
+     */
+    private void retainInBuckets(Object[] buckets, int from, Collection<?> c) {
+        for (int j = from; j < buckets.length; j++) {
+            // un bucket trasformato in albero viene filtrato come lista e poi
+            // eventualmente trasformato di nuovo
+            boolean wasTree = buckets[j] instanceof TreeBin;
+            buckets[j] = first(buckets[j]);
+            Node<E> previous = null;
+            @SuppressWarnings("unchecked")
+            Node<E> list = (Node<E>) buckets[j];
+            while (list != null) {
+                if (!c.contains(list.item)) {
+                    // tolgo il nodo dalla lista
+                    if (previous == null)
+                        buckets[j] = list.next;
+                    else
+                        previous.next = list.next;
+                    this.size--;
+                } else
+                    previous = list;
+                list = list.next;
+            }
+            if (wasTree)
+                treeifyIfNeeded(buckets, j);
+        }
     }
 
     @Override
@@ -389,26 +1179,489 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
     @Override
     public void clear() {
         // Ritorno alla situazione iniziale
-        this.table = new Object[INITIAL_CAPACITY];
+        this.table = new Object[this.initialCapacity];
+        this.oldTable = null;
+        this.transferIndex = 0;
         this.size = 0;
         this.modCount = 0;
+        if (this.bloom != null) {
+            this.bloom = new BloomFilter(getCurrentThreshold());
+            this.oldBloom = null;
+        }
+    }
+
+    /**
+     * Scrive sullo stream una istantanea della tabella, da ricaricare con
+     * readFrom(). Vengono scritti i parametri della tabella, la capacità
+     * corrente e, per ogni elemento, il suo hashCode memorizzato seguito
+     * dall'elemento serializzato, che deve quindi essere Serializable. Gli
+     * elementi vengono scritti uno alla volta, senza copiarli, e lo stream non
+     * viene chiuso. Se è in corso un riposizionamento incrementale gli
+     * elementi della vecchia tabella vengono scritti come se fossero già nella
+     * tabella corrente, senza modificarla.
+     *
+     * @param out
+     *                lo stream su cui scrivere
+     * @throws NullPointerException
+     *                                         se lo stream è null
+     * @throws java.io.NotSerializableException
+     *                                         se un elemento non è
+     *                                         Serializable
+     * @throws IOException
+     *                                         se si verifica un errore di
+     *                                         scrittura
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (out == null)
+            throw new NullPointerException("Stream nullo");
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeInt(SNAPSHOT_MAGIC);
+        oos.writeUTF(this.phf.getClass().getName());
+        oos.writeInt(this.initialCapacity);
+        oos.writeBoolean(this.incrementalResize);
+        oos.writeDouble(this.shrinkLoadFactor);
+        oos.writeInt(this.table.length);
+        oos.writeInt(this.size);
+        int written = 0;
+        if (this.oldTable != null)
+            written = writeBuckets(oos, this.oldTable, this.transferIndex,
+                    written);
+        written = writeBuckets(oos, this.table, 0, written);
+        if (written != this.size)
+            throw new ConcurrentModificationException(
+                    "Tabella modificata durante la scrittura");
+        oos.flush();
+    }
+
+    /*
+     * Scrive hashCode ed elemento di tutti i nodi dei bucket di t a partire
+     * dalla posizione from. written è il numero di elementi già scritti e
+     * viene restituito aggiornato. Ogni SNAPSHOT_RESET_INTERVAL elementi lo
+     * stream dimentica gli oggetti già scritti, in modo che né chi scrive né
+     * chi legge debba tenere un riferimento a tutti gli elementi dello stream.
+     */
+    private static int writeBuckets(ObjectOutputStream oos, Object[] t,
+            int from, int written) throws IOException {
+        for (int j = from; j < t.length; j++)
+            for (Node<?> list = first(t[j]); list != null; list = list.next) {
+                oos.writeInt(list.hash);
+                oos.writeObject(list.item);
+                written++;
+                if (written % SNAPSHOT_RESET_INTERVAL == 0)
+                    oos.reset();
+            }
+        return written;
+    }
+
+    /**
+     * Crea una tabella a partire da un'istantanea scritta con writeTo(). La
+     * tabella ha gli stessi parametri e la stessa capacità di quella scritta
+     * e ogni elemento viene messo direttamente nel suo bucket, calcolato con
+     * l'hashCode memorizzato: non viene richiamato né hashCode() né equals()
+     * e non viene fatto nessun raddoppio, quindi il caricamento è lineare nel
+     * numero di elementi e nella capacità. Gli elementi vengono letti uno alla
+     * volta dallo stream, che non viene chiuso. Non viene controllato che gli
+     * elementi siano distinti, perché lo sono nella tabella scritta.
+     *
+     * @param in
+     *                lo stream da cui leggere
+     * @param phf
+     *                la funzione di hash primaria, dello stesso tipo di quella
+     *                della tabella scritta
+     * @return la tabella letta
+     * @throws NullPointerException
+     *                                      se lo stream o la funzione di hash
+     *                                      sono null
+     * @throws IllegalArgumentException
+     *                                      se la funzione di hash è di un tipo
+     *                                      diverso da quella della tabella
+     *                                      scritta
+     * @throws IOException
+     *                                      se si verifica un errore di
+     *                                      lettura o lo stream non contiene
+     *                                      un'istantanea valida
+     * @throws ClassNotFoundException
+     *                                      se la classe di un elemento non
+     *                                      viene trovata
+     */
+    public static <E> CollisionListResizableHashTable<E> readFrom(
+            InputStream in, PrimaryHashFunction phf)
+            throws IOException, ClassNotFoundException {
+        if (in == null)
+            throw new NullPointerException("Stream nullo");
+        if (phf == null)
+            throw new NullPointerException("Funzione di hash primaria nulla");
+        ObjectInputStream ois = new ObjectInputStream(in);
+        if (ois.readInt() != SNAPSHOT_MAGIC)
+            throw new StreamCorruptedException("Istantanea non valida");
+        if (!ois.readUTF().equals(phf.getClass().getName()))
+            throw new IllegalArgumentException(
+                    "Funzione di hash diversa da quella della tabella scritta");
+        int initialCapacity = ois.readInt();
+        boolean incrementalResize = ois.readBoolean();
+        double shrinkLoadFactor = ois.readDouble();
+        int capacity = ois.readInt();
+        int size = ois.readInt();
+        if (capacity < 1 || capacity > MAXIMUM_CAPACITY || size < 0
+                || (phf.requiresPowerOfTwoCapacity()
+                        && Integer.bitCount(capacity) != 1))
+            throw new StreamCorruptedException("Istantanea non valida");
+        CollisionListResizableHashTable<E> result;
+        try {
+            result = new CollisionListResizableHashTable<E>(phf,
+                    initialCapacity, incrementalResize, shrinkLoadFactor);
+        } catch (IllegalArgumentException e) {
+            throw new StreamCorruptedException("Istantanea non valida");
+        }
+        result.table = new Object[capacity];
+        for (int i = 0; i < size; i++) {
+            int h = ois.readInt();
+            @SuppressWarnings("unchecked")
+            E e = (E) ois.readObject();
+            if (e == null)
+                throw new StreamCorruptedException("Istantanea non valida");
+            int pos = phf.hash(h, capacity);
+            // durante il caricamento i bucket sono tutti liste
+            result.table[pos] = new Node<E>(h, e, first(result.table[pos]));
+        }
+        for (int j = 0; j < capacity; j++)
+            treeifyIfNeeded(result.table, j);
+        result.size = size;
+        return result;
+    }
+
+    /**
+     * Abilita il filtro di Bloom davanti alla tabella, costruendolo con gli
+     * hashCode memorizzati degli elementi presenti. Se il filtro era già
+     * abilitato viene ricostruito, togliendo gli elementi cancellati. Le
+     * ricerche senza successo risolte dal filtro non vengono contate nelle
+     * statistiche.
+     */
+    public void enableBloomFilter() {
+        this.bloom = new BloomFilter(
+                Math.max(getCurrentThreshold(), this.size));
+        this.oldBloom = null;
+        if (this.oldTable != null)
+            addHashes(this.bloom, this.oldTable, this.transferIndex);
+        addHashes(this.bloom, this.table, 0);
+    }
+
+    /**
+     * Disabilita il filtro di Bloom, rilasciandone la memoria.
+     */
+    public void disableBloomFilter() {
+        this.bloom = null;
+        this.oldBloom = null;
+    }
+
+    /*
+     * Aggiunge al filtro gli hashCode degli elementi dei bucket di t a
+     * partire dalla posizione from.
+     */
+    private static void addHashes(BloomFilter filter, Object[] t, int from) {
+        for (int j = from; j < t.length; j++)
+            for (Node<?> list = first(t[j]); list != null; list = list.next)
+                filter.add(list.hash);
+    }
+
+    /**
+     * Abilita la raccolta delle statistiche, azzerando i contatori se erano
+     * già abilitate.
+     */
+    public void enableStatistics() {
+        this.counters = new Counters();
+    }
+
+    /**
+     * Disabilita la raccolta delle statistiche.
+     */
+    public void disableStatistics() {
+        this.counters = null;
+    }
+
+    /**
+     * Restituisce le statistiche raccolte da quando sono state abilitate.
+     * L'istogramma delle lunghezze delle liste di collisione viene calcolato
+     * al momento della chiamata, scorrendo tutti i bucket.
+     * 
+     * @return le statistiche raccolte
+     * @throws IllegalStateException
+     *                                   se le statistiche non sono abilitate
+     */
+    public HashTableStatistics getStatistics() {
+        if (this.counters == null)
+            throw new IllegalStateException("Statistiche non abilitate");
+        int[] lengths = new int[1];
+        if (this.oldTable != null)
+            lengths = addChainLengths(lengths, this.oldTable,
+                    this.transferIndex);
+        lengths = addChainLengths(lengths, this.table, 0);
+        return new HashTableStatistics(lengths, this.counters.containsCalls,
+                this.counters.containsComparisons,
+                this.counters.maxContainsComparisons,
+                this.counters.resizeCount, this.counters.resizeTimeNano);
+    }
+
+    /*
+     * Aggiunge all'istogramma histogram le lunghezze delle liste di collisione
+     * dei bucket di t a partire dalla posizione from e restituisce
+     * l'istogramma, allungato se necessario.
+     */
+    private static int[] addChainLengths(int[] histogram, Object[] t,
+            int from) {
+        for (int j = from; j < t.length; j++) {
+            int length = 0;
+            for (Node<?> list = first(t[j]); list != null; list = list.next)
+                length++;
+            if (length >= histogram.length)
+                histogram = Arrays.copyOf(histogram, length + 1);
+            histogram[length]++;
+        }
+        return histogram;
+    }
+
+    /*
+     * Contatori per le statistiche.
+     */
+    private static class Counters {
+
+        private long containsCalls;
+
+        private long containsComparisons;
+
+        private int maxContainsComparisons;
+
+        private int resizeCount;
+
+        private long resizeTimeNano;
+    }
+
+    /*
+     * Filtro di Bloom sugli hashCode degli elementi. I bit sono una potenza
+     * di due, in modo da ricavare la posizione con una maschera, e le
+     * BLOOM_PROBES posizioni di un hashCode sono ottenute con il doppio
+     * hashing da due mescolamenti dei suoi bit, senza richiamare hashCode().
+     */
+    private static class BloomFilter {
+
+        private final long[] bits;
+
+        private final int mask;
+
+        /*
+         * Crea un filtro vuoto per il numero di elementi dato.
+         */
+        BloomFilter(int expectedElements) {
+            long wanted = Math.max(64L,
+                    (long) expectedElements * BLOOM_BITS_PER_ELEMENT);
+            int numBits = wanted >= (1 << 30) ? 1 << 30
+                    : powerOfTwoAtLeast((int) wanted);
+            this.bits = new long[numBits >>> 6];
+            this.mask = numBits - 1;
+        }
+
+        /*
+         * Aggiunge al filtro l'hashCode h.
+         */
+        void add(int h) {
+            int x = h * 0x9E3779B9;
+            x ^= x >>> 16;
+            int delta = (x * 0x85EBCA6B) >>> 15 | 1;
+            for (int i = 0; i < BLOOM_PROBES; i++) {
+                int bit = x & this.mask;
+                this.bits[bit >>> 6] |= 1L << bit;
+                x += delta;
+            }
+        }
+
+        /*
+         * Restituisce false se nessun elemento con hashCode h è stato
+         * aggiunto al filtro, true se potrebbe esserlo stato.
+         */
+        boolean mightContain(int h) {
+            int x = h * 0x9E3779B9;
+            x ^= x >>> 16;
+            int delta = (x * 0x85EBCA6B) >>> 15 | 1;
+            for (int i = 0; i < BLOOM_PROBES; i++) {
+                int bit = x & this.mask;
+                if ((this.bits[bit >>> 6] & (1L << bit)) == 0)
+                    return false;
+                x += delta;
+            }
+            return true;
+        }
     }
 
     /*
      * Classe per i nodi della lista concatenata. Lo specificatore è protected
-     * solo per permettere i test JUnit.
+     * solo per permettere i test JUnit. L'hashCode memorizzato, ereditato da
+     * HashNode, non è final perché la cancellazione da un bucket trasformato
+     * in albero sposta nel nodo l'elemento in testa.
      */
-    protected static class Node<E> {
-        protected E item;
+    protected static class Node<E> extends
+            AbstractCollisionListHashTable.HashNode<Node<E>> {
 
-        protected Node<E> next;
+        protected E item;
 
         /*
-         * Crea un nodo "singolo" equivalente a una lista con un solo elemento.
+         * Crea un nodo che contiene item, con hashCode hash, seguito dalla
+         * lista next.
          */
-        Node(E item, Node<E> next) {
+        Node(int hash, E item, Node<E> next) {
+            super(hash, next);
             this.item = item;
-            this.next = next;
+        }
+    }
+
+    /*
+     * Bucket trasformato in albero. I nodi restano collegati in una lista di
+     * collisioni, come in un bucket normale, in modo che iteratori e
+     * riposizionamenti li possano scorrere allo stesso modo; in più un
+     * TreeMap, ordinato secondo l'hashCode memorizzato, poi secondo
+     * compareTo e infine secondo System.identityHashCode degli elementi,
+     * associa ogni nodo a se stesso, in modo da trovarlo in tempo
+     * logaritmico. Tutti gli elementi sono della classe elementClass, che è
+     * Comparable. I nodi con lo stesso hashCode e uguali per compareTo formano
+     * un gruppo di nodi consecutivi nell'albero, in cui una ricerca confronta
+     * tutti gli elementi con equals. Solo due elementi diversi con lo stesso
+     * hashCode, uguali per compareTo e con lo stesso identityHashCode, cosa
+     * che in pratica non succede, non possono stare nello stesso albero: i
+     * metodi che trovano un nodo di questo tipo non modificano l'albero e il
+     * bucket deve tornare una lista.
+     */
+    private static class TreeBin<E> {
+
+        // la lista di collisioni del bucket
+        private Node<E> first;
+
+        // associa ogni nodo della lista a se stesso
+        private final TreeMap<Node<E>, Node<E>> index;
+
+        // la classe di tutti gli elementi del bucket
+        private final Class<?> elementClass;
+
+        /*
+         * Crea un albero con i nodi della lista first, i cui elementi sono
+         * tutti Comparable e della stessa classe. Un nodo che l'albero non
+         * distingue da uno precedente non viene inserito nell'albero, per cui
+         * in questo caso size() è minore della lunghezza della lista e
+         * l'albero non va usato.
+         */
+        TreeBin(Node<E> first) {
+            this.first = first;
+            this.elementClass = first.item.getClass();
+            this.index = new TreeMap<Node<E>, Node<E>>(TreeBin::compareNodes);
+            for (Node<E> node = first; node != null; node = node.next)
+                this.index.putIfAbsent(node, node);
+        }
+
+        /*
+         * Confronta due nodi secondo l'hashCode memorizzato e, a parità di
+         * hashCode, secondo compareTo.
+         */
+        private static int compareKeys(Node<?> a, Node<?> b) {
+            if (a.hash != b.hash)
+                return a.hash < b.hash ? -1 : 1;
+            @SuppressWarnings("unchecked")
+            Comparable<Object> item = (Comparable<Object>) a.item;
+            return item.compareTo(b.item);
+        }
+
+        /*
+         * Ordina i nodi secondo compareKeys e, a parità, secondo
+         * System.identityHashCode degli elementi. Un nodo Probe precede tutti
+         * i nodi del suo gruppo.
+         */
+        private static int compareNodes(Node<?> a, Node<?> b) {
+            int c = compareKeys(a, b);
+            if (c != 0 || a == b)
+                return c;
+            if (a instanceof Probe)
+                return -1;
+            if (b instanceof Probe)
+                return 1;
+            return Integer.compare(System.identityHashCode(a.item),
+                    System.identityHashCode(b.item));
+        }
+
+        /*
+         * Nodo usato solo per cercare nell'albero il primo nodo del gruppo di
+         * un oggetto.
+         */
+        private static final class Probe<E> extends Node<E> {
+            Probe(int hash, E item) {
+                super(hash, item, null);
+            }
+        }
+
+        /*
+         * Numero di elementi del bucket.
+         */
+        int size() {
+            return this.index.size();
+        }
+
+        /*
+         * Determina se un oggetto può essere confrontato con gli elementi
+         * dell'albero.
+         */
+        boolean accepts(Object o) {
+            return o.getClass() == this.elementClass;
+        }
+
+        /*
+         * Restituisce il nodo che contiene l'oggetto o, con hashCode h,
+         * oppure null se l'oggetto non è presente. Nell'albero vengono
+         * confrontati con equals tutti i nodi del gruppo di o, di solito uno
+         * solo; un oggetto di un'altra classe viene cercato scorrendo la
+         * lista.
+         */
+        Node<E> find(int h, Object o) {
+            if (accepts(o)) {
+                @SuppressWarnings("unchecked")
+                Node<E> probe = new Probe<E>(h, (E) o);
+                Node<E> node = this.index.ceilingKey(probe);
+                while (node != null && compareKeys(probe, node) == 0) {
+                    if (o.equals(node.item))
+                        return node;
+                    node = this.index.higherKey(node);
+                }
+                return null;
+            }
+            for (Node<E> node = this.first; node != null; node = node.next)
+                if (node.hash == h && o.equals(node.item))
+                    return node;
+            return null;
+        }
+
+        /*
+         * Inserisce in testa alla lista un nodo con un elemento della classe
+         * elementClass che non è presente. Restituisce false, senza inserire
+         * il nodo, se l'albero non lo distingue da un nodo presente.
+         */
+        boolean addNode(Node<E> node) {
+            if (this.index.putIfAbsent(node, node) != null)
+                return false;
+            node.next = this.first;
+            this.first = node;
+            return true;
+        }
+
+        /*
+         * Cancella un nodo presente nell'albero in tempo logaritmico: invece
+         * di cercare il nodo precedente nella lista, l'elemento in testa viene
+         * spostato nel nodo da cancellare e si toglie il primo nodo.
+         */
+        void removeNode(Node<E> node) {
+            this.index.remove(node);
+            Node<E> head = this.first;
+            if (node != head) {
+                this.index.remove(head);
+                node.item = head.item;
+                node.hash = head.hash;
+                this.index.put(node, node);
+            }
+            this.first = head.next;
         }
     }
 
@@ -419,76 +1672,291 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
      * L'iteratore deve essere fail-fast, cioè deve lanciare una eccezione
      * ConcurrentModificationException se a una chiamata di next() si "accorge" che la
      * tabella è stata cambiata rispetto a quando l'iteratore è stato creato.
+     * 
+     * Se è in corso un riposizionamento incrementale vengono scorsi prima i
+     * bucket non ancora trasferiti della vecchia tabella e poi la tabella
+     * corrente. I trasferimenti avvengono solo durante le modifiche, che
+     * rendono comunque non più valido l'iteratore.
+     * 
+     * L'iteratore individua il nodo successivo una sola volta, subito dopo
+     * aver restituito quello corrente, in modo che hasNext() non debba fare
+     * nessuna ricerca. Ricorda inoltre il nodo che precede nella lista di
+     * collisioni quello restituito, in modo che remove() lo possa togliere in
+     * tempo costante. La cancellazione tramite l'iteratore non riduce la
+     * tabella e non fa avanzare il riposizionamento incrementale, perché
+     * sposterebbero gli elementi non ancora restituiti.
      */
     private class Itr implements Iterator<E> {
 
-        private int currentPos;
+        // la tabella in cui si trova nextNode
+        private Object[] tab;
 
-        private Node<E> lastNode;
+        // posizione del bucket successivo a quello di nextNode
+        private int nextPos;
 
-        private final int numeroModificheAtteso;
+        // prossimo nodo da restituire, null se non ce ne sono altri
+        private Node<E> nextNode;
+
+        // nodo che precede nextNode nella sua lista di collisioni, null se
+        // nextNode è il primo
+        private Node<E> prevOfNext;
+
+        // ultimo nodo restituito, null se non c'è o è stato cancellato
+        private Node<E> lastReturned;
+
+        // nodo che precede lastReturned nella sua lista di collisioni, null
+        // se lastReturned è il primo
+        private Node<E> prevOfLast;
+
+        // tabella e posizione del bucket di lastReturned
+        private Object[] lastTab;
+
+        private int lastPos;
+
+        private int numeroModificheAtteso;
 
         private Itr() {
             this.numeroModificheAtteso = modCount;
-            this.currentPos = 0;
-            this.lastNode = null;
+            if (oldTable != null) {
+                this.tab = oldTable;
+                this.nextPos = transferIndex;
+            } else {
+                this.tab = table;
+                this.nextPos = 0;
+            }
+            this.nextNode = null;
+            this.lastReturned = null;
+            advanceToNextBucket();
+        }
+
+        /*
+         * Porta nextNode sul primo nodo del prossimo bucket non vuoto,
+         * passando dalla vecchia tabella alla tabella corrente se necessario.
+         */
+        private void advanceToNextBucket() {
+            this.prevOfNext = null;
+            while (true) {
+                while (this.nextPos < this.tab.length) {
+                    Object bucket = this.tab[this.nextPos++];
+                    if (bucket != null) {
+                        this.nextNode = first(bucket);
+                        return;
+                    }
+                }
+                if (this.tab == table)
+                    return;
+                // ho finito la vecchia tabella, passo alla tabella corrente
+                this.tab = table;
+                this.nextPos = 0;
+            }
         }
 
         @Override
         public boolean hasNext() {
-            // ricerco la prima posizione esistente non null, se c'è. Potrebbe
-            // essere la posizine corrente currentPos
-            if (currentPos == table.length)
-                return false;
-            while (currentPos < table.length && table[currentPos] == null)
-                currentPos++;
-            if (currentPos == table.length)
-                return false;
-            // table[currentPos] != null
-            if (lastNode == null)
-                // non ho ancora fatto il next del primo elemento della lista di
-                // collisioni corrente
-                return true;
-            else if (lastNode.next != null)
-                // c'è ancora un elemento di cui fare il next nella lista delle
-                // collisioni corrente
-                return true;
-            else {
-                // ho già fatto il next di tutti gli elementi della lista delle
-                // collisioni corrente, provo ad andare avanti e mi richiamo
-                // ricorsivamente
-                currentPos++;
-                lastNode = null;
-                return hasNext();
-            }
+            return this.nextNode != null;
         }
 
         @Override
         public E next() {
             if (modCount != numeroModificheAtteso)
                 throw new ConcurrentModificationException("Next in iteratore su tabella modificata");
-            if (!hasNext())
+            if (this.nextNode == null)
                 throw new NoSuchElementException(
                         "Richiesta di next con hasNext falso");
-            // la chiamata a hasNext() in ogni caso ha aggiornato currentPos e
-            // lastNode in modo che, se il risultato è true, indichino il primo
-            // elemento disponibile, in particolare si avrà che
-            // tab[currentPos]!= null
-            E toReturn = null;
-            if (lastNode == null) {
-                // prendo il primo elemento della lista di collisioni corrente
+            this.lastReturned = this.nextNode;
+            this.prevOfLast = this.prevOfNext;
+            this.lastTab = this.tab;
+            this.lastPos = this.nextPos - 1;
+            // individuo subito il nodo successivo
+            if (this.lastReturned.next != null) {
+                this.prevOfNext = this.lastReturned;
+                this.nextNode = this.lastReturned.next;
+            } else {
+                this.nextNode = null;
+                advanceToNextBucket();
+            }
+            return this.lastReturned.item;
+        }
+
+        @Override
+        public void remove() {
+            if (this.lastReturned == null)
+                throw new IllegalStateException(
+                        "Remove senza next o ripetuta");
+            if (modCount != numeroModificheAtteso)
+                throw new ConcurrentModificationException(
+                        "Remove in iteratore su tabella modificata");
+            Node<E> node = this.lastReturned;
+            boolean unlinked = true;
+            if (this.lastTab[this.lastPos] instanceof TreeBin) {
+                // nel bucket trasformato in albero il nodo resta collegato,
+                // con l'elemento del primo nodo, già restituito, salvo che sia
+                // esso stesso il primo
                 @SuppressWarnings("unchecked")
-                Node<E> node = (Node<E>) table[currentPos];
-                toReturn = node.item;
-                lastNode = node;
+                TreeBin<E> bin = (TreeBin<E>) this.lastTab[this.lastPos];
+                unlinked = node == bin.first;
+                bin.removeNode(node);
+                if (bin.size() < UNTREEIFY_THRESHOLD)
+                    this.lastTab[this.lastPos] = bin.first;
+            } else if (this.prevOfLast == null)
+                this.lastTab[this.lastPos] = node.next;
+            else
+                this.prevOfLast.next = node.next;
+            // se il nodo tolto precedeva nextNode ora lo precede il nodo che
+            // precedeva quello tolto
+            if (unlinked && this.prevOfNext == node)
+                this.prevOfNext = this.prevOfLast;
+            this.lastReturned = null;
+            size--;
+            modCount++;
+            this.numeroModificheAtteso = modCount;
+        }
+    }
+
+    /*
+     * Classe che realizza uno spliterator per questa hash table sui bucket in
+     * posizione da index (incluso) a fence (escluso) di una tabella. Durante
+     * un riposizionamento incrementale lo spliterator iniziale scorre prima i
+     * bucket non ancora trasferiti della vecchia tabella e poi, come per
+     * l'iteratore, la tabella corrente, indicata da nextTab. La prima
+     * divisione separa le due tabelle, le successive dimezzano l'intervallo
+     * di bucket.
+     */
+    private class BucketSpliterator implements Spliterator<E> {
+
+        // la tabella che si sta scorrendo
+        private Object[] tab;
+
+        // prossimo bucket da scorrere
+        private int index;
+
+        // posizione successiva all'ultimo bucket da scorrere
+        private int fence;
+
+        // la tabella da scorrere dopo tab, oppure null
+        private Object[] nextTab;
+
+        // il prossimo nodo della lista di collisioni corrente, oppure null
+        private Node<E> current;
+
+        // stima del numero di elementi rimanenti
+        private long est;
+
+        // indica se est è esatto, cioè se lo spliterator non è stato diviso
+        private boolean exact;
+
+        private final int numeroModificheAtteso;
+
+        private BucketSpliterator(Object[] tab, int index, int fence,
+                Object[] nextTab, long est, boolean exact) {
+            this.tab = tab;
+            this.index = index;
+            this.fence = fence;
+            this.nextTab = nextTab;
+            this.current = null;
+            this.est = est;
+            this.exact = exact;
+            this.numeroModificheAtteso = modCount;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            if (this.current != null)
+                // sono nel mezzo di una lista di collisioni
+                return null;
+            Spliterator<E> prefix;
+            if (this.nextTab != null) {
+                // separo i bucket rimasti della vecchia tabella dalla tabella
+                // corrente
+                prefix = new BucketSpliterator(this.tab, this.index,
+                        this.fence, null, this.est >>> 1, false);
+                this.tab = this.nextTab;
+                this.index = 0;
+                this.fence = this.nextTab.length;
+                this.nextTab = null;
             } else {
-                // sono nel mezzo di una lista di collisioni e lastNode.next non
-                // è null (ciò è assicurato dall'hasNext())
-                // restituisco il prossimo elemento e mando avanti lastNode
-                toReturn = lastNode.next.item;
-                lastNode = lastNode.next;
+                int mid = (this.index + this.fence) >>> 1;
+                if (mid <= this.index)
+                    return null;
+                prefix = new BucketSpliterator(this.tab, this.index, mid,
+                        null, this.est >>> 1, false);
+                this.index = mid;
+            }
+            this.est = this.est >>> 1;
+            this.exact = false;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException("Azione nulla");
+            while (true) {
+                if (this.current != null) {
+                    E item = this.current.item;
+                    this.current = this.current.next;
+                    action.accept(item);
+                    if (modCount != this.numeroModificheAtteso)
+                        throw new ConcurrentModificationException(
+                                "Spliterator su tabella modificata");
+                    return true;
+                }
+                if (this.index < this.fence) {
+                    this.current = first(this.tab[this.index++]);
+                } else if (this.nextTab != null) {
+                    // ho finito la vecchia tabella, passo alla tabella
+                    // corrente
+                    this.tab = this.nextTab;
+                    this.index = 0;
+                    this.fence = this.nextTab.length;
+                    this.nextTab = null;
+                } else
+                    return false;
             }
-            return toReturn;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null)
+                throw new NullPointerException("Azione nulla");
+            // finisco la lista di collisioni corrente
+            for (Node<E> node = this.current; node != null; node = node.next)
+                action.accept(node.item);
+            this.current = null;
+            forEachInBuckets(this.tab, this.index, this.fence, action);
+            this.index = this.fence;
+            if (this.nextTab != null) {
+                this.tab = this.nextTab;
+                this.nextTab = null;
+                this.index = this.fence = this.tab.length;
+                forEachInBuckets(this.tab, 0, this.fence, action);
+            }
+            if (modCount != this.numeroModificheAtteso)
+                throw new ConcurrentModificationException(
+                        "Spliterator su tabella modificata");
+        }
+
+        /*
+         * Esegue action sugli elementi dei bucket di t in posizione da from
+         * (incluso) a to (escluso).
+         */
+        private void forEachInBuckets(Object[] t, int from, int to,
+                Consumer<? super E> action) {
+            for (int j = from; j < to; j++) {
+                for (Node<E> list = first(t[j]); list != null; list = list.next)
+                    action.accept(list.item);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.est;
+        }
+
+        @Override
+        public int characteristics() {
+            return (this.exact ? Spliterator.SIZED : 0) | Spliterator.DISTINCT
+                    | Spliterator.NONNULL;
         }
     }
 
@@ -499,6 +1967,13 @@ public class CollisionListResizableHashTable<E> implements Set<E> {
         return this.table;
     }
 
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected Object[] getOldTable() {
+        return this.oldTable;
+    }
+
     /*
      * Only for JUnit testing purposes.
      */
@@ -2,10 +2,23 @@ package it.unicam.cs.asdl2223.es10sol;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
@@ -504,4 +517,991 @@ class CollisionListResizableHashTableTest {
         assertFalse(hasThrown);
     }
 
+    @Test
+    void incrementalResize_testShouldResize() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash, true);
+        Integer vals[] = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 };
+        table.addAll(Arrays.asList(vals));
+        assertNull(table.getOldTable());
+        int tableLengthBeforeAdd = table.getTable().length;
+        table.add(13);
+        assertEquals(tableLengthBeforeAdd * 2, table.getTable().length);
+        // il primo passo del riposizionamento non trasferisce tutti i bucket
+        assertNotNull(table.getOldTable());
+        assertTrue(table.containsAll(Arrays.asList(vals)));
+        assertTrue(table.contains(13));
+    }
+
+    @Test
+    void incrementalResize_testOldTableReleased() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                multiplicationHash, true);
+        for (int i = 0; i <= 12; i++)
+            table.add(i);
+        assertNotNull(table.getOldTable());
+        // ogni modifica trasferisce un numero limitato di bucket: con 16
+        // bucket nella vecchia tabella bastano due passi
+        table.add(100);
+        assertNull(table.getOldTable());
+        assertTrue(table.contains(100));
+        for (int i = 0; i <= 12; i++)
+            assertTrue(table.contains(i));
+    }
+
+    @Test
+    void incrementalResize_testManyOperations() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                multiplicationHash, true);
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(table.add(i));
+            assertTrue(table.contains(i / 2));
+            assertFalse(table.add(i / 2));
+        }
+        for (int i = 0; i < 5000; i += 3)
+            assertTrue(table.remove(i));
+        for (int i = 0; i < 5000; i++)
+            assertEquals(i % 3 != 0, table.contains(i));
+        int count = 0;
+        for (Integer i : table) {
+            assertTrue(i % 3 != 0);
+            count++;
+        }
+        assertEquals(table.size(), count);
+    }
+
+    @Test
+    void incrementalResize_testIteratorDuringResize() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash, true);
+        for (int i = 0; i <= 12; i++)
+            table.add(i * 3);
+        assertNotNull(table.getOldTable());
+        Set<Integer> seen = new HashSet<Integer>();
+        for (Integer i : table)
+            assertTrue(seen.add(i));
+        assertEquals(13, seen.size());
+        for (int i = 0; i <= 12; i++)
+            assertTrue(seen.contains(i * 3));
+    }
+
+    /*
+     * Chiave che conta le chiamate a hashCode() ed equals().
+     */
+    private static class CountingKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int value;
+
+        private int hashCodeCalls = 0;
+
+        private int equalsCalls = 0;
+
+        CountingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            hashCodeCalls++;
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            equalsCalls++;
+            if (!(obj instanceof CountingKey))
+                return false;
+            return ((CountingKey) obj).value == this.value;
+        }
+    }
+
+    @Test
+    void divisionHash_testResizeDoesNotCallHashCode() {
+        CollisionListResizableHashTable<CountingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        CountingKey keys[] = new CountingKey[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new CountingKey(i);
+            table.add(keys[i]);
+        }
+        // la tabella è stata raddoppiata più volte, ma hashCode() è stato
+        // chiamato solo all'inserimento
+        assertEquals(256, table.getTable().length);
+        for (CountingKey k : keys)
+            assertEquals(1, k.hashCodeCalls);
+    }
+
+    @Test
+    void divisionHash_testDifferentHashDoesNotCallEquals() {
+        CollisionListResizableHashTable<CountingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        // 1 e 17 finiscono nello stesso bucket ma hanno hash diversi
+        CountingKey inTable = new CountingKey(1);
+        table.add(inTable);
+        CountingKey other = new CountingKey(17);
+        assertFalse(table.contains(other));
+        assertFalse(table.remove(other));
+        assertTrue(table.add(other));
+        assertEquals(0, other.equalsCalls);
+        assertEquals(0, inTable.equalsCalls);
+    }
+
+    @Test
+    void fibonacciHash_testContainsAndRemove() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                new FibonacciPrimaryHashFunction());
+        for (int i = 0; i < 1000; i++)
+            assertTrue(table.add(i * 1024));
+        for (int i = 0; i < 1000; i++)
+            assertTrue(table.contains(i * 1024));
+        assertFalse(table.contains(1));
+        assertTrue(table.remove(1024));
+        assertFalse(table.contains(1024));
+    }
+
+    @Test
+    void fibonacciHash_testNotPowerOfTwo() {
+        PrimaryHashFunction fibonacciHash = new FibonacciPrimaryHashFunction();
+        // La dimensione è controllata solo se le asserzioni sono abilitate
+        boolean assertionsEnabled = false;
+        assert assertionsEnabled = true;
+        if (assertionsEnabled)
+            assertThrows(AssertionError.class, () -> {
+                fibonacciHash.hash(42, 100);
+            });
+        for (int key = -100; key < 100; key++) {
+            int pos = fibonacciHash.hash(key, 64);
+            assertTrue(pos >= 0 && pos < 64);
+        }
+    }
+
+    @Test
+    void fibonacciHash_testHighBitsOnlyKeys() {
+        PrimaryHashFunction fibonacciHash = new FibonacciPrimaryHashFunction();
+        // Chiavi che differiscono solo dal bit 20 in su
+        boolean[] used = new boolean[16];
+        for (int i = 0; i < 1024; i++)
+            used[fibonacciHash.hash(i << 20, 16)] = true;
+        for (int pos = 0; pos < 16; pos++)
+            assertTrue(used[pos]);
+        assertEquals(0, fibonacciHash.hash(12345, 1));
+    }
+
+    @Test
+    void testInitialCapacity() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                new FibonacciPrimaryHashFunction(), 100);
+        // la funzione richiede una potenza di due
+        assertEquals(128, table.getTable().length);
+        table = new CollisionListResizableHashTable<>(divisionHash, 100);
+        assertEquals(100, table.getTable().length);
+        table.add(1);
+        table.clear();
+        assertEquals(100, table.getTable().length);
+        assertThrows(IllegalArgumentException.class, () -> {
+            new CollisionListResizableHashTable<Integer>(divisionHash, 0);
+        });
+    }
+
+    @Test
+    void divisionHash_testShouldShrink() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash, 16, false, 0.25);
+        for (int i = 0; i < 100; i++)
+            table.add(i);
+        assertEquals(256, table.getTable().length);
+        // 64 è la soglia di dimezzamento per 256 bucket
+        for (int i = 0; i < 36; i++)
+            table.remove(i);
+        assertEquals(256, table.getTable().length);
+        table.remove(36);
+        assertEquals(128, table.getTable().length);
+        for (int i = 37; i < 100; i++)
+            assertTrue(table.contains(i));
+        // la tabella non scende sotto la capacità iniziale
+        for (int i = 37; i < 100; i++)
+            table.remove(i);
+        assertTrue(table.isEmpty());
+        assertEquals(16, table.getTable().length);
+    }
+
+    @Test
+    void incrementalResize_testShouldShrink() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                multiplicationHash, 16, true, 0.25);
+        for (int i = 0; i < 1000; i++)
+            table.add(i);
+        for (int i = 0; i < 990; i++)
+            assertTrue(table.remove(i));
+        assertTrue(table.getTable().length <= 64);
+        for (int i = 990; i < 1000; i++)
+            assertTrue(table.contains(i));
+        assertEquals(10, table.size());
+    }
+
+    @Test
+    void incrementalResize_testShrinkIsIncremental() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                multiplicationHash, 16, true, 0.25);
+        for (int i = 0; i < 1000; i++)
+            table.add(i);
+        int shrinks = 0;
+        for (int i = 0; i < 990; i++) {
+            int before = table.getTable().length;
+            assertTrue(table.remove(i));
+            if (table.getTable().length < before) {
+                // una sola cancellazione inizia il dimezzamento ma non
+                // trasferisce tutti i bucket
+                shrinks++;
+                assertEquals(before / 2, table.getTable().length);
+                assertNotNull(table.getOldTable());
+            }
+            for (int j = i + 1; j < 1000; j += 97)
+                assertTrue(table.contains(j));
+        }
+        assertTrue(shrinks > 0);
+        for (int i = 990; i < 1000; i++)
+            assertTrue(table.contains(i));
+    }
+
+    @Test
+    void testShrinkLoadFactorNotValid() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new CollisionListResizableHashTable<Integer>(divisionHash, 16,
+                    false, -0.1);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new CollisionListResizableHashTable<Integer>(divisionHash, 16,
+                    false, 0.5);
+        });
+    }
+
+    @Test
+    void divisionHash_testTrimToSize() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 1000; i++)
+            table.add(i);
+        for (int i = 10; i < 1000; i++)
+            table.remove(i);
+        // senza fattore di caricamento minimo la tabella non si riduce
+        assertEquals(2048, table.getTable().length);
+        Iterator<Integer> it = table.iterator();
+        table.trimToSize();
+        assertEquals(16, table.getTable().length);
+        for (int i = 0; i < 10; i++)
+            assertTrue(table.contains(i));
+        assertThrows(ConcurrentModificationException.class, () -> {
+            it.next();
+        });
+        table.clear();
+        table.trimToSize();
+        assertEquals(1, table.getTable().length);
+        assertTrue(table.add(42));
+        assertTrue(table.contains(42));
+    }
+
+    @Test
+    void divisionHash_testAddAllPresizes() {
+        CollisionListResizableHashTable<CountingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        List<CountingKey> keys = new ArrayList<CountingKey>();
+        for (int i = 0; i < 1000; i++)
+            keys.add(new CountingKey(i));
+        assertTrue(table.addAll(keys));
+        // una sola resize direttamente alla capacità finale
+        assertEquals(2048, table.getTable().length);
+        assertEquals(1000, table.size());
+        for (CountingKey k : keys)
+            assertTrue(table.contains(k));
+        assertFalse(table.addAll(keys));
+    }
+
+    @Test
+    void divisionHash_testAddAllMerge() {
+        CollisionListResizableHashTable<CountingKey> source = new CollisionListResizableHashTable<>(
+                divisionHash);
+        CountingKey keys[] = new CountingKey[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new CountingKey(i);
+            source.add(keys[i]);
+        }
+        CollisionListResizableHashTable<CountingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        // elemento uguale a keys[0], già presente
+        table.add(new CountingKey(0));
+        assertTrue(table.addAll(source));
+        assertEquals(100, table.size());
+        for (CountingKey k : keys) {
+            // gli hash vengono presi dai nodi di source
+            assertEquals(1, k.hashCodeCalls);
+            assertTrue(table.contains(k));
+        }
+        assertFalse(table.addAll(source));
+        assertFalse(table.addAll(table));
+        assertEquals(100, table.size());
+    }
+
+    @Test
+    void divisionHash_testAddAllOverlappingSet() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        Set<Integer> superset = new HashSet<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            table.add(i);
+            superset.add(i);
+        }
+        superset.add(1000);
+        int capacity = table.getTable().length;
+        // gli elementi di superset sono quasi tutti già presenti: la tabella
+        // non deve raddoppiare
+        assertTrue(table.addAll(superset));
+        assertEquals(capacity, table.getTable().length);
+        assertEquals(1001, table.size());
+        // lo stesso se l'insieme è un'altra tabella
+        CollisionListResizableHashTable<Integer> other = new CollisionListResizableHashTable<>(
+                divisionHash);
+        other.addAll(superset);
+        other.add(1001);
+        assertTrue(table.addAll(other));
+        assertEquals(capacity, table.getTable().length);
+        assertEquals(1002, table.size());
+        for (int i = 0; i < 1002; i++)
+            assertTrue(table.contains(i));
+    }
+
+    @Test
+    void incrementalResize_testAddAllMerge() {
+        CollisionListResizableHashTable<Integer> source = new CollisionListResizableHashTable<>(
+                multiplicationHash, true);
+        for (int i = 0; i < 13; i++)
+            source.add(i);
+        // source ha un riposizionamento in corso
+        assertNotNull(source.getOldTable());
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash, 4);
+        table.add(100);
+        assertTrue(table.addAll(source));
+        assertEquals(14, table.size());
+        for (int i = 0; i < 13; i++)
+            assertTrue(table.contains(i));
+        assertTrue(table.contains(100));
+    }
+
+    @Test
+    void divisionHash_testRetainAll() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash, 16, false, 0.25);
+        for (int i = 0; i < 1000; i++)
+            table.add(i);
+        Set<Integer> even = new HashSet<Integer>();
+        for (int i = 0; i < 1000; i += 2)
+            even.add(i);
+        Iterator<Integer> it = table.iterator();
+        assertTrue(table.retainAll(even));
+        assertEquals(500, table.size());
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i % 2 == 0, table.contains(i));
+        assertThrows(ConcurrentModificationException.class, () -> {
+            it.next();
+        });
+        assertFalse(table.retainAll(even));
+        assertTrue(table.retainAll(Arrays.asList(2, 4)));
+        assertEquals(2, table.size());
+        // la tabella è stata ridotta fino alla capacità iniziale
+        assertEquals(16, table.getTable().length);
+        assertThrows(NullPointerException.class, () -> {
+            table.retainAll(null);
+        });
+    }
+
+    @Test
+    void divisionHash_testParallelStream() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 10000; i++)
+            table.add(i);
+        assertEquals(10000, table.stream().count());
+        assertEquals(10000L * 9999 / 2,
+                table.parallelStream().mapToLong(i -> i).sum());
+        Set<Integer> seen = table.parallelStream()
+                .collect(Collectors.toSet());
+        assertEquals(10000, seen.size());
+    }
+
+    @Test
+    void divisionHash_testSpliteratorSplit() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 100; i++)
+            table.add(i);
+        Spliterator<Integer> s = table.spliterator();
+        assertEquals(100, s.estimateSize());
+        assertTrue(s.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(s.hasCharacteristics(Spliterator.DISTINCT));
+        assertTrue(s.hasCharacteristics(Spliterator.NONNULL));
+        Spliterator<Integer> prefix = s.trySplit();
+        assertNotNull(prefix);
+        assertFalse(s.hasCharacteristics(Spliterator.SIZED));
+        Set<Integer> seen = new HashSet<Integer>();
+        while (prefix.tryAdvance(i -> assertTrue(seen.add(i))))
+            ;
+        s.forEachRemaining(i -> assertTrue(seen.add(i)));
+        assertEquals(100, seen.size());
+    }
+
+    @Test
+    void incrementalResize_testSpliteratorDuringResize() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash, true);
+        for (int i = 0; i < 13; i++)
+            table.add(i);
+        assertNotNull(table.getOldTable());
+        Spliterator<Integer> s = table.spliterator();
+        // la prima divisione separa la vecchia tabella dalla nuova
+        Spliterator<Integer> prefix = s.trySplit();
+        Set<Integer> seen = new HashSet<Integer>();
+        prefix.forEachRemaining(i -> assertTrue(seen.add(i)));
+        s.forEachRemaining(i -> assertTrue(seen.add(i)));
+        assertEquals(13, seen.size());
+        assertEquals(13, table.stream().distinct().count());
+    }
+
+    @Test
+    void divisionHash_testSpliteratorShouldFailFast() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 10; i++)
+            table.add(i);
+        assertThrows(ConcurrentModificationException.class, () -> {
+            table.stream().forEach(i -> table.add(i + 100));
+        });
+    }
+
+    @Test
+    void divisionHash_testStatisticsBadDistribution() {
+        CollisionListResizableHashTable<CountingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash, 1024);
+        table.enableStatistics();
+        // con il metodo della divisione e m potenza di due i multipli di m
+        // finiscono tutti nello stesso bucket, che resta una lista poiché le
+        // chiavi non sono Comparable
+        for (int i = 0; i < 100; i++)
+            table.add(new CountingKey(i * 1024));
+        HashTableStatistics stats = table.getStatistics();
+        assertEquals(100, stats.getMaxChainLength());
+        int[] histogram = stats.getChainLengthHistogram();
+        assertEquals(1023, histogram[0]);
+        assertEquals(1, histogram[100]);
+        assertEquals(0, stats.getResizeCount());
+        // l'ultimo elemento inserito è in testa alla lista
+        assertTrue(table.contains(new CountingKey(99 * 1024)));
+        assertTrue(table.contains(new CountingKey(0)));
+        assertFalse(table.contains(new CountingKey(5)));
+        stats = table.getStatistics();
+        assertEquals(3, stats.getContainsCalls());
+        assertEquals(100, stats.getMaxContainsComparisons());
+        assertEquals(101.0 / 3, stats.getAverageContainsComparisons(), 1e-9);
+    }
+
+    @Test
+    void multiplicationHash_testStatisticsResize() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                multiplicationHash);
+        assertThrows(IllegalStateException.class, () -> {
+            table.getStatistics();
+        });
+        table.enableStatistics();
+        for (int i = 0; i < 1000; i++)
+            table.add(i);
+        HashTableStatistics stats = table.getStatistics();
+        // da 16 a 2048 bucket
+        assertEquals(7, stats.getResizeCount());
+        assertTrue(stats.getResizeTimeNano() > 0);
+        int total = 0;
+        int buckets = 0;
+        int[] histogram = stats.getChainLengthHistogram();
+        for (int k = 0; k < histogram.length; k++) {
+            buckets += histogram[k];
+            total += k * histogram[k];
+        }
+        assertEquals(2048, buckets);
+        assertEquals(1000, total);
+        table.disableStatistics();
+        assertThrows(IllegalStateException.class, () -> {
+            table.getStatistics();
+        });
+    }
+
+    /*
+     * Chiave Comparable con pochi hashCode distinti, per avere liste di
+     * collisione lunghe.
+     */
+    private static class CollidingKey
+            implements Comparable<CollidingKey>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.value % 3;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CollidingKey))
+                return false;
+            return ((CollidingKey) obj).value == this.value;
+        }
+
+        @Override
+        public int compareTo(CollidingKey o) {
+            return Integer.compare(this.value, o.value);
+        }
+    }
+
+    /*
+     * Chiave di un'altra classe con gli stessi hashCode di CollidingKey.
+     */
+    private static class OtherCollidingKey {
+        private final int value;
+
+        OtherCollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.value % 3;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof OtherCollidingKey))
+                return false;
+            return ((OtherCollidingKey) obj).value == this.value;
+        }
+    }
+
+    /*
+     * Chiave che contiene un BigDecimal, il cui compareTo non è coerente con
+     * equals: new BigDecimal("1.0") e new BigDecimal("1.00") sono uguali per
+     * compareTo ma diversi per equals. L'hashCode è dato, per mettere le
+     * chiavi nello stesso bucket.
+     */
+    private static class DecimalKey implements Comparable<DecimalKey> {
+        private final BigDecimal value;
+
+        private final int hash;
+
+        DecimalKey(String value, int hash) {
+            this.value = new BigDecimal(value);
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DecimalKey))
+                return false;
+            return ((DecimalKey) obj).value.equals(this.value);
+        }
+
+        @Override
+        public int compareTo(DecimalKey o) {
+            return this.value.compareTo(o.value);
+        }
+    }
+
+    @Test
+    void divisionHash_testTreeifiedBucket() {
+        CollisionListResizableHashTable<CollidingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 3000; i++)
+            assertTrue(table.add(new CollidingKey(i)));
+        assertFalse(table.add(new CollidingKey(42)));
+        assertEquals(3000, table.size());
+        table.enableStatistics();
+        for (int i = 0; i < 3000; i++)
+            assertTrue(table.contains(new CollidingKey(i)));
+        assertFalse(table.contains(new CollidingKey(3000)));
+        // tre bucket con 1000 elementi ciascuno, ma ricerche logaritmiche
+        HashTableStatistics stats = table.getStatistics();
+        assertEquals(1000, stats.getMaxChainLength());
+        assertTrue(stats.getMaxContainsComparisons() <= 10);
+        int count = 0;
+        for (@SuppressWarnings("unused")
+        CollidingKey k : table)
+            count++;
+        assertEquals(3000, count);
+        assertEquals(3000, table.stream().count());
+    }
+
+    @Test
+    void divisionHash_testTreeifiedBucketRemove() {
+        CollisionListResizableHashTable<CollidingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        Set<CollidingKey> expected = new HashSet<CollidingKey>();
+        Random random = new Random(42);
+        for (int op = 0; op < 20000; op++) {
+            CollidingKey k = new CollidingKey(random.nextInt(60));
+            if (random.nextBoolean())
+                assertEquals(expected.add(k), table.add(k));
+            else
+                assertEquals(expected.remove(k), table.remove(k));
+            assertEquals(expected.size(), table.size());
+        }
+        for (int i = 0; i < 60; i++)
+            assertEquals(expected.contains(new CollidingKey(i)),
+                    table.contains(new CollidingKey(i)));
+        // svuoto la tabella, i bucket tornano liste
+        for (int i = 0; i < 60; i++)
+            table.remove(new CollidingKey(i));
+        assertTrue(table.isEmpty());
+        assertFalse(table.iterator().hasNext());
+    }
+
+    @Test
+    void divisionHash_testTreeifiedBucketOtherClass() {
+        CollisionListResizableHashTable<Object> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 300; i++)
+            table.add(new CollidingKey(i));
+        // elementi di un'altra classe nello stesso bucket
+        for (int i = 0; i < 30; i++)
+            assertTrue(table.add(new OtherCollidingKey(i)));
+        assertFalse(table.add(new OtherCollidingKey(0)));
+        assertEquals(330, table.size());
+        for (int i = 0; i < 300; i++)
+            assertTrue(table.contains(new CollidingKey(i)));
+        for (int i = 0; i < 30; i++)
+            assertTrue(table.remove(new OtherCollidingKey(i)));
+        for (int i = 0; i < 300; i += 2)
+            assertTrue(table.remove(new CollidingKey(i)));
+        assertEquals(150, table.size());
+        for (int i = 0; i < 300; i++)
+            assertEquals(i % 2 != 0, table.contains(new CollidingKey(i)));
+    }
+
+    @Test
+    void divisionHash_testTreeifiedBucketInconsistentCompareTo() {
+        CollisionListResizableHashTable<DecimalKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        // hashCode multipli della capacità: tutte le chiavi nel bucket 0, con
+        // hashCode diversi per le due scale
+        for (int i = 0; i < 100; i++) {
+            assertTrue(table.add(new DecimalKey(i + ".0", 1 << 20)));
+            assertTrue(table.add(new DecimalKey(i + ".00", 2 << 20)));
+        }
+        assertEquals(200, table.size());
+        table.enableStatistics();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(table.contains(new DecimalKey(i + ".0", 1 << 20)));
+            assertTrue(table.contains(new DecimalKey(i + ".00", 2 << 20)));
+        }
+        // il bucket è un albero
+        assertEquals(200, table.getStatistics().getMaxChainLength());
+        assertTrue(table.getStatistics().getMaxContainsComparisons() <= 10);
+        assertFalse(table.add(new DecimalKey("1.0", 1 << 20)));
+        assertTrue(table.remove(new DecimalKey("1.0", 1 << 20)));
+        assertFalse(table.contains(new DecimalKey("1.0", 1 << 20)));
+        assertTrue(table.contains(new DecimalKey("1.00", 2 << 20)));
+        assertEquals(199, table.size());
+    }
+
+    @Test
+    void divisionHash_testTreeifiedBucketCompareToTie() {
+        CollisionListResizableHashTable<DecimalKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        // tutte le chiavi con lo stesso hashCode: chiavi con scale diverse
+        // sono uguali per compareTo ma diverse per equals
+        for (int i = 0; i < 200; i++) {
+            assertTrue(table.add(new DecimalKey(i + ".0", 0)));
+            assertTrue(table.add(new DecimalKey(i + ".00", 0)));
+        }
+        assertFalse(table.add(new DecimalKey("1.0", 0)));
+        assertFalse(table.add(new DecimalKey("1.00", 0)));
+        assertEquals(400, table.size());
+        table.enableStatistics();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(table.contains(new DecimalKey(i + ".0", 0)));
+            assertTrue(table.contains(new DecimalKey(i + ".00", 0)));
+            assertFalse(table.contains(new DecimalKey(i + ".000", 0)));
+        }
+        // il bucket resta un albero con tutti gli elementi
+        assertEquals(400, table.getStatistics().getMaxChainLength());
+        assertTrue(table.getStatistics().getMaxContainsComparisons() <= 10);
+        for (int i = 0; i < 200; i += 2)
+            assertTrue(table.remove(new DecimalKey(i + ".0", 0)));
+        assertEquals(300, table.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 2 != 0,
+                    table.contains(new DecimalKey(i + ".0", 0)));
+            assertTrue(table.contains(new DecimalKey(i + ".00", 0)));
+        }
+        int count = 0;
+        for (@SuppressWarnings("unused")
+        DecimalKey k : table)
+            count++;
+        assertEquals(300, count);
+    }
+
+    @Test
+    void incrementalResize_testTreeifiedBucket() {
+        CollisionListResizableHashTable<CollidingKey> table = new CollisionListResizableHashTable<>(
+                multiplicationHash, true);
+        for (int i = 0; i < 5000; i++)
+            assertTrue(table.add(new CollidingKey(i)));
+        for (int i = 0; i < 5000; i += 3)
+            assertTrue(table.remove(new CollidingKey(i)));
+        for (int i = 0; i < 5000; i++)
+            assertEquals(i % 3 != 0, table.contains(new CollidingKey(i)));
+        Set<CollidingKey> seen = new HashSet<CollidingKey>();
+        for (CollidingKey k : table)
+            assertTrue(seen.add(k));
+        assertEquals(table.size(), seen.size());
+        assertTrue(table.retainAll(Arrays.asList(new CollidingKey(1),
+                new CollidingKey(2), new CollidingKey(3))));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void divisionHash_testIteratorRemove() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        // molti elementi per bucket, per cancellare in testa, in mezzo e in
+        // coda alle liste di collisione
+        for (int i = 0; i < 12; i++)
+            table.add(i * 16);
+        for (int i = 0; i < 12; i++)
+            table.add(i * 16 + 3);
+        Iterator<Integer> it = table.iterator();
+        assertThrows(IllegalStateException.class, () -> {
+            it.remove();
+        });
+        Set<Integer> seen = new HashSet<Integer>();
+        while (it.hasNext() && it.hasNext()) {
+            Integer i = it.next();
+            assertTrue(seen.add(i));
+            if ((i / 16) % 3 != 1) {
+                it.remove();
+                assertThrows(IllegalStateException.class, () -> {
+                    it.remove();
+                });
+            }
+        }
+        assertEquals(24, seen.size());
+        assertEquals(8, table.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(i % 3 == 1, table.contains(i * 16));
+            assertEquals(i % 3 == 1, table.contains(i * 16 + 3));
+        }
+        assertThrows(NoSuchElementException.class, () -> {
+            it.next();
+        });
+    }
+
+    @Test
+    void incrementalResize_testIteratorRemove() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                multiplicationHash, true);
+        for (int i = 0; i < 13; i++)
+            table.add(i);
+        assertNotNull(table.getOldTable());
+        Iterator<Integer> it = table.iterator();
+        while (it.hasNext())
+            if (it.next() % 2 == 0)
+                it.remove();
+        assertEquals(6, table.size());
+        for (int i = 0; i < 13; i++)
+            assertEquals(i % 2 != 0, table.contains(i));
+        // la cancellazione tramite iteratore non fa avanzare il
+        // riposizionamento
+        assertNotNull(table.getOldTable());
+        table.add(100);
+        assertEquals(7, table.size());
+    }
+
+    @Test
+    void divisionHash_testIteratorRemoveTreeifiedBucket() {
+        CollisionListResizableHashTable<CollidingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 300; i++)
+            table.add(new CollidingKey(i));
+        Iterator<CollidingKey> it = table.iterator();
+        Set<CollidingKey> seen = new HashSet<CollidingKey>();
+        while (it.hasNext()) {
+            CollidingKey k = it.next();
+            assertTrue(seen.add(k));
+            if (k.value % 5 != 0)
+                it.remove();
+        }
+        assertEquals(300, seen.size());
+        assertEquals(60, table.size());
+        for (int i = 0; i < 300; i++)
+            assertEquals(i % 5 == 0, table.contains(new CollidingKey(i)));
+    }
+
+    @Test
+    void incrementalResize_testWriteToReadFrom()
+            throws IOException, ClassNotFoundException {
+        CollisionListResizableHashTable<CountingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash, 16, true);
+        for (int i = 0; i < 100; i++)
+            table.add(new CountingKey(i));
+        // riposizionamento incrementale in corso
+        assertNotNull(table.getOldTable());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out);
+        assertNotNull(table.getOldTable());
+        CollisionListResizableHashTable<CountingKey> loaded = CollisionListResizableHashTable
+                .readFrom(new ByteArrayInputStream(out.toByteArray()),
+                        divisionHash);
+        assertEquals(100, loaded.size());
+        assertEquals(table.getTable().length, loaded.getTable().length);
+        assertNull(loaded.getOldTable());
+        int count = 0;
+        for (CountingKey k : loaded) {
+            // l'hashCode viene preso dall'istantanea
+            assertEquals(1, k.hashCodeCalls);
+            assertEquals(0, k.equalsCalls);
+            count++;
+        }
+        assertEquals(100, count);
+        for (int i = 0; i < 100; i++)
+            assertTrue(loaded.contains(new CountingKey(i)));
+        assertFalse(loaded.contains(new CountingKey(100)));
+        // la tabella letta continua a funzionare normalmente
+        for (int i = 100; i < 200; i++)
+            assertTrue(loaded.add(new CountingKey(i)));
+        assertEquals(200, loaded.size());
+    }
+
+    @Test
+    void divisionHash_testReadFromTreeifiedBucket()
+            throws IOException, ClassNotFoundException {
+        CollisionListResizableHashTable<CollidingKey> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 3000; i++)
+            table.add(new CollidingKey(i));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out);
+        CollisionListResizableHashTable<CollidingKey> loaded = CollisionListResizableHashTable
+                .readFrom(new ByteArrayInputStream(out.toByteArray()),
+                        divisionHash);
+        loaded.enableStatistics();
+        for (int i = 0; i < 3000; i++)
+            assertTrue(loaded.contains(new CollidingKey(i)));
+        // i bucket sono di nuovo alberi
+        assertTrue(loaded.getStatistics().getMaxContainsComparisons() <= 10);
+        assertTrue(loaded.remove(new CollidingKey(7)));
+        assertEquals(2999, loaded.size());
+    }
+
+    @Test
+    void testReadFromInvalidSnapshot() throws IOException {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 10; i++)
+            table.add(i);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out);
+        assertThrows(IllegalArgumentException.class, () -> {
+            CollisionListResizableHashTable.readFrom(
+                    new ByteArrayInputStream(out.toByteArray()),
+                    multiplicationHash);
+        });
+        assertThrows(IOException.class, () -> {
+            CollisionListResizableHashTable.readFrom(
+                    new ByteArrayInputStream(new byte[100]), divisionHash);
+        });
+        // uno stream troncato
+        assertThrows(IOException.class, () -> {
+            CollisionListResizableHashTable.readFrom(
+                    new ByteArrayInputStream(out.toByteArray(), 0,
+                            out.size() - 10),
+                    divisionHash);
+        });
+        CollisionListResizableHashTable<Object> objects = new CollisionListResizableHashTable<>(
+                divisionHash);
+        objects.add(new Object());
+        assertThrows(NotSerializableException.class, () -> {
+            objects.writeTo(new ByteArrayOutputStream());
+        });
+        assertThrows(NullPointerException.class, () -> {
+            table.writeTo(null);
+        });
+    }
+
+    @Test
+    void divisionHash_testBloomFilter() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                divisionHash);
+        table.enableBloomFilter();
+        for (int i = 0; i < 10000; i++)
+            table.add(i * 3);
+        table.enableStatistics();
+        for (int i = 0; i < 10000; i++)
+            assertTrue(table.contains(i * 3));
+        assertEquals(10000, table.getStatistics().getContainsCalls());
+        for (int i = 0; i < 10000; i++)
+            assertFalse(table.contains(i * 3 + 1));
+        // solo i falsi positivi del filtro arrivano alla tabella
+        long passed = table.getStatistics().getContainsCalls() - 10000;
+        assertTrue(passed < 500);
+        table.disableBloomFilter();
+        table.enableStatistics();
+        for (int i = 0; i < 10000; i++)
+            assertFalse(table.contains(i * 3 + 1));
+        assertEquals(10000, table.getStatistics().getContainsCalls());
+        table.enableBloomFilter();
+        table.clear();
+        assertFalse(table.contains(0));
+        table.add(0);
+        assertTrue(table.contains(0));
+    }
+
+    @Test
+    void incrementalResize_testBloomFilter() {
+        CollisionListResizableHashTable<Integer> table = new CollisionListResizableHashTable<>(
+                multiplicationHash, 16, true, 0.1);
+        for (int i = 0; i < 50; i++)
+            table.add(i);
+        // il filtro abilitato durante un riposizionamento
+        table.enableBloomFilter();
+        Set<Integer> expected = new HashSet<Integer>();
+        for (int i = 0; i < 50; i++)
+            expected.add(i);
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            int k = random.nextInt(4000);
+            if (random.nextInt(4) == 0)
+                assertEquals(expected.remove(k), table.remove(k));
+            else
+                assertEquals(expected.add(k), table.add(k));
+            // anche durante i riposizionamenti nessun falso negativo
+            int probe = random.nextInt(4000);
+            assertEquals(expected.contains(probe), table.contains(probe));
+        }
+        CollisionListResizableHashTable<Integer> other = new CollisionListResizableHashTable<>(
+                multiplicationHash);
+        for (int i = 4000; i < 4100; i++)
+            other.add(i);
+        table.addAll(other);
+        table.retainAll(other);
+        table.trimToSize();
+        for (int i = 0; i < 4100; i++)
+            assertEquals(i >= 4000, table.contains(i));
+    }
+
 }
@@ -0,0 +1,521 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Realizza un insieme thread-safe tramite una tabella hash con indirizzamento
+ * primario (la funzione di hash primario deve essere passata come parametro
+ * nel costruttore e deve implementare l'interface PrimaryHashFunction) e liste
+ * di collisione, come CollisionListResizableHashTable, in modo che più thread
+ * possano usarlo contemporaneamente.
+ *
+ * I bucket della tabella sono suddivisi in gruppi (stripe), ognuno protetto da
+ * un lock: il bucket in posizione i appartiene al gruppo i % numero dei lock.
+ * Le operazioni di modifica (add e remove) acquisiscono solo il lock del
+ * gruppo del bucket interessato, quindi modifiche su gruppi diversi procedono
+ * in parallelo. La ricerca (contains) non acquisisce nessun lock: i bucket
+ * sono letti con semantica volatile e i nodi sono pubblicati completamente
+ * inizializzati, quindi una ricerca vede sempre liste di collisione
+ * consistenti.
+ *
+ * Il raddoppio della tabella viene fatto dal thread che supera la soglia dopo
+ * aver acquisito tutti i lock, in modo che nessuna modifica sia in corso. Il
+ * trasferimento degli elementi nella nuova tabella è cooperativo: i bucket
+ * vengono assegnati a blocchi e ogni thread che nel frattempo tenta una
+ * modifica aiuta a trasferire i blocchi rimanenti invece di restare in attesa.
+ * Gli elementi vengono copiati in nuovi nodi, lasciando intatta la vecchia
+ * tabella, su cui le ricerche continuano a operare fino alla fine del
+ * raddoppio.
+ *
+ * La tabella, poiché implementa l'interfaccia Set<E> non accetta elementi
+ * duplicati (individuati tramite il metodo equals() che si assume sia
+ * opportunamente ridefinito nella classe E) e non accetta elementi null.
+ * L'iteratore è debolmente consistente: non lancia mai
+ * ConcurrentModificationException e restituisce ogni elemento presente per
+ * tutta la durata dell'iterazione, mentre può restituire o meno gli elementi
+ * inseriti o cancellati nel frattempo.
+ *
+ *
+ */
+public class ConcurrentCollisionListHashTable<E> implements Set<E> {
+
+    /*
+     * La capacità iniziale. E' una potenza di due e quindi la capacità sarà
+     * sempre una potenza di due, in quanto ogni resize raddoppia la tabella.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Fattore di bilanciamento di default. Tipico valore.
+     */
+    private static final double LOAD_FACTOR = 0.75;
+
+    /*
+     * Numero di lock di default.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /*
+     * Numero di bucket consecutivi assegnati ogni volta a un thread durante il
+     * trasferimento cooperativo.
+     */
+    private static final int TRANSFER_CHUNK = 64;
+
+    /*
+     * La tabella corrente. Ogni posizione contiene null oppure il primo nodo
+     * di una lista di collisioni. Si usa un AtomicReferenceArray, invece di un
+     * array di Object, per leggere e scrivere i bucket con semantica volatile.
+     */
+    private volatile AtomicReferenceArray<Node<E>> table;
+
+    /*
+     * Il raddoppio in corso, null se non ce n'è nessuno.
+     */
+    private volatile Transfer<E> transfer;
+
+    /*
+     * I lock dei gruppi di bucket.
+     */
+    private final ReentrantLock[] locks;
+
+    /*
+     * Numero di elementi presenti nella tabella.
+     */
+    private final AtomicInteger size;
+
+    /*
+     * Funzione di hash primaria usata da questa hash table.
+     */
+    private final PrimaryHashFunction phf;
+
+    /**
+     * Costruisce una Hash Table concorrente con capacità iniziale, fattore di
+     * caricamento e numero di lock di default.
+     *
+     * @param phf
+     *                la funzione di hash primaria da usare
+     * @throws NullPointerException
+     *                                  se la funzione di hash passata è null
+     */
+    public ConcurrentCollisionListHashTable(PrimaryHashFunction phf) {
+        this(phf, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Costruisce una Hash Table concorrente con capacità iniziale e fattore di
+     * caricamento di default e un certo numero di lock.
+     *
+     * @param phf
+     *                             la funzione di hash primaria da usare
+     * @param concurrencyLevel
+     *                             il numero di lock, cioè il numero massimo
+     *                             di modifiche che possono procedere in
+     *                             parallelo
+     * @throws NullPointerException
+     *                                      se la funzione di hash passata è
+     *                                      null
+     * @throws IllegalArgumentException
+     *                                      se il numero di lock non è
+     *                                      positivo
+     */
+    public ConcurrentCollisionListHashTable(PrimaryHashFunction phf,
+            int concurrencyLevel) {
+        if (phf == null)
+            throw new NullPointerException("Funzione di hash primaria nulla");
+        if (concurrencyLevel < 1)
+            throw new IllegalArgumentException(
+                    "Numero di lock non positivo: " + concurrencyLevel);
+        this.phf = phf;
+        this.locks = new ReentrantLock[concurrencyLevel];
+        for (int i = 0; i < concurrencyLevel; i++)
+            this.locks[i] = new ReentrantLock();
+        this.table = new AtomicReferenceArray<Node<E>>(INITIAL_CAPACITY);
+        this.transfer = null;
+        this.size = new AtomicInteger(0);
+    }
+
+    /*
+     * Restituisce il lock del gruppo a cui appartiene il bucket in posizione
+     * pos.
+     */
+    private ReentrantLock lockFor(int pos) {
+        return this.locks[pos % this.locks.length];
+    }
+
+    @Override
+    public int size() {
+        return this.size.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size.get() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException(
+                    "Ricerca di elemento null in un set che non accetta null");
+        int h = o.hashCode();
+        AtomicReferenceArray<Node<E>> tab = this.table;
+        Node<E> list = tab.get(this.phf.hash(h, tab.length()));
+        while (list != null) {
+            // confronto prima gli hash, equals solo se coincidono
+            if (list.hash == h && o.equals(list.item))
+                return true;
+            list = list.next;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public Object[] toArray() {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (e == null)
+            throw new NullPointerException(
+                    "Inserimento di elemento null in un set che non accetta null");
+        int h = e.hashCode();
+        AtomicReferenceArray<Node<E>> tab;
+        while (true) {
+            helpTransferIfNeeded();
+            tab = this.table;
+            int pos = this.phf.hash(h, tab.length());
+            ReentrantLock lock = lockFor(pos);
+            lock.lock();
+            try {
+                // se nel frattempo la tabella è stata raddoppiata la posizione
+                // non è più valida e riprovo
+                if (tab != this.table)
+                    continue;
+                Node<E> head = tab.get(pos);
+                for (Node<E> list = head; list != null; list = list.next)
+                    if (list.hash == h && e.equals(list.item))
+                        // l'oggetto è già presente, quindi non lo inserisco
+                        return false;
+                // inserisco in testa alla lista di collisioni
+                tab.set(pos, new Node<E>(h, e, head));
+                break;
+            } finally {
+                lock.unlock();
+            }
+        }
+        // Controllo resize, fuori dal lock del gruppo
+        if (this.size.incrementAndGet() > (int) (tab.length() * LOAD_FACTOR))
+            resize(tab);
+        return true;
+    }
+
+    /*
+     * Se è in corso un raddoppio aiuta a trasferire i bucket rimanenti.
+     */
+    private void helpTransferIfNeeded() {
+        Transfer<E> tr = this.transfer;
+        if (tr != null)
+            tr.help(this.phf);
+    }
+
+    /*
+     * Raddoppia la tabella tab, se è ancora quella corrente.
+     */
+    private void resize(AtomicReferenceArray<Node<E>> tab) {
+        // acquisisco tutti i lock, sempre nello stesso ordine
+        for (ReentrantLock lock : this.locks)
+            lock.lock();
+        try {
+            // un altro thread potrebbe aver già raddoppiato la tabella
+            if (tab != this.table)
+                return;
+            Transfer<E> tr = new Transfer<E>(tab,
+                    new AtomicReferenceArray<Node<E>>(tab.length() * 2));
+            // da questo momento gli altri thread possono aiutare
+            this.transfer = tr;
+            tr.help(this.phf);
+            // aspetto che i blocchi presi dagli altri thread siano completati
+            while (!tr.isCompleted())
+                Thread.onSpinWait();
+            this.table = tr.newTable;
+            this.transfer = null;
+        } finally {
+            for (int i = this.locks.length - 1; i >= 0; i--)
+                this.locks[i].unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null)
+            throw new NullPointerException(
+                    "Cancellazione di elemento null in un set che non accetta null");
+        int h = o.hashCode();
+        while (true) {
+            helpTransferIfNeeded();
+            AtomicReferenceArray<Node<E>> tab = this.table;
+            int pos = this.phf.hash(h, tab.length());
+            ReentrantLock lock = lockFor(pos);
+            lock.lock();
+            try {
+                if (tab != this.table)
+                    continue;
+                Node<E> previous = null;
+                Node<E> list = tab.get(pos);
+                while (list != null) {
+                    if (list.hash == h && o.equals(list.item)) {
+                        // tolgo il nodo dalla lista; una ricerca che si trova
+                        // sul nodo può comunque proseguire con list.next
+                        if (previous == null)
+                            tab.set(pos, list.next);
+                        else
+                            previous.next = list.next;
+                        this.size.decrementAndGet();
+                        return true;
+                    }
+                    previous = list;
+                    list = list.next;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("ContainsAll di collection null");
+        Iterator<?> iter = c.iterator();
+        while (iter.hasNext()) {
+            Object item = iter.next();
+            if (item == null)
+                throw new NullPointerException(
+                        "ContainsAll di collection che contiene elementi null");
+            if (!this.contains(item))
+                return false;
+        }
+        // Tutti gli elementi sono risultati presenti e non nulli
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException("AddAll di collection null");
+        boolean changed = false;
+        Iterator<? extends E> iter = c.iterator();
+        while (iter.hasNext()) {
+            E item = iter.next();
+            if (item == null)
+                throw new NullPointerException(
+                        "AddAll di collection che contiene elementi null");
+            // E' necessario usare l'OR NON PIGRO per assicurarsi che venga
+            // chiamato il metodo add
+            changed = changed | this.add(item);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("RemoveAll di collection null");
+        boolean changed = false;
+        Iterator<?> iter = c.iterator();
+        while (iter.hasNext()) {
+            Object item = iter.next();
+            if (item == null)
+                throw new NullPointerException(
+                        "RemoveAll di collection che contiene elementi null");
+            // E' necessario usare l'OR NON PIGRO per assicurarsi che venga
+            // chiamato il metodo remove
+            changed = changed | this.remove(item);
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        for (ReentrantLock lock : this.locks)
+            lock.lock();
+        try {
+            // Ritorno alla situazione iniziale
+            this.table = new AtomicReferenceArray<Node<E>>(INITIAL_CAPACITY);
+            this.size.set(0);
+        } finally {
+            for (int i = this.locks.length - 1; i >= 0; i--)
+                this.locks[i].unlock();
+        }
+    }
+
+    /*
+     * Classe per i nodi delle liste di collisione. L'elemento e il suo hash
+     * sono immutabili; il puntatore al nodo successivo è volatile perché può
+     * essere cambiato da una cancellazione mentre altri thread scorrono la
+     * lista.
+     */
+    private static class Node<E> {
+        private final int hash;
+
+        private final E item;
+
+        private volatile Node<E> next;
+
+        Node(int hash, E item, Node<E> next) {
+            this.hash = hash;
+            this.item = item;
+            this.next = next;
+        }
+    }
+
+    /*
+     * Stato di un raddoppio in corso: la vecchia tabella, che non viene
+     * modificata poiché il thread che raddoppia ha tutti i lock, la nuova
+     * tabella, il prossimo blocco di bucket da assegnare e il numero di bucket
+     * già trasferiti.
+     */
+    private static class Transfer<E> {
+        private final AtomicReferenceArray<Node<E>> oldTable;
+
+        private final AtomicReferenceArray<Node<E>> newTable;
+
+        private final AtomicInteger nextIndex;
+
+        private final AtomicInteger transferred;
+
+        Transfer(AtomicReferenceArray<Node<E>> oldTable,
+                AtomicReferenceArray<Node<E>> newTable) {
+            this.oldTable = oldTable;
+            this.newTable = newTable;
+            this.nextIndex = new AtomicInteger(0);
+            this.transferred = new AtomicInteger(0);
+        }
+
+        /*
+         * Prende blocchi di bucket non ancora assegnati e li trasferisce,
+         * finché ce ne sono.
+         */
+        void help(PrimaryHashFunction phf) {
+            int n = this.oldTable.length();
+            int m = this.newTable.length();
+            int start;
+            while ((start = this.nextIndex.getAndAdd(TRANSFER_CHUNK)) < n) {
+                int end = Math.min(start + TRANSFER_CHUNK, n);
+                for (int j = start; j < end; j++)
+                    for (Node<E> list = this.oldTable
+                            .get(j); list != null; list = list.next) {
+                        int pos = phf.hash(list.hash, m);
+                        // bucket diversi della vecchia tabella possono finire
+                        // nello stesso bucket della nuova, trasferiti da
+                        // thread diversi: inserisco in testa con un CAS
+                        Node<E> head;
+                        Node<E> copy = new Node<E>(list.hash, list.item, null);
+                        do {
+                            head = this.newTable.get(pos);
+                            copy.next = head;
+                        } while (!this.newTable.compareAndSet(pos, head, copy));
+                    }
+                this.transferred.addAndGet(end - start);
+            }
+        }
+
+        boolean isCompleted() {
+            return this.transferred.get() == this.oldTable.length();
+        }
+    }
+
+    /*
+     * Iteratore debolmente consistente sulla tabella corrente al momento della
+     * creazione. La posizione del prossimo elemento viene calcolata una sola
+     * volta, alla creazione e dopo ogni next(). La remove() cancella l'ultimo
+     * elemento restituito dall'insieme.
+     */
+    private class Itr implements Iterator<E> {
+
+        private final AtomicReferenceArray<Node<E>> tab;
+
+        private int nextPos;
+
+        private Node<E> nextNode;
+
+        private E lastReturned;
+
+        private Itr() {
+            this.tab = table;
+            this.nextPos = 0;
+            this.nextNode = null;
+            this.lastReturned = null;
+            advance();
+        }
+
+        /*
+         * Porta nextNode sul prossimo nodo da restituire, null se non ce ne
+         * sono più.
+         */
+        private void advance() {
+            if (this.nextNode != null)
+                this.nextNode = this.nextNode.next;
+            while (this.nextNode == null && this.nextPos < this.tab.length())
+                this.nextNode = this.tab.get(this.nextPos++);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextNode != null;
+        }
+
+        @Override
+        public E next() {
+            if (this.nextNode == null)
+                throw new NoSuchElementException(
+                        "Richiesta di next con hasNext falso");
+            this.lastReturned = this.nextNode.item;
+            advance();
+            return this.lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (this.lastReturned == null)
+                throw new IllegalStateException(
+                        "Remove senza una precedente chiamata a next");
+            ConcurrentCollisionListHashTable.this.remove(this.lastReturned);
+            this.lastReturned = null;
+        }
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected int getCurrentCapacity() {
+        return this.table.length();
+    }
+
+}
@@ -0,0 +1,158 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe di test JUnit per la classe ConcurrentCollisionListHashTable
+ *
+ *
+ */
+class ConcurrentCollisionListHashTableTest {
+
+    private PrimaryHashFunction divisionHash = new DivisionPrimaryHashFunction();
+
+    private PrimaryHashFunction multiplicationHash = new MultiplicationPrimaryHashFunction();
+
+    private static final int NUMBER_OF_THREADS = 8;
+
+    @Test
+    void divisionHash_testAddContainsRemove() {
+        ConcurrentCollisionListHashTable<Integer> table = new ConcurrentCollisionListHashTable<>(
+                divisionHash);
+        assertTrue(table.add(42));
+        assertFalse(table.add(42));
+        assertTrue(table.contains(42));
+        assertFalse(table.contains(10));
+        assertTrue(table.remove(42));
+        assertFalse(table.remove(42));
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    void testNullPointer() {
+        ConcurrentCollisionListHashTable<Integer> table = new ConcurrentCollisionListHashTable<>(
+                divisionHash);
+        assertThrows(NullPointerException.class, () -> {
+            table.contains(null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            table.add(null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            table.remove(null);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new ConcurrentCollisionListHashTable<Integer>(divisionHash, 0);
+        });
+    }
+
+    @Test
+    void multiplicationHash_testShouldResize() {
+        ConcurrentCollisionListHashTable<Integer> table = new ConcurrentCollisionListHashTable<>(
+                multiplicationHash);
+        Integer vals[] = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 };
+        table.addAll(Arrays.asList(vals));
+        int capacityBeforeAdd = table.getCurrentCapacity();
+        table.add(13);
+        assertEquals(capacityBeforeAdd * 2, table.getCurrentCapacity());
+        assertTrue(table.containsAll(Arrays.asList(vals)));
+    }
+
+    @Test
+    void divisionHash_testIteratorRemove() {
+        ConcurrentCollisionListHashTable<Integer> table = new ConcurrentCollisionListHashTable<>(
+                divisionHash);
+        for (int i = 0; i < 100; i++)
+            table.add(i);
+        Iterator<Integer> it = table.iterator();
+        Set<Integer> seen = new HashSet<Integer>();
+        while (it.hasNext()) {
+            Integer i = it.next();
+            assertTrue(seen.add(i));
+            if (i % 2 == 0)
+                it.remove();
+        }
+        assertEquals(100, seen.size());
+        assertEquals(50, table.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i % 2 != 0, table.contains(i));
+    }
+
+    @Test
+    void multiplicationHash_testConcurrentAdd() throws InterruptedException {
+        ConcurrentCollisionListHashTable<Integer> table = new ConcurrentCollisionListHashTable<>(
+                multiplicationHash);
+        final int perThread = 20000;
+        AtomicInteger inserted = new AtomicInteger(0);
+        Thread[] threads = new Thread[NUMBER_OF_THREADS];
+        for (int t = 0; t < NUMBER_OF_THREADS; t++) {
+            final int offset = t * perThread / 2;
+            // gli intervalli dei thread si sovrappongono per metà
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < offset + perThread; i++)
+                    if (table.add(i))
+                        inserted.incrementAndGet();
+            });
+        }
+        for (Thread t : threads)
+            t.start();
+        for (Thread t : threads)
+            t.join();
+        int expected = (NUMBER_OF_THREADS + 1) * perThread / 2;
+        assertEquals(expected, inserted.get());
+        assertEquals(expected, table.size());
+        for (int i = 0; i < expected; i++)
+            assertTrue(table.contains(i));
+        int count = 0;
+        for (@SuppressWarnings("unused")
+        Integer i : table)
+            count++;
+        assertEquals(expected, count);
+    }
+
+    @Test
+    void divisionHash_testConcurrentAddAndRemove() throws InterruptedException {
+        ConcurrentCollisionListHashTable<Integer> table = new ConcurrentCollisionListHashTable<>(
+                divisionHash, 4);
+        final int perThread = 10000;
+        Thread[] threads = new Thread[NUMBER_OF_THREADS];
+        for (int t = 0; t < NUMBER_OF_THREADS; t++) {
+            final int offset = t * perThread;
+            // ogni thread inserisce i propri elementi e poi cancella quelli
+            // dispari, mentre gli altri thread fanno lo stesso
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < offset + perThread; i++)
+                    table.add(i);
+                for (int i = offset + 1; i < offset + perThread; i += 2)
+                    table.remove(i);
+            });
+        }
+        for (Thread t : threads)
+            t.start();
+        for (Thread t : threads)
+            t.join();
+        assertEquals(NUMBER_OF_THREADS * perThread / 2, table.size());
+        for (int i = 0; i < NUMBER_OF_THREADS * perThread; i++)
+            assertEquals(i % 2 == 0, table.contains(i));
+    }
+
+    @Test
+    void divisionHash_testClear() {
+        ConcurrentCollisionListHashTable<Integer> table = new ConcurrentCollisionListHashTable<>(
+                divisionHash);
+        table.addAll(Arrays.asList(1, 2, 3));
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertFalse(table.contains(1));
+        assertFalse(table.iterator().hasNext());
+    }
+
+}
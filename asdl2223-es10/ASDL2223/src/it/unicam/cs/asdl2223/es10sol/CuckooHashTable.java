@@ -0,0 +1,790 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Realizza un insieme tramite cuckoo hashing: ci sono due tabelle della stessa
+ * capacità, ognuna con la sua funzione di hash primaria, passate come
+ * parametri nel costruttore, e ogni elemento si trova nella sua posizione
+ * della prima tabella oppure nella sua posizione della seconda. Una ricerca
+ * guarda quindi al più due posizioni, indipendentemente dal numero di
+ * elementi, salvo i pochi elementi in eccesso descritti sotto.
+ *
+ * Per inserire un elemento lo si colloca in una delle sue due posizioni; se
+ * sono entrambe occupate si sposta l'elemento che occupa una di esse nella
+ * sua posizione alternativa, e così via. Se dopo un certo numero di
+ * spostamenti non si è trovata una posizione libera (tipicamente perché gli
+ * spostamenti formano un ciclo) l'ultimo elemento spostato viene messo in
+ * un piccolo contenitore di riserva (stash) di capacità fissa, che le ricerche
+ * controllano solo se non è vuoto.
+ *
+ * Prima di applicare la funzione di hash primaria di una tabella l'hashCode
+ * viene mescolato con un seme casuale della tabella. In questo modo anche
+ * hashCode regolari, per esempio tutti multipli di una potenza di due, che una
+ * funzione di hash come quella di divisione manderebbe sempre nelle stesse
+ * posizioni, vengono distribuiti nelle tabelle. Poiché i semi delle due
+ * tabelle sono diversi, le due funzioni di hash primarie possono anche essere
+ * dello stesso tipo, per esempio due istanze di FibonacciPrimaryHashFunction.
+ * Quando lo stash è pieno le tabelle vengono ricostruite riposizionando tutti
+ * gli elementi con semi nuovi, più volte con la stessa capacità e poi
+ * raddoppiando, finché le tabelle restano abbastanza piene.
+ *
+ * Solo elementi con lo stesso hashCode, che nessun seme può separare, possono
+ * fare fallire tutte le ricostruzioni, cosa che succede se più di
+ * STASH_CAPACITY + 2 elementi hanno lo stesso hashCode. In questo caso
+ * l'elemento che non trova posto viene messo in una lista di trabocco
+ * (overflow) senza limite di dimensione, che le ricerche controllano solo se
+ * non è vuota. Se invece le due posizioni dell'elemento contengono già
+ * elementi con il suo stesso hashCode e lo stash è pieno, l'elemento va
+ * direttamente nella lista di trabocco, senza tentare ricostruzioni che non
+ * possono riuscire. Una ricerca guarda quindi due posizioni e lo stash,
+ * finché la lista di trabocco è vuota, cioè finché gli hashCode sono
+ * ragionevoli; altrimenti deve scorrere anche la lista di trabocco, con un
+ * costo lineare nel numero di elementi che vi si trovano. Quando una
+ * cancellazione libera una posizione gli elementi della lista di trabocco
+ * tornano nelle tabelle o nello stash.
+ *
+ * La tabella, poiché implementa l'interfaccia Set<E> non accetta elementi
+ * duplicati (individuati tramite il metodo equals() che si assume sia
+ * opportunamente ridefinito nella classe E) e non accetta elementi null. Come
+ * in CollisionListResizableHashTable l'hashCode di ogni elemento viene
+ * memorizzato, in modo da riposizionarlo senza richiamare hashCode().
+ *
+ */
+public class CuckooHashTable<E> implements Set<E> {
+
+    /*
+     * La capacità iniziale di ciascuna delle due tabelle. E' una potenza di
+     * due e quindi la capacità sarà sempre una potenza di due, in quanto ogni
+     * resize raddoppia le tabelle.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Capacità massima di ciascuna tabella.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 29;
+
+    /*
+     * Fattore di bilanciamento di default, rispetto al numero totale di
+     * posizioni delle due tabelle. Il cuckoo hashing con due tabelle funziona
+     * bene solo se le tabelle sono occupate per meno della metà.
+     */
+    private static final double LOAD_FACTOR = 0.45;
+
+    /*
+     * Fattore di bilanciamento sotto il quale le tabelle non vengono più
+     * raddoppiate quando una ricostruzione non riesce a collocare tutti gli
+     * elementi.
+     */
+    private static final double MIN_LOAD_FACTOR_FOR_RESIZE = 0.1;
+
+    /*
+     * Numero massimo di elementi dello stash.
+     */
+    private static final int STASH_CAPACITY = 4;
+
+    /*
+     * Numero di ricostruzioni con semi nuovi tentate per ogni capacità prima
+     * di raddoppiare le tabelle.
+     */
+    private static final int REHASH_ATTEMPTS = 8;
+
+    /*
+     * Le due tabelle e gli hashCode degli elementi che contengono.
+     */
+    private Object[] table1;
+
+    private int[] hashes1;
+
+    private Object[] table2;
+
+    private int[] hashes2;
+
+    /*
+     * Lo stash, cioè gli elementi per cui non si è trovata una posizione,
+     * nelle prime stashSize posizioni, e i loro hashCode.
+     */
+    private Object[] stash;
+
+    private int[] stashHashes;
+
+    private int stashSize;
+
+    /*
+     * La lista di trabocco, cioè gli elementi che non hanno trovato posto
+     * neanche nello stash, nelle prime overflowSize posizioni, e i loro
+     * hashCode. Gli array vengono raddoppiati quando sono pieni.
+     */
+    private Object[] overflow;
+
+    private int[] overflowHashes;
+
+    private int overflowSize;
+
+    /*
+     * Numero di elementi presenti, compresi quelli nello stash e nella lista
+     * di trabocco.
+     */
+    private int size;
+
+    /*
+     * Funzioni di hash primarie usate per la prima e la seconda tabella.
+     */
+    private final PrimaryHashFunction phf1;
+
+    private final PrimaryHashFunction phf2;
+
+    /*
+     * Semi con cui viene mescolato l'hashCode prima di applicare la funzione
+     * di hash primaria della prima e della seconda tabella. Cambiano a ogni
+     * ricostruzione non riuscita.
+     */
+    private int seed1;
+
+    private int seed2;
+
+    /*
+     * Generatore dei semi.
+     */
+    private final Random random;
+
+    /*
+     * Contatore del numero di modifiche. Serve per rendere l'iterator
+     * fail-fast.
+     */
+    private int modCount;
+
+    /**
+     * Costruisce un insieme vuoto con capacità iniziale di default e fattore
+     * di caricamento di default.
+     *
+     * @param phf1
+     *                 la funzione di hash primaria della prima tabella
+     * @param phf2
+     *                 la funzione di hash primaria della seconda tabella
+     * @throws NullPointerException
+     *                                  se una delle due funzioni di hash è
+     *                                  null
+     */
+    public CuckooHashTable(PrimaryHashFunction phf1, PrimaryHashFunction phf2) {
+        if (phf1 == null || phf2 == null)
+            throw new NullPointerException("Funzione di hash primaria nulla");
+        this.phf1 = phf1;
+        this.phf2 = phf2;
+        this.random = new Random();
+        newSeeds();
+        allocate(INITIAL_CAPACITY);
+        clearOverflow();
+        this.modCount = 0;
+    }
+
+    /*
+     * Crea tabelle e stash vuoti con la capacità data.
+     */
+    private void allocate(int capacity) {
+        this.table1 = new Object[capacity];
+        this.hashes1 = new int[capacity];
+        this.table2 = new Object[capacity];
+        this.hashes2 = new int[capacity];
+        this.stash = new Object[STASH_CAPACITY];
+        this.stashHashes = new int[STASH_CAPACITY];
+        this.stashSize = 0;
+        this.size = 0;
+    }
+
+    /*
+     * Svuota la lista di trabocco, che non viene toccata da allocate() e
+     * quindi neanche dalle ricostruzioni delle tabelle.
+     */
+    private void clearOverflow() {
+        this.overflow = new Object[STASH_CAPACITY];
+        this.overflowHashes = new int[STASH_CAPACITY];
+        this.overflowSize = 0;
+    }
+
+    /*
+     * Sceglie nuovi semi per le due tabelle.
+     */
+    private void newSeeds() {
+        this.seed1 = this.random.nextInt();
+        this.seed2 = this.random.nextInt();
+    }
+
+    /*
+     * Mescola l'hashCode h con un seme. E' il passo finale di MurmurHash3,
+     * una biiezione sugli int: hashCode diversi restano diversi e ogni bit
+     * del risultato dipende da tutti i bit di h.
+     */
+    private static int mix(int h, int seed) {
+        int x = h ^ seed;
+        x ^= x >>> 16;
+        x *= 0x85ebca6b;
+        x ^= x >>> 13;
+        x *= 0xc2b2ae35;
+        x ^= x >>> 16;
+        return x;
+    }
+
+    /*
+     * Posizione nella prima tabella, di capacità m, di un elemento con
+     * hashCode h.
+     */
+    private int position1(int h, int m) {
+        return this.phf1.hash(mix(h, this.seed1), m);
+    }
+
+    /*
+     * Posizione nella seconda tabella, di capacità m, di un elemento con
+     * hashCode h.
+     */
+    private int position2(int h, int m) {
+        return this.phf2.hash(mix(h, this.seed2), m);
+    }
+
+    /*
+     * Numero massimo di spostamenti per un inserimento, proporzionale al
+     * logaritmo della capacità.
+     */
+    private int maxKicks() {
+        return 4 * (32 - Integer.numberOfLeadingZeros(this.table1.length));
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException(
+                    "Ricerca di elemento null in un set che non accetta null");
+        return contains(o.hashCode(), o);
+    }
+
+    /*
+     * Restituisce true se l'oggetto o, non null e con hashCode h, è presente.
+     * Separato da contains(Object) in modo che add chiami hashCode() una sola
+     * volta.
+     */
+    private boolean contains(int h, Object o) {
+        int m = this.table1.length;
+        // al più due posizioni, più lo stash e la lista di trabocco se non
+        // sono vuoti
+        int p1 = position1(h, m);
+        if (this.table1[p1] != null && this.hashes1[p1] == h
+                && o.equals(this.table1[p1]))
+            return true;
+        int p2 = position2(h, m);
+        if (this.table2[p2] != null && this.hashes2[p2] == h
+                && o.equals(this.table2[p2]))
+            return true;
+        if (this.stashSize != 0 && findInStash(h, o) != -1)
+            return true;
+        return this.overflowSize != 0 && findInOverflow(h, o) != -1;
+    }
+
+    /*
+     * Restituisce la posizione nello stash dell'oggetto o, con hashCode h,
+     * oppure -1 se non è presente.
+     */
+    private int findInStash(int h, Object o) {
+        for (int i = 0; i < this.stashSize; i++)
+            if (this.stashHashes[i] == h && o.equals(this.stash[i]))
+                return i;
+        return -1;
+    }
+
+    /*
+     * Restituisce la posizione nella lista di trabocco dell'oggetto o, con
+     * hashCode h, oppure -1 se non è presente.
+     */
+    private int findInOverflow(int h, Object o) {
+        for (int i = 0; i < this.overflowSize; i++)
+            if (this.overflowHashes[i] == h && o.equals(this.overflow[i]))
+                return i;
+        return -1;
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (e == null)
+            throw new NullPointerException(
+                    "Inserimento di elemento null in un set che non accetta null");
+        int h = e.hashCode();
+        if (contains(h, e))
+            return false;
+        int m = this.table1.length;
+        if (this.size + 1 > (int) (2 * m * LOAD_FACTOR)
+                && m < MAXIMUM_CAPACITY)
+            // raddoppio le tabelle; se non ci riesco restano come sono
+            rebuild(2 * m, 0, null);
+        m = this.table1.length;
+        if (isSaturated(h, m) || !(place(h, e) || rebuild(m, h, e)))
+            // nessuna ricostruzione può collocare l'elemento
+            addToOverflow(h, e);
+        this.modCount++;
+        this.size++;
+        return true;
+    }
+
+    /*
+     * Restituisce true se lo stash è pieno ed entrambe le posizioni di un
+     * elemento con hashCode h sono occupate da elementi con lo stesso hashCode:
+     * in questo caso nessuna ricostruzione può fare posto all'elemento.
+     */
+    private boolean isSaturated(int h, int m) {
+        if (this.stashSize < STASH_CAPACITY)
+            return false;
+        int p1 = position1(h, m);
+        int p2 = position2(h, m);
+        return this.table1[p1] != null && this.hashes1[p1] == h
+                && this.table2[p2] != null && this.hashes2[p2] == h;
+    }
+
+    /*
+     * Aggiunge in fondo alla lista di trabocco un elemento con hashCode h,
+     * raddoppiando gli array se sono pieni.
+     */
+    private void addToOverflow(int h, Object e) {
+        if (this.overflowSize == this.overflow.length) {
+            this.overflow = Arrays.copyOf(this.overflow,
+                    2 * this.overflow.length);
+            this.overflowHashes = Arrays.copyOf(this.overflowHashes,
+                    2 * this.overflowHashes.length);
+        }
+        this.overflow[this.overflowSize] = e;
+        this.overflowHashes[this.overflowSize] = h;
+        this.overflowSize++;
+    }
+
+    /*
+     * Colloca un elemento, con hashCode h, che non è presente, spostando se
+     * necessario gli altri elementi nella loro posizione alternativa.
+     * L'elemento rimasto senza posizione finisce nello stash. Se lo stash è
+     * pieno gli spostamenti vengono annullati e restituisce false, lasciando
+     * le tabelle come erano.
+     */
+    private boolean place(int h, Object e) {
+        int m = this.table1.length;
+        Object x = e;
+        int hx = h;
+        int kicks = maxKicks();
+        for (int k = 0; k < kicks; k++) {
+            int p1 = position1(hx, m);
+            if (this.table1[p1] == null) {
+                this.table1[p1] = x;
+                this.hashes1[p1] = hx;
+                return true;
+            }
+            int p2 = position2(hx, m);
+            if (this.table2[p2] == null) {
+                this.table2[p2] = x;
+                this.hashes2[p2] = hx;
+                return true;
+            }
+            // entrambe le posizioni sono occupate: prendo il posto
+            // dell'elemento in una delle due, alternando le tabelle, e
+            // proseguo con l'elemento spostato
+            Object evicted;
+            int evictedHash;
+            if (k % 2 == 0) {
+                evicted = this.table1[p1];
+                evictedHash = this.hashes1[p1];
+                this.table1[p1] = x;
+                this.hashes1[p1] = hx;
+            } else {
+                evicted = this.table2[p2];
+                evictedHash = this.hashes2[p2];
+                this.table2[p2] = x;
+                this.hashes2[p2] = hx;
+            }
+            x = evicted;
+            hx = evictedHash;
+        }
+        // troppi spostamenti, metto l'ultimo elemento spostato nello stash
+        if (this.stashSize < STASH_CAPACITY) {
+            this.stash[this.stashSize] = x;
+            this.stashHashes[this.stashSize] = hx;
+            this.stashSize++;
+            return true;
+        }
+        // lo stash è pieno: annullo gli spostamenti a ritroso. Lo spostamento
+        // k ha tolto l'elemento ora senza posizione dalla sua posizione nella
+        // prima tabella se k è pari, nella seconda se k è dispari
+        for (int k = kicks - 1; k >= 0; k--) {
+            Object evicted = x;
+            int evictedHash = hx;
+            if (k % 2 == 0) {
+                int p1 = position1(evictedHash, m);
+                x = this.table1[p1];
+                hx = this.hashes1[p1];
+                this.table1[p1] = evicted;
+                this.hashes1[p1] = evictedHash;
+            } else {
+                int p2 = position2(evictedHash, m);
+                x = this.table2[p2];
+                hx = this.hashes2[p2];
+                this.table2[p2] = evicted;
+                this.hashes2[p2] = evictedHash;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Ricostruisce le tabelle, con capacità almeno pari a quella data,
+     * riposizionando tutti gli elementi, compresi quelli dello stash, con gli
+     * hashCode memorizzati, insieme all'elemento e, con hashCode h, se non è
+     * null. Se qualche elemento non trova posto riprova con semi nuovi, fino
+     * a REHASH_ATTEMPTS volte, e poi con capacità doppia, finché le tabelle
+     * sono occupate per più di MIN_LOAD_FACTOR_FOR_RESIZE. Se nessuna
+     * ricostruzione riesce le tabelle e i semi restano come erano e
+     * restituisce false. Gli elementi della lista di trabocco non vengono
+     * riposizionati.
+     */
+    private boolean rebuild(int capacity, int h, Object e) {
+        int n = e == null ? this.size : this.size + 1;
+        int oldSeed1 = this.seed1;
+        int oldSeed2 = this.seed2;
+        int c = capacity;
+        while (true) {
+            for (int attempt = 0; attempt < REHASH_ATTEMPTS; attempt++) {
+                if (tryRebuild(c, h, e))
+                    return true;
+                newSeeds();
+            }
+            if (c >= MAXIMUM_CAPACITY
+                    || n <= (int) (2 * c * MIN_LOAD_FACTOR_FOR_RESIZE)) {
+                // le tabelle sono ancora quelle di prima, con i loro semi
+                this.seed1 = oldSeed1;
+                this.seed2 = oldSeed2;
+                return false;
+            }
+            c = 2 * c;
+        }
+    }
+
+    /*
+     * Tenta una ricostruzione delle tabelle con una capacità data. Restituisce
+     * false, lasciando le tabelle come erano, se qualche elemento non trova
+     * posto.
+     */
+    private boolean tryRebuild(int capacity, int h, Object e) {
+        Object[] oldTable1 = this.table1;
+        int[] oldHashes1 = this.hashes1;
+        Object[] oldTable2 = this.table2;
+        int[] oldHashes2 = this.hashes2;
+        Object[] oldStash = this.stash;
+        int[] oldStashHashes = this.stashHashes;
+        int oldStashSize = this.stashSize;
+        int oldSize = this.size;
+        allocate(capacity);
+        this.size = oldSize;
+        boolean placed = true;
+        for (int i = 0; placed && i < oldTable1.length; i++)
+            if (oldTable1[i] != null)
+                placed = place(oldHashes1[i], oldTable1[i]);
+        for (int i = 0; placed && i < oldTable2.length; i++)
+            if (oldTable2[i] != null)
+                placed = place(oldHashes2[i], oldTable2[i]);
+        for (int i = 0; placed && i < oldStashSize; i++)
+            placed = place(oldStashHashes[i], oldStash[i]);
+        if (placed && e != null)
+            placed = place(h, e);
+        if (!placed) {
+            this.table1 = oldTable1;
+            this.hashes1 = oldHashes1;
+            this.table2 = oldTable2;
+            this.hashes2 = oldHashes2;
+            this.stash = oldStash;
+            this.stashHashes = oldStashHashes;
+            this.stashSize = oldStashSize;
+        }
+        return placed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null)
+            throw new NullPointerException(
+                    "Cancellazione di elemento null in un set che non accetta null");
+        int h = o.hashCode();
+        int m = this.table1.length;
+        int p1 = position1(h, m);
+        int p2 = position2(h, m);
+        if (this.table1[p1] != null && this.hashes1[p1] == h
+                && o.equals(this.table1[p1]))
+            this.table1[p1] = null;
+        else if (this.table2[p2] != null && this.hashes2[p2] == h
+                && o.equals(this.table2[p2]))
+            this.table2[p2] = null;
+        else {
+            int i = this.stashSize == 0 ? -1 : findInStash(h, o);
+            if (i != -1)
+                removeFromStash(i);
+            else {
+                i = this.overflowSize == 0 ? -1 : findInOverflow(h, o);
+                if (i == -1)
+                    return false;
+                removeFromOverflow(i);
+            }
+        }
+        this.modCount++;
+        this.size--;
+        if (this.stashSize != 0)
+            // provo a spostare nelle tabelle gli elementi dello stash
+            drainStash();
+        if (this.overflowSize != 0)
+            // e quelli della lista di trabocco nelle tabelle o nello stash
+            drainOverflow();
+        return true;
+    }
+
+    /*
+     * Toglie dallo stash l'elemento in posizione i, sostituendolo con
+     * l'ultimo.
+     */
+    private void removeFromStash(int i) {
+        this.stashSize--;
+        this.stash[i] = this.stash[this.stashSize];
+        this.stashHashes[i] = this.stashHashes[this.stashSize];
+        this.stash[this.stashSize] = null;
+    }
+
+    /*
+     * Toglie dalla lista di trabocco l'elemento in posizione i, sostituendolo
+     * con l'ultimo.
+     */
+    private void removeFromOverflow(int i) {
+        this.overflowSize--;
+        this.overflow[i] = this.overflow[this.overflowSize];
+        this.overflowHashes[i] = this.overflowHashes[this.overflowSize];
+        this.overflow[this.overflowSize] = null;
+    }
+
+    /*
+     * Sposta nelle tabelle gli elementi dello stash per cui si è liberata una
+     * delle due posizioni.
+     */
+    private void drainStash() {
+        int m = this.table1.length;
+        for (int i = this.stashSize - 1; i >= 0; i--) {
+            int h = this.stashHashes[i];
+            int p1 = position1(h, m);
+            int p2 = position2(h, m);
+            if (this.table1[p1] == null) {
+                this.table1[p1] = this.stash[i];
+                this.hashes1[p1] = h;
+                removeFromStash(i);
+            } else if (this.table2[p2] == null) {
+                this.table2[p2] = this.stash[i];
+                this.hashes2[p2] = h;
+                removeFromStash(i);
+            }
+        }
+    }
+
+    /*
+     * Sposta nelle tabelle gli elementi della lista di trabocco per cui si è
+     * liberata una delle due posizioni, e gli altri nello stash finché c'è
+     * posto.
+     */
+    private void drainOverflow() {
+        int m = this.table1.length;
+        for (int i = this.overflowSize - 1; i >= 0; i--) {
+            int h = this.overflowHashes[i];
+            int p1 = position1(h, m);
+            int p2 = position2(h, m);
+            if (this.table1[p1] == null) {
+                this.table1[p1] = this.overflow[i];
+                this.hashes1[p1] = h;
+            } else if (this.table2[p2] == null) {
+                this.table2[p2] = this.overflow[i];
+                this.hashes2[p2] = h;
+            } else if (this.stashSize < STASH_CAPACITY) {
+                this.stash[this.stashSize] = this.overflow[i];
+                this.stashHashes[this.stashSize] = h;
+                this.stashSize++;
+            } else
+                continue;
+            removeFromOverflow(i);
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public Object[] toArray() {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("ContainsAll di collection null");
+        for (Object item : c)
+            if (!this.contains(item))
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException("AddAll di collection null");
+        boolean changed = false;
+        for (E item : c)
+            // E' necessario usare l'OR NON PIGRO per assicurarsi che venga
+            // chiamato il metodo add
+            changed = changed | this.add(item);
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("RemoveAll di collection null");
+        boolean changed = false;
+        for (Object item : c)
+            changed = changed | this.remove(item);
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+        clearOverflow();
+        this.modCount++;
+    }
+
+    /*
+     * Iteratore fail-fast che scorre la prima tabella, la seconda, lo stash e
+     * infine la lista di trabocco.
+     */
+    private class Itr implements Iterator<E> {
+
+        // 0 per la prima tabella, 1 per la seconda, 2 per lo stash, 3 per la
+        // lista di trabocco
+        private int part;
+
+        private int nextPos;
+
+        private final int numeroModificheAtteso;
+
+        private Itr() {
+            this.numeroModificheAtteso = modCount;
+            this.part = 0;
+            this.nextPos = 0;
+            advance();
+        }
+
+        /*
+         * Porta part e nextPos sul prossimo elemento, se c'è.
+         */
+        private void advance() {
+            if (this.part == 0) {
+                while (this.nextPos < table1.length
+                        && table1[this.nextPos] == null)
+                    this.nextPos++;
+                if (this.nextPos < table1.length)
+                    return;
+                this.part = 1;
+                this.nextPos = 0;
+            }
+            if (this.part == 1) {
+                while (this.nextPos < table2.length
+                        && table2[this.nextPos] == null)
+                    this.nextPos++;
+                if (this.nextPos < table2.length)
+                    return;
+                this.part = 2;
+                this.nextPos = 0;
+            }
+            if (this.part == 2) {
+                if (this.nextPos < stashSize)
+                    return;
+                this.part = 3;
+                this.nextPos = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.part < 3 || this.nextPos < overflowSize;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != this.numeroModificheAtteso)
+                throw new ConcurrentModificationException(
+                        "Next in iteratore su tabella modificata");
+            if (!hasNext())
+                throw new NoSuchElementException(
+                        "Richiesta di next con hasNext falso");
+            Object item;
+            if (this.part == 0)
+                item = table1[this.nextPos++];
+            else if (this.part == 1)
+                item = table2[this.nextPos++];
+            else if (this.part == 2)
+                item = stash[this.nextPos++];
+            else
+                item = overflow[this.nextPos++];
+            advance();
+            @SuppressWarnings("unchecked")
+            E e = (E) item;
+            return e;
+        }
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected int getCapacity() {
+        return this.table1.length;
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected int getStashSize() {
+        return this.stashSize;
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected int getOverflowSize() {
+        return this.overflowSize;
+    }
+
+}
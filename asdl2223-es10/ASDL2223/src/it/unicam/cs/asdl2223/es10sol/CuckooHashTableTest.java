@@ -0,0 +1,291 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe di test JUnit per la classe CuckooHashTable
+ *
+ *
+ */
+class CuckooHashTableTest {
+
+    private PrimaryHashFunction divisionHash = new DivisionPrimaryHashFunction();
+
+    private PrimaryHashFunction multiplicationHash = new MultiplicationPrimaryHashFunction();
+
+    /*
+     * Chiave con lo stesso hashCode per tutte le istanze: nessun raddoppio
+     * può separarle.
+     */
+    private static class ConstantKey {
+        private final int value;
+
+        ConstantKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ConstantKey
+                    && ((ConstantKey) obj).value == this.value;
+        }
+    }
+
+    /*
+     * Chiave che conta le chiamate a hashCode().
+     */
+    private static class CountingKey {
+        private final int value;
+
+        private int hashCodeCalls;
+
+        CountingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            this.hashCodeCalls++;
+            return this.value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CountingKey
+                    && ((CountingKey) obj).value == this.value;
+        }
+    }
+
+    @Test
+    void testConstructor() {
+        assertThrows(NullPointerException.class, () -> {
+            new CuckooHashTable<Integer>(null, multiplicationHash);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            new CuckooHashTable<Integer>(divisionHash, null);
+        });
+        CuckooHashTable<Integer> table = new CuckooHashTable<Integer>(
+                divisionHash, multiplicationHash);
+        assertTrue(table.isEmpty());
+        assertEquals(16, table.getCapacity());
+    }
+
+    @Test
+    void testSameHashFunctionType() {
+        // i semi diversi delle due tabelle separano le posizioni anche con
+        // due funzioni di hash dello stesso tipo
+        CuckooHashTable<Integer> table = new CuckooHashTable<Integer>(
+                new FibonacciPrimaryHashFunction(),
+                new FibonacciPrimaryHashFunction());
+        for (int i = 0; i < 8000; i++) {
+            assertTrue(table.add(i * 1024));
+            assertTrue(table.getStashSize() <= 4);
+        }
+        assertEquals(8000, table.size());
+        for (int i = 0; i < 8000; i++)
+            assertTrue(table.contains(i * 1024));
+        assertFalse(table.contains(8000 * 1024));
+    }
+
+    @Test
+    void testAddContainsRemove() {
+        CuckooHashTable<String> table = new CuckooHashTable<String>(
+                divisionHash, multiplicationHash);
+        assertTrue(table.add("uno"));
+        assertTrue(table.add("due"));
+        assertFalse(table.add("uno"));
+        assertEquals(2, table.size());
+        assertTrue(table.contains("uno"));
+        assertFalse(table.contains("tre"));
+        assertTrue(table.remove("uno"));
+        assertFalse(table.remove("uno"));
+        assertFalse(table.contains("uno"));
+        assertEquals(1, table.size());
+        assertThrows(NullPointerException.class, () -> {
+            table.add(null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            table.contains(null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            table.remove(null);
+        });
+    }
+
+    @Test
+    void testAddCallsHashCodeOnce() {
+        CuckooHashTable<CountingKey> table = new CuckooHashTable<CountingKey>(
+                divisionHash, multiplicationHash);
+        for (int i = 0; i < 100; i++) {
+            CountingKey k = new CountingKey(i);
+            assertTrue(table.add(k));
+            // una sola chiamata, anche per i raddoppi
+            assertEquals(1, k.hashCodeCalls);
+        }
+        CountingKey duplicate = new CountingKey(42);
+        assertFalse(table.add(duplicate));
+        assertEquals(1, duplicate.hashCodeCalls);
+    }
+
+    @Test
+    void testShouldResize() {
+        CuckooHashTable<Integer> table = new CuckooHashTable<Integer>(
+                divisionHash, multiplicationHash);
+        for (int i = 0; i < 14; i++)
+            table.add(i);
+        assertEquals(16, table.getCapacity());
+        table.add(14);
+        assertEquals(32, table.getCapacity());
+        for (int i = 0; i < 15; i++)
+            assertTrue(table.contains(i));
+    }
+
+    @Test
+    void testRandomAgainstHashSet() {
+        CuckooHashTable<Integer> table = new CuckooHashTable<Integer>(
+                divisionHash, multiplicationHash);
+        Set<Integer> expected = new HashSet<Integer>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int k = random.nextInt(5000) - 2500;
+            if (random.nextInt(3) == 0)
+                assertEquals(expected.remove(k), table.remove(k));
+            else
+                assertEquals(expected.add(k), table.add(k));
+        }
+        assertEquals(expected.size(), table.size());
+        for (int k = -2500; k < 2500; k++)
+            assertEquals(expected.contains(k), table.contains(k));
+        Set<Integer> seen = new HashSet<Integer>();
+        for (Integer k : table)
+            assertTrue(seen.add(k));
+        assertEquals(expected, seen);
+        assertTrue(table.containsAll(expected));
+    }
+
+    @Test
+    void testStash() {
+        CuckooHashTable<ConstantKey> table = new CuckooHashTable<ConstantKey>(
+                divisionHash, multiplicationHash);
+        // due elementi nelle tabelle, gli altri nello stash
+        for (int i = 0; i < 6; i++) {
+            assertTrue(table.add(new ConstantKey(i)));
+            assertTrue(table.getStashSize() <= 4);
+        }
+        assertEquals(4, table.getStashSize());
+        assertEquals(0, table.getOverflowSize());
+        // lo stash è pieno e nessuna ricostruzione può separare gli elementi:
+        // gli altri finiscono nella lista di trabocco
+        for (int i = 6; i < 10; i++)
+            assertTrue(table.add(new ConstantKey(i)));
+        assertFalse(table.add(new ConstantKey(8)));
+        assertEquals(10, table.size());
+        assertEquals(4, table.getStashSize());
+        assertEquals(4, table.getOverflowSize());
+        // le tabelle non crescono senza limite
+        assertTrue(table.getCapacity() <= 64);
+        for (int i = 0; i < 10; i++)
+            assertTrue(table.contains(new ConstantKey(i)));
+        assertFalse(table.contains(new ConstantKey(10)));
+        Set<ConstantKey> seen = new HashSet<ConstantKey>();
+        for (ConstantKey k : table)
+            assertTrue(seen.add(k));
+        assertEquals(10, seen.size());
+        // togliendo un elemento dalle tabelle uno dello stash prende il suo
+        // posto e uno della lista di trabocco entra nello stash
+        assertTrue(table.remove(new ConstantKey(0)));
+        assertEquals(4, table.getStashSize());
+        assertEquals(3, table.getOverflowSize());
+        // si può togliere anche un elemento della lista di trabocco
+        assertTrue(table.remove(new ConstantKey(9)));
+        assertFalse(table.contains(new ConstantKey(9)));
+        for (int i = 1; i < 9; i++)
+            assertTrue(table.remove(new ConstantKey(i)));
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.getStashSize());
+        assertEquals(0, table.getOverflowSize());
+        assertTrue(table.add(new ConstantKey(6)));
+        assertTrue(table.contains(new ConstantKey(6)));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void testStashBoundedWithCollisions() {
+        CuckooHashTable<Object> table = new CuckooHashTable<Object>(
+                divisionHash, multiplicationHash);
+        Set<Object> expected = new HashSet<Object>();
+        Random r = new Random(7);
+        // molti elementi ben distribuiti e alcuni con lo stesso hashCode,
+        // più di quanti ne possano contenere tabelle e stash
+        for (int i = 0; i < 5000; i++) {
+            Object o = i % 100 == 0 && i / 100 < 20 ? new ConstantKey(i)
+                    : (Object) Integer.valueOf(r.nextInt());
+            assertEquals(expected.add(o), table.add(o));
+            assertTrue(table.getStashSize() <= 4);
+            assertEquals(expected.size(), table.size());
+        }
+        assertTrue(table.getOverflowSize() > 0);
+        for (Object o : expected)
+            assertTrue(table.contains(o));
+    }
+
+    @Test
+    void testAlignedKeys() {
+        // hashCode diversi ma multipli di potenze di due, che la funzione di
+        // hash di divisione manda nelle stesse posizioni
+        for (int step : new int[] { 16, 1024, 65536 }) {
+            CuckooHashTable<Integer> table = new CuckooHashTable<Integer>(
+                    divisionHash, multiplicationHash);
+            for (int i = 0; i < 8000; i++) {
+                assertTrue(table.add(i * step));
+                assertTrue(table.getStashSize() <= 4);
+            }
+            assertEquals(8000, table.size());
+            for (int i = 0; i < 8000; i++)
+                assertTrue(table.contains(i * step));
+            assertFalse(table.contains(8000 * step));
+        }
+    }
+
+    @Test
+    void testIterator() {
+        CuckooHashTable<Integer> table = new CuckooHashTable<Integer>(
+                divisionHash, multiplicationHash);
+        assertFalse(table.iterator().hasNext());
+        assertThrows(NoSuchElementException.class, () -> {
+            table.iterator().next();
+        });
+        table.add(1);
+        table.add(2);
+        Iterator<Integer> it = table.iterator();
+        it.next();
+        table.add(3);
+        assertThrows(ConcurrentModificationException.class, () -> {
+            it.next();
+        });
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertFalse(table.contains(1));
+        assertThrows(UnsupportedOperationException.class, () -> {
+            table.toArray();
+        });
+        assertThrows(UnsupportedOperationException.class, () -> {
+            table.retainAll(new HashSet<Integer>());
+        });
+    }
+
+}
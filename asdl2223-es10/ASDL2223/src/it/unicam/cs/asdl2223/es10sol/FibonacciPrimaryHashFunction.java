@@ -0,0 +1,56 @@
+/**
+ * 
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+/**
+ * Implementa una funzione di hash primaria per tabelle la cui dimensione è una
+ * potenza di due, con il metodo noto come hashing di Fibonacci. La chiave viene
+ * prima moltiplicata per la costante di Fibonacci (2^32 / phi, dove phi è la
+ * sezione aurea), in modo che i bit alti dipendano da tutti i bit della chiave.
+ * La posizione in una tabella di dimensione 2^k è data dai k bit più alti del
+ * prodotto, estratti con uno shift al posto della divisione. I bit bassi del
+ * prodotto non andrebbero bene: il bit i del prodotto dipende solo dai bit da 0
+ * a i della chiave, per cui chiavi che differiscono solo nei bit alti
+ * finirebbero tutte nello stesso bucket.
+ * 
+ * Rispetto a MultiplicationPrimaryHashFunction non usa aritmetica in virgola
+ * mobile e rispetto a DivisionPrimaryHashFunction non usa la divisione e non
+ * dipende solo dai bit bassi della chiave, che con una dimensione potenza di
+ * due darebbero una pessima distribuzione per chiavi multiple di una potenza
+ * di due.
+ */
+public class FibonacciPrimaryHashFunction implements PrimaryHashFunction {
+
+    /*
+     * Parte intera di 2^32 / phi, interpretata come int.
+     */
+    private static final int FIBONACCI_MULTIPLIER = 0x9E3779B9;
+
+    /**
+     * {@inheritDoc}
+     * 
+     * La dimensione m deve essere una potenza di due. Non viene controllata a
+     * ogni chiamata: sono le tabelle, tramite requiresPowerOfTwoCapacity(), ad
+     * arrotondare la capacità alla potenza di due successiva; il controllo è
+     * fatto solo con un'asserzione.
+     * 
+     * Con m = 1 restituisce sempre 0: lo shift di 32 posizioni non è
+     * possibile perché in Java la distanza di shift è presa modulo 32.
+     */
+    @Override
+    public int hash(int key, int m) {
+        assert m > 0 && (m & (m - 1)) == 0 : "Dimensione della tabella non potenza di due: "
+                + m;
+        if (m == 1)
+            return 0;
+        int h = key * FIBONACCI_MULTIPLIER;
+        return h >>> (32 - Integer.numberOfTrailingZeros(m));
+    }
+
+    @Override
+    public boolean requiresPowerOfTwoCapacity() {
+        return true;
+    }
+
+}
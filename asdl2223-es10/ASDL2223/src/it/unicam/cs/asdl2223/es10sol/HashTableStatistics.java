@@ -0,0 +1,156 @@
+/**
+ * 
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.util.Arrays;
+
+/**
+ * Statistiche raccolte da una CollisionListResizableHashTable su cui sono
+ * state abilitate. Servono per valutare la qualità della funzione di hash
+ * primaria usata con gli elementi effettivamente inseriti: una funzione
+ * inadatta produce liste di collisione lunghe e quindi molti confronti per
+ * ogni ricerca.
+ * 
+ * Gli oggetti di questa classe sono immutabili e rappresentano la situazione
+ * al momento in cui sono stati richiesti alla tabella.
+ *
+ */
+public class HashTableStatistics {
+
+    private final int[] chainLengthHistogram;
+
+    private final long containsCalls;
+
+    private final long containsComparisons;
+
+    private final int maxContainsComparisons;
+
+    private final int resizeCount;
+
+    private final long resizeTimeNano;
+
+    /**
+     * Costruisce un oggetto statistiche con i valori dati.
+     * 
+     * @param chainLengthHistogram
+     *                                   l'istogramma delle lunghezze delle
+     *                                   liste di collisione
+     * @param containsCalls
+     *                                   il numero di chiamate a contains
+     * @param containsComparisons
+     *                                   il numero totale di elementi
+     *                                   confrontati nelle chiamate a contains
+     * @param maxContainsComparisons
+     *                                   il numero massimo di elementi
+     *                                   confrontati in una chiamata a
+     *                                   contains
+     * @param resizeCount
+     *                                   il numero di riposizionamenti
+     * @param resizeTimeNano
+     *                                   il tempo totale in nanosecondi speso
+     *                                   nei riposizionamenti
+     */
+    HashTableStatistics(int[] chainLengthHistogram, long containsCalls,
+            long containsComparisons, int maxContainsComparisons,
+            int resizeCount, long resizeTimeNano) {
+        this.chainLengthHistogram = chainLengthHistogram;
+        this.containsCalls = containsCalls;
+        this.containsComparisons = containsComparisons;
+        this.maxContainsComparisons = maxContainsComparisons;
+        this.resizeCount = resizeCount;
+        this.resizeTimeNano = resizeTimeNano;
+    }
+
+    /**
+     * Restituisce l'istogramma delle lunghezze delle liste di collisione:
+     * l'elemento in posizione k è il numero di bucket che contengono
+     * esattamente k elementi. In particolare l'elemento in posizione 0 è il
+     * numero di bucket vuoti e la lunghezza dell'array meno uno è la lunghezza
+     * massima delle liste di collisione.
+     * 
+     * @return una copia dell'istogramma delle lunghezze delle liste di
+     *         collisione
+     */
+    public int[] getChainLengthHistogram() {
+        return Arrays.copyOf(this.chainLengthHistogram,
+                this.chainLengthHistogram.length);
+    }
+
+    /**
+     * Restituisce la lunghezza massima delle liste di collisione.
+     * 
+     * @return la lunghezza massima delle liste di collisione
+     */
+    public int getMaxChainLength() {
+        return this.chainLengthHistogram.length - 1;
+    }
+
+    /**
+     * Restituisce il numero di chiamate a contains da quando le statistiche
+     * sono state abilitate.
+     * 
+     * @return il numero di chiamate a contains
+     */
+    public long getContainsCalls() {
+        return this.containsCalls;
+    }
+
+    /**
+     * Restituisce il numero medio di elementi della lista di collisione
+     * confrontati con l'elemento cercato in una chiamata a contains.
+     * 
+     * @return il numero medio di confronti per contains, 0 se contains non è
+     *         mai stato chiamato
+     */
+    public double getAverageContainsComparisons() {
+        if (this.containsCalls == 0)
+            return 0;
+        return (double) this.containsComparisons / this.containsCalls;
+    }
+
+    /**
+     * Restituisce il numero massimo di elementi della lista di collisione
+     * confrontati con l'elemento cercato in una chiamata a contains.
+     * 
+     * @return il numero massimo di confronti per contains
+     */
+    public int getMaxContainsComparisons() {
+        return this.maxContainsComparisons;
+    }
+
+    /**
+     * Restituisce il numero di riposizionamenti degli elementi, per raddoppio
+     * o per riduzione della tabella, da quando le statistiche sono state
+     * abilitate.
+     * 
+     * @return il numero di riposizionamenti
+     */
+    public int getResizeCount() {
+        return this.resizeCount;
+    }
+
+    /**
+     * Restituisce il tempo totale speso nei riposizionamenti, compresi i
+     * passi di un riposizionamento incrementale.
+     * 
+     * @return il tempo totale speso nei riposizionamenti in nanosecondi
+     */
+    public long getResizeTimeNano() {
+        return this.resizeTimeNano;
+    }
+
+    @Override
+    public String toString() {
+        return "HashTableStatistics [maxChainLength=" + getMaxChainLength()
+                + ", chainLengthHistogram="
+                + Arrays.toString(this.chainLengthHistogram)
+                + ", containsCalls=" + this.containsCalls
+                + ", averageContainsComparisons="
+                + getAverageContainsComparisons()
+                + ", maxContainsComparisons=" + this.maxContainsComparisons
+                + ", resizeCount=" + this.resizeCount + ", resizeTimeNano="
+                + this.resizeTimeNano + "]";
+    }
+
+}
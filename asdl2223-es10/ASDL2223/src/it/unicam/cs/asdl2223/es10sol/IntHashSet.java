@@ -0,0 +1,340 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Realizza un insieme di valori di tipo int tramite una tabella hash a
+ * indirizzamento aperto con ispezione lineare. La funzione di hash primario
+ * deve essere passata come parametro nel costruttore e deve implementare
+ * l'interface PrimaryHashFunction: la chiave passata alla funzione è
+ * direttamente il valore da collocare.
+ *
+ * A differenza di CollisionListResizableHashTable<Integer> i valori non
+ * vengono mai trasformati in oggetti Integer e non vengono creati nodi: la
+ * tabella è un semplice array di int. Per questo motivo la classe non
+ * implementa l'interfaccia Set, che richiederebbe di lavorare con oggetti, ma
+ * fornisce le operazioni principali di un insieme sul tipo primitivo.
+ *
+ * Il valore 0 è usato per indicare le posizioni libere della tabella; la
+ * presenza del valore 0 nell'insieme viene quindi registrata a parte.
+ *
+ * La tabella ha una dimensione iniziale di default (16) e un fattore di
+ * caricamento di default (0.5). Quando il fattore di bilanciamento effettivo
+ * eccede quello di default la tabella viene raddoppiata e viene fatto un
+ * riposizionamento di tutti gli elementi. La cancellazione fa arretrare gli
+ * elementi successivi della stessa sequenza di ispezione nella posizione
+ * liberata.
+ *
+ *
+ */
+public class IntHashSet {
+
+    /*
+     * La capacità iniziale. E' una potenza di due e quindi la capacità sarà
+     * sempre una potenza di due, in quanto ogni resize raddoppia la tabella.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Fattore di bilanciamento di default, come per
+     * OpenAddressingResizableHashTable.
+     */
+    private static final double LOAD_FACTOR = 0.5;
+
+    /*
+     * Valore che indica una posizione libera della tabella.
+     */
+    private static final int FREE = 0;
+
+    /*
+     * Le chiavi presenti, FREE nelle posizioni libere.
+     */
+    private int[] table;
+
+    /*
+     * Indica se il valore FREE appartiene all'insieme.
+     */
+    private boolean containsFree;
+
+    /*
+     * Numero di elementi presenti, compreso l'eventuale valore FREE.
+     */
+    private int size;
+
+    /*
+     * Funzione di hash primaria usata da questa hash table.
+     */
+    private final PrimaryHashFunction phf;
+
+    /**
+     * Costruisce un insieme vuoto con capacità iniziale di default e fattore
+     * di caricamento di default.
+     *
+     * @param phf
+     *                la funzione di hash primaria da usare
+     * @throws NullPointerException
+     *                                  se la funzione di hash passata è null
+     */
+    public IntHashSet(PrimaryHashFunction phf) {
+        if (phf == null)
+            throw new NullPointerException("Funzione di hash primaria nulla");
+        this.phf = phf;
+        this.table = new int[INITIAL_CAPACITY];
+        this.containsFree = false;
+        this.size = 0;
+    }
+
+    /**
+     * Restituisce il numero di elementi dell'insieme.
+     *
+     * @return il numero di elementi dell'insieme
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Determina se l'insieme è vuoto.
+     *
+     * @return true se l'insieme non contiene elementi
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Determina se un valore appartiene all'insieme.
+     *
+     * @param key
+     *                il valore da cercare
+     * @return true se il valore appartiene all'insieme
+     */
+    public boolean contains(int key) {
+        if (key == FREE)
+            return this.containsFree;
+        return findPosition(key) != -1;
+    }
+
+    /*
+     * Cerca key, diverso da FREE, a partire dalla sua posizione naturale e
+     * restituisce la posizione in cui si trova o -1 se non è presente.
+     */
+    private int findPosition(int key) {
+        int[] tab = this.table;
+        int m = tab.length;
+        int i = this.phf.hash(key, m);
+        int k;
+        while ((k = tab[i]) != FREE) {
+            if (k == key)
+                return i;
+            i = i + 1 == m ? 0 : i + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Aggiunge un valore all'insieme, se non è già presente.
+     *
+     * @param key
+     *                il valore da aggiungere
+     * @return true se il valore è stato aggiunto, false se era già presente
+     */
+    public boolean add(int key) {
+        if (key == FREE) {
+            if (this.containsFree)
+                return false;
+            this.containsFree = true;
+            this.size++;
+            return true;
+        }
+        int[] tab = this.table;
+        int m = tab.length;
+        int i = this.phf.hash(key, m);
+        int k;
+        while ((k = tab[i]) != FREE) {
+            if (k == key)
+                // il valore è già presente
+                return false;
+            i = i + 1 == m ? 0 : i + 1;
+        }
+        tab[i] = key;
+        this.size++;
+        if (this.size > (int) (m * LOAD_FACTOR))
+            resize();
+        return true;
+    }
+
+    /*
+     * Raddoppia la tabella e riposiziona tutti gli elementi. Gli elementi sono
+     * tutti distinti, quindi basta cercare la prima posizione libera.
+     */
+    private void resize() {
+        int[] oldTable = this.table;
+        int m = oldTable.length * 2;
+        int[] newTable = new int[m];
+        for (int key : oldTable) {
+            if (key == FREE)
+                continue;
+            int i = this.phf.hash(key, m);
+            while (newTable[i] != FREE)
+                i = i + 1 == m ? 0 : i + 1;
+            newTable[i] = key;
+        }
+        this.table = newTable;
+    }
+
+    /**
+     * Rimuove un valore dall'insieme, se presente.
+     *
+     * @param key
+     *                il valore da rimuovere
+     * @return true se il valore è stato rimosso, false se non era presente
+     */
+    public boolean remove(int key) {
+        if (key == FREE) {
+            if (!this.containsFree)
+                return false;
+            this.containsFree = false;
+            this.size--;
+            return true;
+        }
+        int i = findPosition(key);
+        if (i == -1)
+            return false;
+        // libero la posizione i e faccio arretrare gli elementi successivi
+        // della stessa sequenza di ispezione, come in
+        // OpenAddressingResizableHashTable
+        int[] tab = this.table;
+        int m = tab.length;
+        int j = i;
+        while (true) {
+            j = j + 1 == m ? 0 : j + 1;
+            if (tab[j] == FREE)
+                break;
+            int k = this.phf.hash(tab[j], m);
+            boolean canMove = (i <= j) ? (k <= i || k > j)
+                    : (k <= i && k > j);
+            if (canMove) {
+                tab[i] = tab[j];
+                i = j;
+            }
+        }
+        tab[i] = FREE;
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Rimuove tutti gli elementi dall'insieme.
+     */
+    public void clear() {
+        this.table = new int[INITIAL_CAPACITY];
+        this.containsFree = false;
+        this.size = 0;
+    }
+
+    /**
+     * Esegue un'azione su ogni elemento dell'insieme, senza creare oggetti
+     * per gli elementi.
+     *
+     * @param action
+     *                   l'azione da eseguire
+     * @throws NullPointerException
+     *                                  se l'azione passata è null
+     */
+    public void forEach(IntConsumer action) {
+        if (action == null)
+            throw new NullPointerException("Azione nulla");
+        if (this.containsFree)
+            action.accept(FREE);
+        for (int key : this.table)
+            if (key != FREE)
+                action.accept(key);
+    }
+
+    /**
+     * Restituisce un array con tutti gli elementi dell'insieme, in un ordine
+     * qualsiasi.
+     *
+     * @return un array con tutti gli elementi dell'insieme
+     */
+    public int[] toArray() {
+        int[] result = new int[this.size];
+        int n = 0;
+        if (this.containsFree)
+            result[n++] = FREE;
+        for (int key : this.table)
+            if (key != FREE)
+                result[n++] = key;
+        return result;
+    }
+
+    /**
+     * Restituisce un iteratore sugli elementi dell'insieme. Il metodo
+     * nextInt() dell'iteratore restituisce gli elementi senza trasformarli in
+     * oggetti. L'iteratore non è fail-fast: l'insieme non deve essere
+     * modificato durante l'iterazione.
+     *
+     * @return un iteratore sugli elementi dell'insieme
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new Itr();
+    }
+
+    /*
+     * Iteratore sulle posizioni della tabella, preceduto dal valore FREE se
+     * presente.
+     */
+    private class Itr implements PrimitiveIterator.OfInt {
+
+        private final int[] tab;
+
+        private boolean freePending;
+
+        private int nextPos;
+
+        private Itr() {
+            this.tab = table;
+            this.freePending = containsFree;
+            this.nextPos = advance(0);
+        }
+
+        private int advance(int from) {
+            while (from < this.tab.length && this.tab[from] == FREE)
+                from++;
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.freePending || this.nextPos < this.tab.length;
+        }
+
+        @Override
+        public int nextInt() {
+            if (this.freePending) {
+                this.freePending = false;
+                return FREE;
+            }
+            if (this.nextPos >= this.tab.length)
+                throw new NoSuchElementException(
+                        "Richiesta di next con hasNext falso");
+            int key = this.tab[this.nextPos];
+            this.nextPos = advance(this.nextPos + 1);
+            return key;
+        }
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected int[] getTable() {
+        return this.table;
+    }
+
+}
@@ -0,0 +1,121 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe di test JUnit per la classe IntHashSet
+ *
+ *
+ */
+class IntHashSetTest {
+
+    private PrimaryHashFunction divisionHash = new DivisionPrimaryHashFunction();
+
+    private PrimaryHashFunction fibonacciHash =
+            new FibonacciPrimaryHashFunction();
+
+    @Test
+    void divisionHash_testAddContainsRemove() {
+        IntHashSet set = new IntHashSet(divisionHash);
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(10));
+        assertTrue(set.remove(42));
+        assertFalse(set.remove(42));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void divisionHash_testZero() {
+        IntHashSet set = new IntHashSet(divisionHash);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+        assertArrayEquals(new int[] { 0 }, set.toArray());
+        assertTrue(set.remove(0));
+        assertFalse(set.contains(0));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void divisionHash_testRemoveKeepsProbeSequence() {
+        // 1, 17, 33 hanno tutti posizione naturale 1 in una tabella di 16
+        // posizioni, -15 ha posizione naturale 15 e finisce in testa
+        IntHashSet set = new IntHashSet(divisionHash);
+        for (int key : new int[] { 1, 17, 33, 15, 31, 47 })
+            set.add(key);
+        assertTrue(set.remove(1));
+        assertTrue(set.remove(15));
+        for (int key : new int[] { 17, 33, 31, 47 })
+            assertTrue(set.contains(key));
+        assertFalse(set.contains(1));
+        assertFalse(set.contains(15));
+        assertEquals(4, set.size());
+    }
+
+    @Test
+    void divisionHash_testShouldResize() {
+        IntHashSet set = new IntHashSet(divisionHash);
+        for (int i = 1; i <= 8; i++)
+            set.add(i);
+        int tableLengthBeforeAdd = set.getTable().length;
+        set.add(9);
+        assertEquals(tableLengthBeforeAdd * 2, set.getTable().length);
+    }
+
+    @Test
+    void fibonacciHash_testManyElements() {
+        IntHashSet set = new IntHashSet(fibonacciHash);
+        for (int i = -5000; i < 5000; i++)
+            assertTrue(set.add(i * 31));
+        for (int i = -5000; i < 5000; i += 2)
+            assertTrue(set.remove(i * 31));
+        assertEquals(5000, set.size());
+        for (int i = -5000; i < 5000; i++)
+            assertEquals(i % 2 != 0, set.contains(i * 31));
+    }
+
+    @Test
+    void fibonacciHash_testIteratorAndForEach() {
+        IntHashSet set = new IntHashSet(fibonacciHash);
+        Integer vals[] = { 0, 1, -1, 100, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        for (int v : vals)
+            set.add(v);
+        Set<Integer> expected = new HashSet<Integer>(Arrays.asList(vals));
+        Set<Integer> seen = new HashSet<Integer>();
+        PrimitiveIterator.OfInt it = set.iterator();
+        while (it.hasNext())
+            assertTrue(seen.add(it.nextInt()));
+        assertEquals(expected, seen);
+        Set<Integer> seenForEach = new HashSet<Integer>();
+        set.forEach(k -> seenForEach.add(k));
+        assertEquals(expected, seenForEach);
+        assertEquals(vals.length, set.toArray().length);
+    }
+
+    @Test
+    void testClear() {
+        IntHashSet set = new IntHashSet(fibonacciHash);
+        set.add(0);
+        set.add(3);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(3));
+        assertFalse(set.iterator().hasNext());
+        assertThrows(NullPointerException.class, () -> {
+            new IntHashSet(null);
+        });
+    }
+
+}
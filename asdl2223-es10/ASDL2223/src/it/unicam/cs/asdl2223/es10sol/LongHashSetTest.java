@@ -0,0 +1,123 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe di test JUnit per la classe LongHashSet
+ *
+ *
+ */
+class LongHashSetTest {
+
+    private PrimaryHashFunction divisionHash = new DivisionPrimaryHashFunction();
+
+    private PrimaryHashFunction fibonacciHash =
+            new FibonacciPrimaryHashFunction();
+
+    @Test
+    void divisionHash_testAddContainsRemove() {
+        LongHashSet set = new LongHashSet(divisionHash);
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(10));
+        assertTrue(set.remove(42));
+        assertFalse(set.remove(42));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void divisionHash_testZero() {
+        LongHashSet set = new LongHashSet(divisionHash);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+        assertArrayEquals(new long[] { 0 }, set.toArray());
+        assertTrue(set.remove(0));
+        assertFalse(set.contains(0));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void divisionHash_testRemoveKeepsProbeSequence() {
+        // 1, 17, 33 hanno tutti posizione naturale 1 in una tabella di 16
+        // posizioni, 15, 31 e 47 hanno posizione naturale 15 e gli ultimi due
+        // finiscono in testa
+        LongHashSet set = new LongHashSet(divisionHash);
+        for (long key : new long[] { 1, 17, 33, 15, 31, 47 })
+            set.add(key);
+        assertTrue(set.remove(1));
+        assertTrue(set.remove(15));
+        for (long key : new long[] { 17, 33, 31, 47 })
+            assertTrue(set.contains(key));
+        assertFalse(set.contains(1));
+        assertFalse(set.contains(15));
+        assertEquals(4, set.size());
+    }
+
+    @Test
+    void divisionHash_testShouldResize() {
+        LongHashSet set = new LongHashSet(divisionHash);
+        for (int i = 1; i <= 8; i++)
+            set.add(i);
+        int tableLengthBeforeAdd = set.getTable().length;
+        set.add(9);
+        assertEquals(tableLengthBeforeAdd * 2, set.getTable().length);
+    }
+
+    @Test
+    void fibonacciHash_testManyElements() {
+        LongHashSet set = new LongHashSet(fibonacciHash);
+        // chiavi che differiscono solo nei 32 bit alti
+        for (long i = -5000; i < 5000; i++)
+            assertTrue(set.add(i << 32));
+        for (long i = -5000; i < 5000; i += 2)
+            assertTrue(set.remove(i << 32));
+        assertEquals(5000, set.size());
+        for (long i = -5000; i < 5000; i++)
+            assertEquals(i % 2 != 0, set.contains(i << 32));
+    }
+
+    @Test
+    void fibonacciHash_testIteratorAndForEach() {
+        LongHashSet set = new LongHashSet(fibonacciHash);
+        Long vals[] = { 0L, 1L, -1L, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (long v : vals)
+            set.add(v);
+        Set<Long> expected = new HashSet<Long>(Arrays.asList(vals));
+        Set<Long> seen = new HashSet<Long>();
+        PrimitiveIterator.OfLong it = set.iterator();
+        while (it.hasNext())
+            assertTrue(seen.add(it.nextLong()));
+        assertEquals(expected, seen);
+        Set<Long> seenForEach = new HashSet<Long>();
+        set.forEach(k -> seenForEach.add(k));
+        assertEquals(expected, seenForEach);
+        assertEquals(vals.length, set.toArray().length);
+    }
+
+    @Test
+    void testClear() {
+        LongHashSet set = new LongHashSet(fibonacciHash);
+        set.add(0);
+        set.add(3);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(3));
+        assertFalse(set.iterator().hasNext());
+        assertThrows(NullPointerException.class, () -> {
+            new LongHashSet(null);
+        });
+    }
+
+}
@@ -0,0 +1,707 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Realizza un insieme persistente di valori di tipo long tramite una tabella
+ * hash a indirizzamento aperto con ispezione lineare, come LongHashSet, la cui
+ * tabella non si trova nello heap della JVM ma in un file mappato in memoria
+ * (FileChannel.map). La funzione di hash primaria deve essere passata come
+ * parametro nel costruttore e deve implementare l'interface
+ * PrimaryHashFunction.
+ *
+ * Il file contiene un'intestazione, con la capacità, il numero di elementi e
+ * la funzione di hash usata, seguita dalla tabella, in cui ogni posizione è un
+ * long. Riaprendo un file esistente la tabella viene solo mappata di nuovo in
+ * memoria: non c'è bisogno di leggere né di riposizionare gli elementi, che
+ * vengono caricati dal sistema operativo solo quando servono. Il file deve
+ * essere riaperto con lo stesso tipo di funzione di hash usato per crearlo.
+ *
+ * Il valore 0 è usato per indicare le posizioni libere della tabella; la
+ * presenza del valore 0 nell'insieme viene quindi registrata
+ * nell'intestazione. La tabella ha una dimensione iniziale di default (1024),
+ * che può essere cambiata nel costruttore, e un fattore di caricamento di
+ * default (0.5). Quando il fattore di bilanciamento effettivo eccede quello di
+ * default la tabella viene raddoppiata costruendola in un file temporaneo che
+ * poi sostituisce, con uno spostamento atomico, il file originale.
+ *
+ * Le modifiche sono scritte direttamente nel file mappato; il metodo force()
+ * e il metodo close() assicurano che siano state scritte sul disco. Il
+ * contenuto del file è garantito consistente solo dopo la chiusura.
+ *
+ * La classe implementa l'interfaccia Set<Long>, ma le operazioni sul tipo
+ * primitivo evitano di creare oggetti Long.
+ *
+ */
+public class MappedLongHashSet implements Set<Long>, Closeable {
+
+    /*
+     * La capacità iniziale di default.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /*
+     * Capacità massima: la tabella e l'intestazione devono stare in una
+     * singola regione mappata, che non può superare Integer.MAX_VALUE byte.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 27;
+
+    /*
+     * Fattore di bilanciamento di default, come per LongHashSet.
+     */
+    private static final double LOAD_FACTOR = 0.5;
+
+    /*
+     * Valore che indica una posizione libera della tabella.
+     */
+    private static final long FREE = 0L;
+
+    /*
+     * Valore iniziale del file, che lo identifica come un insieme salvato da
+     * questa classe.
+     */
+    private static final long MAGIC = 0x4D4C4853_45543031L;
+
+    // Posizioni dei campi dell'intestazione nel file
+
+    private static final int MAGIC_OFFSET = 0;
+
+    private static final int PHF_OFFSET = 8;
+
+    private static final int CAPACITY_OFFSET = 12;
+
+    private static final int SIZE_OFFSET = 16;
+
+    private static final int CONTAINS_FREE_OFFSET = 20;
+
+    /*
+     * Lunghezza dell'intestazione, dopo la quale inizia la tabella.
+     */
+    private static final int HEADER_LENGTH = 32;
+
+    /*
+     * Il file che contiene l'insieme.
+     */
+    private final Path file;
+
+    /*
+     * Il canale del file, aperto finché l'insieme non viene chiuso.
+     */
+    private FileChannel channel;
+
+    /*
+     * Il contenuto del file mappato in memoria, null se l'insieme è chiuso.
+     */
+    private MappedByteBuffer buffer;
+
+    /*
+     * Numero di posizioni della tabella, letto dall'intestazione.
+     */
+    private int capacity;
+
+    /*
+     * Numero di elementi presenti, compreso l'eventuale valore FREE. E' una
+     * copia del valore nell'intestazione.
+     */
+    private int size;
+
+    /*
+     * Indica se il valore FREE appartiene all'insieme. E' una copia del valore
+     * nell'intestazione.
+     */
+    private boolean containsFree;
+
+    /*
+     * Funzione di hash primaria usata da questa hash table.
+     */
+    private final PrimaryHashFunction phf;
+
+    /*
+     * Contatore del numero di modifiche. Serve per rendere l'iterator
+     * fail-fast.
+     */
+    private int modCount;
+
+    /**
+     * Apre l'insieme contenuto nel file dato oppure, se il file non esiste,
+     * crea un nuovo insieme vuoto con capacità iniziale di default.
+     *
+     * @param file
+     *                 il file che contiene l'insieme
+     * @param phf
+     *                 la funzione di hash primaria da usare, dello stesso tipo
+     *                 di quella usata per creare il file
+     * @throws IOException
+     *                                      se il file non può essere letto o
+     *                                      scritto o non contiene un insieme
+     *                                      valido
+     * @throws NullPointerException
+     *                                      se il file o la funzione di hash
+     *                                      passati sono null
+     * @throws IllegalArgumentException
+     *                                      se il file è stato creato con un
+     *                                      tipo di funzione di hash diverso
+     */
+    public MappedLongHashSet(Path file, PrimaryHashFunction phf)
+            throws IOException {
+        this(file, phf, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Apre l'insieme contenuto nel file dato oppure, se il file non esiste,
+     * crea un nuovo insieme vuoto con la capacità iniziale data, arrotondata
+     * alla potenza di due successiva.
+     *
+     * @param file
+     *                            il file che contiene l'insieme
+     * @param phf
+     *                            la funzione di hash primaria da usare, dello
+     *                            stesso tipo di quella usata per creare il
+     *                            file
+     * @param initialCapacity
+     *                            la capacità iniziale della tabella, usata
+     *                            solo se il file non esiste
+     * @throws IOException
+     *                                      se il file non può essere letto o
+     *                                      scritto o non contiene un insieme
+     *                                      valido
+     * @throws NullPointerException
+     *                                      se il file o la funzione di hash
+     *                                      passati sono null
+     * @throws IllegalArgumentException
+     *                                      se la capacità iniziale non è
+     *                                      positiva o se il file è stato
+     *                                      creato con un tipo di funzione di
+     *                                      hash diverso
+     */
+    public MappedLongHashSet(Path file, PrimaryHashFunction phf,
+            int initialCapacity) throws IOException {
+        if (file == null)
+            throw new NullPointerException("File nullo");
+        if (phf == null)
+            throw new NullPointerException("Funzione di hash primaria nulla");
+        if (initialCapacity < 1)
+            throw new IllegalArgumentException(
+                    "Capacità iniziale non positiva: " + initialCapacity);
+        this.file = file;
+        this.phf = phf;
+        this.modCount = 0;
+        if (Files.exists(file)) {
+            openExisting();
+        } else {
+            int c = Integer.highestOneBit(
+                    Math.min(initialCapacity, MAXIMUM_CAPACITY));
+            if (c < initialCapacity && c < MAXIMUM_CAPACITY)
+                c = c << 1;
+            createEmpty(file, c);
+            openExisting();
+        }
+    }
+
+    /*
+     * Identificatore del tipo di funzione di hash primaria, salvato
+     * nell'intestazione.
+     */
+    private int phfId() {
+        return this.phf.getClass().getName().hashCode();
+    }
+
+    /*
+     * Crea il file di un insieme vuoto con la capacità data.
+     */
+    private void createEmpty(Path f, int c) throws IOException {
+        try (FileChannel ch = FileChannel.open(f, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapEmpty(ch, c).force();
+        }
+    }
+
+    /*
+     * Mappa in memoria il file di un canale, allungandolo fino alla
+     * lunghezza di una tabella con la capacità data, e scrive l'intestazione
+     * di un insieme vuoto. Le posizioni della tabella aggiunte al file sono
+     * tutte libere.
+     */
+    private MappedByteBuffer mapEmpty(FileChannel ch, int c)
+            throws IOException {
+        MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_LENGTH + (long) c * Long.BYTES);
+        b.putLong(MAGIC_OFFSET, MAGIC);
+        b.putInt(PHF_OFFSET, phfId());
+        b.putInt(CAPACITY_OFFSET, c);
+        b.putInt(SIZE_OFFSET, 0);
+        b.putInt(CONTAINS_FREE_OFFSET, 0);
+        return b;
+    }
+
+    /*
+     * Mappa in memoria il file, controllando l'intestazione.
+     */
+    private void openExisting() throws IOException {
+        FileChannel ch = FileChannel.open(this.file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long length = ch.size();
+            if (length < HEADER_LENGTH)
+                throw new IOException("File non valido: " + this.file);
+            MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_LENGTH);
+            int c = b.getInt(CAPACITY_OFFSET);
+            if (b.getLong(MAGIC_OFFSET) != MAGIC || c < 1 || c > MAXIMUM_CAPACITY
+                    || Integer.bitCount(c) != 1
+                    || length != HEADER_LENGTH + (long) c * Long.BYTES)
+                throw new IOException("File non valido: " + this.file);
+            if (b.getInt(PHF_OFFSET) != phfId())
+                throw new IllegalArgumentException(
+                        "Funzione di hash diversa da quella usata per creare il file");
+            this.buffer = ch.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            this.channel = ch;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+        this.capacity = this.buffer.getInt(CAPACITY_OFFSET);
+        this.size = this.buffer.getInt(SIZE_OFFSET);
+        this.containsFree = this.buffer.getInt(CONTAINS_FREE_OFFSET) != 0;
+    }
+
+    /*
+     * Controlla che l'insieme non sia stato chiuso.
+     */
+    private void checkOpen() {
+        if (this.buffer == null)
+            throw new IllegalStateException("Insieme chiuso");
+    }
+
+    // Accesso alle posizioni della tabella nel file mappato
+
+    private long slot(int i) {
+        return this.buffer.getLong(HEADER_LENGTH + i * Long.BYTES);
+    }
+
+    private void setSlot(int i, long key) {
+        this.buffer.putLong(HEADER_LENGTH + i * Long.BYTES, key);
+    }
+
+    /*
+     * Aggiorna size e containsFree, sia nei campi sia nell'intestazione.
+     */
+    private void updateHeader(int newSize, boolean newContainsFree) {
+        this.size = newSize;
+        this.containsFree = newContainsFree;
+        this.buffer.putInt(SIZE_OFFSET, newSize);
+        this.buffer.putInt(CONTAINS_FREE_OFFSET, newContainsFree ? 1 : 0);
+        this.modCount++;
+    }
+
+    /*
+     * Riduce un long a un int da passare alla funzione di hash primaria, come
+     * Long.hashCode().
+     */
+    private static int hashKey(long key) {
+        return (int) (key ^ (key >>> 32));
+    }
+
+    @Override
+    public int size() {
+        checkOpen();
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        checkOpen();
+        return this.size == 0;
+    }
+
+    /**
+     * Determina se un valore appartiene all'insieme.
+     *
+     * @param key
+     *                il valore da cercare
+     * @return true se il valore appartiene all'insieme
+     * @throws IllegalStateException
+     *                                   se l'insieme è stato chiuso
+     */
+    public boolean contains(long key) {
+        checkOpen();
+        if (key == FREE)
+            return this.containsFree;
+        return findPosition(key) != -1;
+    }
+
+    /*
+     * Cerca key, diverso da FREE, a partire dalla sua posizione naturale e
+     * restituisce la posizione in cui si trova o -1 se non è presente.
+     */
+    private int findPosition(long key) {
+        int m = this.capacity;
+        int i = this.phf.hash(hashKey(key), m);
+        long k;
+        while ((k = slot(i)) != FREE) {
+            if (k == key)
+                return i;
+            i = i + 1 == m ? 0 : i + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Aggiunge un valore all'insieme, se non è già presente.
+     *
+     * @param key
+     *                il valore da aggiungere
+     * @return true se il valore è stato aggiunto, false se era già presente
+     * @throws IOException
+     *                                   se non è possibile raddoppiare il
+     *                                   file
+     * @throws IllegalStateException
+     *                                   se l'insieme è stato chiuso o ha
+     *                                   raggiunto la capacità massima
+     */
+    public boolean add(long key) throws IOException {
+        checkOpen();
+        if (key == FREE) {
+            if (this.containsFree)
+                return false;
+            updateHeader(this.size + 1, true);
+            return true;
+        }
+        int m = this.capacity;
+        int i = this.phf.hash(hashKey(key), m);
+        long k;
+        while ((k = slot(i)) != FREE) {
+            if (k == key)
+                // il valore è già presente
+                return false;
+            i = i + 1 == m ? 0 : i + 1;
+        }
+        if (this.size + 1 > (int) (m * LOAD_FACTOR)) {
+            // raddoppio prima di inserire, in modo che il file contenga
+            // sempre un insieme consistente
+            if (m == MAXIMUM_CAPACITY)
+                throw new IllegalStateException(
+                        "Raggiunta la capacità massima");
+            resize();
+            return add(key);
+        }
+        setSlot(i, key);
+        updateHeader(this.size + 1, this.containsFree);
+        return true;
+    }
+
+    /*
+     * Raddoppia la tabella. Il nuovo insieme viene costruito in un file
+     * temporaneo nella stessa directory, creato una sola volta e allungato sul
+     * posto, che poi sostituisce il file originale. Il file temporaneo resta
+     * mappato dopo lo spostamento e diventa il file dell'insieme: l'unica
+     * operazione che segue lo spostamento è la chiusura del vecchio canale.
+     * Se l'operazione si interrompe il file originale resta valido e, se
+     * fallisce con un'eccezione prima dello spostamento, l'insieme resta
+     * aperto sul file originale. Se fallisce solo la chiusura del vecchio
+     * canale l'eccezione viene lanciata ma l'insieme è già aperto, e
+     * utilizzabile, sul nuovo file.
+     */
+    private void resize() throws IOException {
+        int m = this.capacity * 2;
+        Path dir = this.file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir,
+                this.file.getFileName().toString(), ".tmp");
+        FileChannel ch = null;
+        MappedByteBuffer b;
+        try {
+            ch = FileChannel.open(tmp, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            b = mapEmpty(ch, m);
+            // Gli elementi sono tutti distinti, quindi basta cercare la prima
+            // posizione libera
+            for (int j = 0; j < this.capacity; j++) {
+                long key = slot(j);
+                if (key == FREE)
+                    continue;
+                int i = this.phf.hash(hashKey(key), m);
+                while (b.getLong(HEADER_LENGTH + i * Long.BYTES) != FREE)
+                    i = i + 1 == m ? 0 : i + 1;
+                b.putLong(HEADER_LENGTH + i * Long.BYTES, key);
+            }
+            b.putInt(SIZE_OFFSET, this.size);
+            b.putInt(CONTAINS_FREE_OFFSET, this.containsFree ? 1 : 0);
+            b.force();
+            // Sostituisco il file originale mentre è ancora aperto: se lo
+            // spostamento fallisce l'insieme resta aperto e utilizzabile
+            try {
+                Files.move(tmp, this.file, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, this.file,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (ch != null)
+                ch.close();
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        // Il nuovo file è già mappato: passo ad esso e solo ora chiudo il
+        // vecchio canale
+        FileChannel old = this.channel;
+        this.channel = ch;
+        this.buffer = b;
+        this.capacity = m;
+        this.modCount++;
+        old.close();
+    }
+
+    /**
+     * Rimuove un valore dall'insieme, se presente.
+     *
+     * @param key
+     *                il valore da rimuovere
+     * @return true se il valore è stato rimosso, false se non era presente
+     * @throws IllegalStateException
+     *                                   se l'insieme è stato chiuso
+     */
+    public boolean remove(long key) {
+        checkOpen();
+        if (key == FREE) {
+            if (!this.containsFree)
+                return false;
+            updateHeader(this.size - 1, false);
+            return true;
+        }
+        int i = findPosition(key);
+        if (i == -1)
+            return false;
+        // libero la posizione i e faccio arretrare gli elementi successivi
+        // della stessa sequenza di ispezione, come in LongHashSet
+        int m = this.capacity;
+        int j = i;
+        while (true) {
+            j = j + 1 == m ? 0 : j + 1;
+            long kj = slot(j);
+            if (kj == FREE)
+                break;
+            int k = this.phf.hash(hashKey(kj), m);
+            boolean canMove = (i <= j) ? (k <= i || k > j)
+                    : (k <= i && k > j);
+            if (canMove) {
+                setSlot(i, kj);
+                i = j;
+            }
+        }
+        setSlot(i, FREE);
+        updateHeader(this.size - 1, this.containsFree);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException(
+                    "Ricerca di elemento null in un set che non accetta null");
+        if (!(o instanceof Long))
+            return false;
+        return contains(((Long) o).longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException
+     *                                  se non è possibile raddoppiare il file
+     */
+    @Override
+    public boolean add(Long e) {
+        if (e == null)
+            throw new NullPointerException(
+                    "Inserimento di elemento null in un set che non accetta null");
+        try {
+            return add(e.longValue());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null)
+            throw new NullPointerException(
+                    "Cancellazione di elemento null in un set che non accetta null");
+        if (!(o instanceof Long))
+            return false;
+        return remove(((Long) o).longValue());
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("ContainsAll di collection null");
+        for (Object item : c)
+            if (!this.contains(item))
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Long> c) {
+        if (c == null)
+            throw new NullPointerException("AddAll di collection null");
+        boolean changed = false;
+        for (Long item : c)
+            // E' necessario usare l'OR NON PIGRO per assicurarsi che venga
+            // chiamato il metodo add
+            changed = changed | this.add(item);
+        return changed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("RemoveAll di collection null");
+        boolean changed = false;
+        for (Object item : c)
+            changed = changed | this.remove(item);
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public Object[] toArray() {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    /**
+     * Rimuove tutti gli elementi dall'insieme, mantenendo la capacità
+     * attuale del file.
+     *
+     * @throws IllegalStateException
+     *                                   se l'insieme è stato chiuso
+     */
+    @Override
+    public void clear() {
+        checkOpen();
+        for (int i = 0; i < this.capacity; i++)
+            setSlot(i, FREE);
+        updateHeader(0, false);
+    }
+
+    /**
+     * Assicura che tutte le modifiche siano state scritte sul disco.
+     *
+     * @throws IllegalStateException
+     *                                   se l'insieme è stato chiuso
+     */
+    public void force() {
+        checkOpen();
+        this.buffer.force();
+    }
+
+    /**
+     * Scrive sul disco le modifiche e chiude il file. Dopo la chiusura
+     * l'insieme non può più essere usato; chiudere un insieme già chiuso non
+     * ha effetto.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.buffer == null)
+            return;
+        this.buffer.force();
+        this.buffer = null;
+        this.channel.close();
+    }
+
+    /**
+     * Restituisce un iteratore fail-fast sugli elementi dell'insieme.
+     *
+     * @return un iteratore sugli elementi dell'insieme
+     * @throws IllegalStateException
+     *                                   se l'insieme è stato chiuso
+     */
+    @Override
+    public Iterator<Long> iterator() {
+        checkOpen();
+        return new Itr();
+    }
+
+    /*
+     * Iteratore sulle posizioni della tabella, preceduto dal valore FREE se
+     * presente.
+     */
+    private class Itr implements Iterator<Long> {
+
+        private boolean freePending;
+
+        private int nextPos;
+
+        private final int numeroModificheAtteso;
+
+        private Itr() {
+            this.numeroModificheAtteso = modCount;
+            this.freePending = containsFree;
+            this.nextPos = advance(0);
+        }
+
+        private int advance(int from) {
+            while (from < capacity && slot(from) == FREE)
+                from++;
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.freePending || this.nextPos < capacity;
+        }
+
+        @Override
+        public Long next() {
+            if (modCount != this.numeroModificheAtteso)
+                throw new ConcurrentModificationException(
+                        "Next in iteratore su tabella modificata");
+            checkOpen();
+            if (this.freePending) {
+                this.freePending = false;
+                return FREE;
+            }
+            if (this.nextPos >= capacity)
+                throw new NoSuchElementException(
+                        "Richiesta di next con hasNext falso");
+            long key = slot(this.nextPos);
+            this.nextPos = advance(this.nextPos + 1);
+            return key;
+        }
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected int getCapacity() {
+        return this.capacity;
+    }
+
+}
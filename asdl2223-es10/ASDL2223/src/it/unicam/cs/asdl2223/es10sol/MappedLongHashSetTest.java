@@ -0,0 +1,213 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe di test JUnit per la classe MappedLongHashSet
+ *
+ *
+ */
+class MappedLongHashSetTest {
+
+    private PrimaryHashFunction fibonacciHash =
+            new FibonacciPrimaryHashFunction();
+
+    private Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("mappedset");
+        file = dir.resolve("set.bin");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files)
+                Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void fibonacciHash_testAddContainsRemove() throws IOException {
+        try (MappedLongHashSet set = new MappedLongHashSet(file,
+                fibonacciHash)) {
+            assertTrue(set.add(42L));
+            assertFalse(set.add(42L));
+            assertTrue(set.contains(42L));
+            assertFalse(set.contains(10L));
+            assertTrue(set.add(0L));
+            assertTrue(set.contains(0L));
+            assertEquals(2, set.size());
+            assertTrue(set.remove(42L));
+            assertFalse(set.remove(42L));
+            assertTrue(set.remove(0L));
+            assertTrue(set.isEmpty());
+        }
+    }
+
+    @Test
+    void fibonacciHash_testReopen() throws IOException {
+        try (MappedLongHashSet set = new MappedLongHashSet(file, fibonacciHash,
+                16)) {
+            for (long i = -500; i < 500; i++)
+                set.add(i << 32);
+            for (long i = -500; i < 500; i += 2)
+                set.remove(i << 32);
+        }
+        try (MappedLongHashSet set = new MappedLongHashSet(file,
+                fibonacciHash)) {
+            // la capacità è quella salvata, non quella di default
+            assertEquals(2048, set.getCapacity());
+            assertEquals(500, set.size());
+            for (long i = -500; i < 500; i++)
+                assertEquals(i % 2 != 0, set.contains(i << 32));
+            assertFalse(set.contains(0L));
+            set.add(0L);
+        }
+        try (MappedLongHashSet set = new MappedLongHashSet(file,
+                fibonacciHash)) {
+            assertTrue(set.contains(0L));
+            assertEquals(501, set.size());
+        }
+    }
+
+    @Test
+    void fibonacciHash_testResizeReplacesFile() throws IOException {
+        try (MappedLongHashSet set = new MappedLongHashSet(file, fibonacciHash,
+                16)) {
+            for (long i = 1; i <= 8; i++)
+                set.add(i);
+            assertEquals(16, set.getCapacity());
+            set.add(9L);
+            assertEquals(32, set.getCapacity());
+            for (long i = 1; i <= 9; i++)
+                assertTrue(set.contains(i));
+            assertTrue(set.add(10L));
+        }
+        // nella directory resta solo il file dell'insieme
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            int count = 0;
+            for (Path f : files) {
+                assertEquals(file.getFileName(), f.getFileName());
+                count++;
+            }
+            assertEquals(1, count);
+        }
+        assertEquals(32 + 32 * Long.BYTES, Files.size(file));
+        // il nuovo file è quello mappato: anche gli inserimenti fatti dopo il
+        // raddoppio vi sono stati scritti
+        try (MappedLongHashSet set = new MappedLongHashSet(file,
+                fibonacciHash)) {
+            assertEquals(10, set.size());
+            for (long i = 1; i <= 10; i++)
+                assertTrue(set.contains(i));
+        }
+    }
+
+    @Test
+    void fibonacciHash_testResizeMoveFails() throws IOException {
+        try (MappedLongHashSet set = new MappedLongHashSet(file, fibonacciHash,
+                16)) {
+            for (long i = 1; i <= 8; i++)
+                set.add(i);
+            // Il file mappato resta valido anche se viene cancellato; al suo
+            // posto metto una directory non vuota, su cui lo spostamento del
+            // file ridimensionato fallisce
+            Files.delete(file);
+            Files.createDirectory(file);
+            Path obstacle = Files.createFile(file.resolve("x"));
+            assertThrows(IOException.class, () -> set.add(9L));
+            // l'insieme è ancora aperto e non è cambiato
+            assertEquals(16, set.getCapacity());
+            assertEquals(8, set.size());
+            for (long i = 1; i <= 8; i++)
+                assertTrue(set.contains(i));
+            assertFalse(set.contains(9L));
+            assertTrue(set.remove(8L));
+            assertTrue(set.add(8L));
+            // non resta il file temporaneo
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path f : files)
+                    assertEquals(file.getFileName(), f.getFileName());
+            }
+            // tolto l'ostacolo, il ridimensionamento riesce
+            Files.delete(obstacle);
+            Files.delete(file);
+            assertTrue(set.add(9L));
+            assertEquals(32, set.getCapacity());
+            for (long i = 1; i <= 9; i++)
+                assertTrue(set.contains(i));
+        }
+        try (MappedLongHashSet set = new MappedLongHashSet(file,
+                fibonacciHash)) {
+            assertEquals(9, set.size());
+        }
+    }
+
+    @Test
+    void fibonacciHash_testIterator() throws IOException {
+        try (MappedLongHashSet set = new MappedLongHashSet(file,
+                fibonacciHash)) {
+            Set<Long> expected = new HashSet<Long>();
+            for (long i = 0; i < 100; i++)
+                expected.add(i * 7919);
+            assertTrue(set.addAll(expected));
+            Set<Long> seen = new HashSet<Long>();
+            for (Long k : set)
+                assertTrue(seen.add(k));
+            assertEquals(expected, seen);
+            assertTrue(set.containsAll(expected));
+            set.clear();
+            assertTrue(set.isEmpty());
+            assertFalse(set.iterator().hasNext());
+        }
+    }
+
+    @Test
+    void testWrongFile() throws IOException {
+        try (MappedLongHashSet set = new MappedLongHashSet(file,
+                fibonacciHash)) {
+            set.add(1L);
+        }
+        // un tipo diverso di funzione di hash
+        assertThrows(IllegalArgumentException.class, () -> {
+            new MappedLongHashSet(file, new DivisionPrimaryHashFunction());
+        });
+        // un file che non contiene un insieme
+        Path other = dir.resolve("other.bin");
+        Files.write(other, new byte[100]);
+        assertThrows(IOException.class, () -> {
+            new MappedLongHashSet(other, fibonacciHash);
+        });
+    }
+
+    @Test
+    void testClosed() throws IOException {
+        MappedLongHashSet set = new MappedLongHashSet(file, fibonacciHash);
+        set.add(1L);
+        set.close();
+        set.close();
+        assertThrows(IllegalStateException.class, () -> {
+            set.contains(1L);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            new MappedLongHashSet(file, null);
+        });
+    }
+
+}
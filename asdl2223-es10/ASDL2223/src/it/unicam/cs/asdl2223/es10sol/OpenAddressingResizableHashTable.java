@@ -0,0 +1,392 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Realizza un insieme tramite una tabella hash a indirizzamento aperto con
+ * ispezione lineare. La funzione di hash primario deve essere passata come
+ * parametro nel costruttore e deve implementare l'interface
+ * PrimaryHashFunction: essa determina la posizione "naturale" di un elemento,
+ * a partire dalla quale si cercano le posizioni successive (in modo circolare)
+ * fino a trovare l'elemento o una posizione libera.
+ *
+ * A differenza di CollisionListResizableHashTable non viene creato nessun nodo
+ * per gli elementi: la tabella è costituita da un array di Object che contiene
+ * direttamente gli elementi e da un array parallelo di int che contiene gli
+ * hashCode degli elementi, calcolati una sola volta all'inserimento. In questo
+ * modo l'inserimento non crea oggetti e la ricerca scorre posizioni contigue
+ * della memoria, confrontando prima gli hash e chiamando equals() solo se gli
+ * hash coincidono.
+ *
+ * La tabella, poiché implementa l'interfaccia Set<E> non accetta elementi
+ * duplicati (individuati tramite il metodo equals() che si assume sia
+ * opportunamente ridefinito nella classe E) e non accetta elementi null.
+ *
+ * La tabella ha una dimensione iniziale di default (16) e un fattore di
+ * caricamento di default (0.5). Quando il fattore di bilanciamento effettivo
+ * eccede quello di default la tabella viene raddoppiata e viene fatto un
+ * riposizionamento di tutti gli elementi. La cancellazione non usa marcatori
+ * di posizione cancellata: gli elementi successivi della stessa sequenza di
+ * ispezione vengono fatti arretrare nella posizione liberata.
+ *
+ *
+ *
+ */
+public class OpenAddressingResizableHashTable<E> implements Set<E> {
+
+    /*
+     * La capacità iniziale. E' una potenza di due e quindi la capacità sarà
+     * sempre una potenza di due, in quanto ogni resize raddoppia la tabella.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Fattore di bilanciamento di default. Con l'ispezione lineare il numero
+     * medio di ispezioni cresce rapidamente quando la tabella si riempie,
+     * quindi si usa un valore più basso di quello delle liste di collisione.
+     */
+    private static final double LOAD_FACTOR = 0.5;
+
+    /*
+     * Numero di elementi effettivamente presenti nella hash table in questo
+     * momento.
+     */
+    private int size;
+
+    /*
+     * Gli elementi della tabella. La posizione i contiene null, se libera,
+     * oppure un elemento di tipo E. Come nella tabella con liste di collisione
+     * si usa un array di Object per l'impossibilità di creare array generici.
+     */
+    private Object[] table;
+
+    /*
+     * Array parallelo a table: hashes[i] è l'hashCode dell'elemento in
+     * table[i], significativo solo se table[i] != null.
+     */
+    private int[] hashes;
+
+    /*
+     * Funzione di hash primaria usata da questa hash table.
+     */
+    private final PrimaryHashFunction phf;
+
+    /*
+     * Contatore del numero di modifiche. Serve per rendere l'iterator
+     * fail-fast.
+     */
+    private int modCount;
+
+    /* Numero di posizioni della tabella corrente */
+    private int getCurrentCapacity() {
+        return this.table.length;
+    };
+
+    /*
+     * Valore corrente soglia oltre la quale si deve fare la resize,
+     * getCurrentCapacity * LOAD_FACTOR
+     */
+    private int getCurrentThreshold() {
+        return (int) (getCurrentCapacity() * LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una Hash Table con capacità iniziale di default e fattore di
+     * caricamento di default.
+     *
+     * @param phf
+     *                la funzione di hash primaria da usare
+     * @throws NullPointerException
+     *                                  se la funzione di hash passata è null
+     */
+    public OpenAddressingResizableHashTable(PrimaryHashFunction phf) {
+        if (phf == null)
+            throw new NullPointerException("Funzione di hash primaria nulla");
+        this.phf = phf;
+        this.table = new Object[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.modCount = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException(
+                    "Ricerca di elemento null in un set che non accetta null");
+        return findPosition(o, o.hashCode()) != -1;
+    }
+
+    /*
+     * Cerca l'oggetto o, con hashCode h, a partire dalla sua posizione naturale
+     * e restituisce la posizione in cui si trova o -1 se non è presente. La
+     * ricerca si ferma alla prima posizione libera, che c'è sempre poiché il
+     * fattore di caricamento è minore di 1.
+     */
+    private int findPosition(Object o, int h) {
+        int m = this.table.length;
+        int i = this.phf.hash(h, m);
+        while (this.table[i] != null) {
+            // confronto prima gli hash, equals solo se coincidono
+            if (this.hashes[i] == h && o.equals(this.table[i]))
+                return i;
+            i = i + 1 == m ? 0 : i + 1;
+        }
+        return -1;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public Object[] toArray() {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (e == null)
+            throw new NullPointerException(
+                    "Inserimento di elemento null in un set che non accetta null");
+        int h = e.hashCode();
+        int m = this.table.length;
+        int i = this.phf.hash(h, m);
+        // scorro la sequenza di ispezione fino all'elemento o alla prima
+        // posizione libera
+        while (this.table[i] != null) {
+            if (this.hashes[i] == h && e.equals(this.table[i]))
+                // l'oggetto è già presente, quindi non lo inserisco
+                return false;
+            i = i + 1 == m ? 0 : i + 1;
+        }
+        // inserisco nella posizione libera trovata
+        this.table[i] = e;
+        this.hashes[i] = h;
+        // Aggiorno size e modCount
+        this.modCount++;
+        this.size++;
+        // Controllo resize
+        if (this.size > this.getCurrentThreshold())
+            resize();
+        return true;
+    }
+
+    /*
+     * Raddoppia la tabella corrente e riposiziona tutti gli elementi usando gli
+     * hash memorizzati, senza richiamare hashCode() né equals(): gli elementi
+     * sono tutti distinti, quindi basta cercare la prima posizione libera.
+     */
+    private void resize() {
+        Object[] oldTable = this.table;
+        int[] oldHashes = this.hashes;
+        int m = oldTable.length * 2;
+        this.table = new Object[m];
+        this.hashes = new int[m];
+        for (int j = 0; j < oldTable.length; j++) {
+            if (oldTable[j] == null)
+                continue;
+            int h = oldHashes[j];
+            int i = this.phf.hash(h, m);
+            while (this.table[i] != null)
+                i = i + 1 == m ? 0 : i + 1;
+            this.table[i] = oldTable[j];
+            this.hashes[i] = h;
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        // ATTENZIONE: anche in questa implementazione la rimozione non comporta
+        // mai una resize "al ribasso".
+        if (o == null)
+            throw new NullPointerException(
+                    "Cancellazione di elemento null in un set che non accetta null");
+        int i = findPosition(o, o.hashCode());
+        if (i == -1)
+            // l'oggetto non è presente
+            return false;
+        deleteAt(i);
+        this.modCount++;
+        this.size--;
+        return true;
+    }
+
+    /*
+     * Libera la posizione i e fa arretrare gli elementi successivi della
+     * stessa sequenza di ispezione, in modo che le ricerche non si fermino
+     * erroneamente sulla posizione liberata.
+     */
+    private void deleteAt(int i) {
+        int m = this.table.length;
+        int j = i;
+        while (true) {
+            j = j + 1 == m ? 0 : j + 1;
+            if (this.table[j] == null)
+                break;
+            // posizione naturale dell'elemento in j
+            int k = this.phf.hash(this.hashes[j], m);
+            // l'elemento in j può essere spostato in i solo se la posizione i
+            // si trova (circolarmente) tra la sua posizione naturale k e j
+            boolean canMove = (i <= j) ? (k <= i || k > j)
+                    : (k <= i && k > j);
+            if (canMove) {
+                this.table[i] = this.table[j];
+                this.hashes[i] = this.hashes[j];
+                i = j;
+            }
+        }
+        this.table[i] = null;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("ContainsAll di collection null");
+        Iterator<?> iter = c.iterator();
+        while (iter.hasNext()) {
+            Object item = iter.next();
+            if (item == null)
+                throw new NullPointerException(
+                        "ContainsAll di collection che contiene elementi null");
+            if (!this.contains(item))
+                return false;
+        }
+        // Tutti gli elementi sono risultati presenti e non nulli
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException("AddAll di collection null");
+        boolean changed = false;
+        Iterator<? extends E> iter = c.iterator();
+        while (iter.hasNext()) {
+            E item = iter.next();
+            if (item == null)
+                throw new NullPointerException(
+                        "AddAll di collection che contiene elementi null");
+            // E' necessario usare l'OR NON PIGRO per assicurarsi che venga
+            // chiamato il metodo add
+            changed = changed | this.add(item);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException("Operazione non supportata");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("RemoveAll di collection null");
+        boolean changed = false;
+        Iterator<?> iter = c.iterator();
+        while (iter.hasNext()) {
+            Object item = iter.next();
+            if (item == null)
+                throw new NullPointerException(
+                        "RemoveAll di collection che contiene elementi null");
+            // E' necessario usare l'OR NON PIGRO per assicurarsi che venga
+            // chiamato il metodo remove
+            changed = changed | this.remove(item);
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        // Ritorno alla situazione iniziale
+        this.table = new Object[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.modCount++;
+    }
+
+    /*
+     * Iteratore fail-fast che scorre le posizioni della tabella. La posizione
+     * del prossimo elemento viene calcolata una sola volta, alla creazione e
+     * dopo ogni next().
+     */
+    private class Itr implements Iterator<E> {
+
+        private int nextPos;
+
+        private final int numeroModificheAtteso;
+
+        private Itr() {
+            this.numeroModificheAtteso = modCount;
+            this.nextPos = advance(0);
+        }
+
+        /*
+         * Restituisce la prima posizione occupata a partire da from,
+         * table.length se non ce ne sono.
+         */
+        private int advance(int from) {
+            while (from < table.length && table[from] == null)
+                from++;
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextPos < table.length;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != numeroModificheAtteso)
+                throw new ConcurrentModificationException(
+                        "Next in iteratore su tabella modificata");
+            if (!hasNext())
+                throw new NoSuchElementException(
+                        "Richiesta di next con hasNext falso");
+            @SuppressWarnings("unchecked")
+            E toReturn = (E) table[this.nextPos];
+            this.nextPos = advance(this.nextPos + 1);
+            return toReturn;
+        }
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected Object[] getTable() {
+        return this.table;
+    }
+
+    /*
+     * Only for JUnit testing purposes.
+     */
+    protected PrimaryHashFunction getPhf() {
+        return this.phf;
+    }
+
+}
@@ -0,0 +1,197 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe di test JUnit per la classe OpenAddressingResizableHashTable
+ *
+ *
+ */
+class OpenAddressingResizableHashTableTest {
+
+    private PrimaryHashFunction divisionHash = new DivisionPrimaryHashFunction();
+
+    private PrimaryHashFunction multiplicationHash = new MultiplicationPrimaryHashFunction();
+
+    @Test
+    void divisionHash_testContains() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        table.add(42);
+        assertTrue(table.contains(42));
+        assertFalse(table.contains(10));
+    }
+
+    @Test
+    void multiplicationHash_testContains() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                multiplicationHash);
+        table.add(42);
+        assertTrue(table.contains(42));
+        assertFalse(table.contains(10));
+    }
+
+    @Test
+    void testNullPointer() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        assertThrows(NullPointerException.class, () -> {
+            table.contains(null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            table.add(null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            table.remove(null);
+        });
+        assertThrows(NullPointerException.class, () -> {
+            new OpenAddressingResizableHashTable<Integer>(null);
+        });
+    }
+
+    @Test
+    void divisionHash_testNotAdd() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        assertTrue(table.add(42));
+        assertFalse(table.add(42));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void divisionHash_testRemove() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        table.add(42);
+        assertTrue(table.remove(42));
+        assertFalse(table.remove(42));
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    void divisionHash_testRemoveKeepsProbeSequence() {
+        // 1, 17, 33 e 49 hanno tutti posizione naturale 1 in una tabella di
+        // 16 posizioni: rimuovendo il primo gli altri devono restare
+        // raggiungibili
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        Integer vals[] = { 1, 17, 33, 49, 2 };
+        table.addAll(Arrays.asList(vals));
+        assertTrue(table.remove(1));
+        assertTrue(table.containsAll(Arrays.asList(17, 33, 49, 2)));
+        assertTrue(table.remove(33));
+        assertTrue(table.containsAll(Arrays.asList(17, 49, 2)));
+        assertFalse(table.contains(1));
+        assertFalse(table.contains(33));
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    void divisionHash_testRemoveWrapAround() {
+        // 15, 31 e 47 hanno posizione naturale 15, l'ultima della tabella:
+        // 31 e 47 finiscono in testa all'array
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        table.addAll(Arrays.asList(15, 31, 47, 0));
+        assertTrue(table.remove(15));
+        assertTrue(table.containsAll(Arrays.asList(31, 47, 0)));
+        assertTrue(table.remove(31));
+        assertTrue(table.containsAll(Arrays.asList(47, 0)));
+    }
+
+    @Test
+    void divisionHash_testAddAllRemoveAll() {
+        Integer vals[] = { 12, 42, 5, 32, 777, 11 };
+        List<Integer> vals_list = Arrays.asList(vals);
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        assertTrue(table.addAll(vals_list));
+        assertFalse(table.addAll(vals_list));
+        assertTrue(table.containsAll(vals_list));
+        assertTrue(table.removeAll(Arrays.asList(12, 42, -51)));
+        assertFalse(table.containsAll(vals_list));
+        assertEquals(4, table.size());
+    }
+
+    @Test
+    void divisionHash_testShouldResize() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        Integer vals[] = { 1, 2, 3, 4, 5, 6, 7, 8 };
+        table.addAll(Arrays.asList(vals));
+        int tableLengthBeforeAdd = table.getTable().length;
+        table.add(9);
+        assertEquals(tableLengthBeforeAdd * 2, table.getTable().length);
+    }
+
+    @Test
+    void multiplicationHash_testShouldNotResize() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                multiplicationHash);
+        Integer vals[] = { 1, 2, 3, 4, 5, 6, 7 };
+        table.addAll(Arrays.asList(vals));
+        int tableLengthBeforeAdd = table.getTable().length;
+        table.add(8);
+        assertEquals(tableLengthBeforeAdd, table.getTable().length);
+    }
+
+    @Test
+    void multiplicationHash_testManyElements() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                multiplicationHash);
+        for (int i = -500; i < 500; i++)
+            assertTrue(table.add(i * 7));
+        for (int i = -500; i < 500; i += 2)
+            assertTrue(table.remove(i * 7));
+        assertEquals(500, table.size());
+        for (int i = -500; i < 500; i++)
+            assertEquals(i % 2 != 0, table.contains(i * 7));
+    }
+
+    @Test
+    void divisionHash_testIterator() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        Integer vals[] = { 1, 17, 33, 2, 100, -3 };
+        table.addAll(Arrays.asList(vals));
+        Set<Integer> seen = new HashSet<Integer>();
+        for (Integer i : table)
+            assertTrue(seen.add(i));
+        assertEquals(new HashSet<Integer>(Arrays.asList(vals)), seen);
+    }
+
+    @Test
+    void divisionHash_testIteratorShouldFailFast() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        Integer vals[] = { 1, 2, 3, 4, 5, 6, 7 };
+        table.addAll(Arrays.asList(vals));
+        Iterator<Integer> it = table.iterator();
+        it.next();
+        table.add(42);
+        assertThrows(ConcurrentModificationException.class, () -> {
+            it.next();
+        });
+    }
+
+    @Test
+    void divisionHash_testClear() {
+        OpenAddressingResizableHashTable<Integer> table = new OpenAddressingResizableHashTable<>(
+                divisionHash);
+        table.addAll(Arrays.asList(1, 2, 3));
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertFalse(table.contains(1));
+        assertFalse(table.iterator().hasNext());
+    }
+
+}
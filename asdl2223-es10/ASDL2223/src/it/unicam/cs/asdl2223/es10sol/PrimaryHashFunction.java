@@ -17,4 +17,18 @@ public interface PrimaryHashFunction {
      *         alla posizione della chiave passata nella tabella
      */
     public int hash(int key, int m);
+
+    /**
+     * Indica se questa funzione può essere usata solo con tabelle la cui
+     * dimensione è una potenza di due. Le tabelle hash che usano una funzione
+     * di questo tipo devono mantenere la propria dimensione una potenza di
+     * due.
+     * 
+     * @return true se la dimensione {@code m} passata a
+     *         {@code hash(int, int)} deve essere una potenza di due, false
+     *         altrimenti. Di default restituisce false.
+     */
+    default public boolean requiresPowerOfTwoCapacity() {
+        return false;
+    }
 }
@@ -0,0 +1,183 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Confronta la qualità della distribuzione e il tempo di calcolo delle
+ * funzioni di hash primarie disponibili. Per ogni funzione e per diverse
+ * sequenze di chiavi (consecutive, multiple di una potenza di due, multiple
+ * di 2^(16 + k), casuali, hashCode di stringhe) calcola la posizione di ogni
+ * chiave in una tabella la cui dimensione è una potenza di due, in modo che
+ * tutte le funzioni siano applicabili, e misura:
+ *
+ * - la lunghezza massima delle liste di collisione;
+ *
+ * - il numero di bucket vuoti;
+ *
+ * - la statistica chi-quadro delle lunghezze delle liste rispetto alla
+ * distribuzione uniforme, che dovrebbe essere vicina al numero di bucket per
+ * una buona funzione di hash;
+ *
+ * - il tempo medio in nanosecondi di una chiamata alla funzione.
+ *
+ * I dati sono scritti su un file .csv (Comma Separated Values) e riassunti
+ * sullo standard output.
+ *
+ * Il main può essere chiamato con il nome della directory di destinazione del
+ * file come parametro di linea di comando. Se non è presente nessun parametro
+ * allora si assume la directory corrente. Un secondo parametro opzionale
+ * indica il logaritmo in base due della dimensione della tabella (di default
+ * 16). La dimensione è letta a tempo di esecuzione in modo che il compilatore
+ * JIT non possa trattarla come una costante, cosa che favorirebbe il metodo
+ * della divisione trasformando il modulo in un'operazione sui bit.
+ *
+ */
+public class PrimaryHashFunctionEvaluationFramework {
+
+    /*
+     * Logaritmo in base due della dimensione di default della tabella.
+     */
+    private static final int DEFAULT_CAPACITY_EXPONENT = 16;
+
+    /*
+     * Numero di ripetizioni delle chiamate per la misura del tempo.
+     */
+    private static final int TIMING_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        String dirName = null;
+        if (args.length > 0)
+            dirName = args[0];
+        else
+            dirName = ".";
+        int exponent = DEFAULT_CAPACITY_EXPONENT;
+        if (args.length > 1)
+            exponent = Integer.parseInt(args[1]);
+        // Dimensione della tabella, potenza di due
+        final int capacity = 1 << exponent;
+        // Numero di chiavi da collocare, corrispondente al fattore di
+        // caricamento di default 0.75
+        final int numberOfKeys = capacity / 4 * 3;
+        // Creo il file di output
+        PrintStream o = null;
+        try {
+            o = new PrintStream(new File(dirName + "/" + "hasheval.csv"));
+        } catch (FileNotFoundException e) {
+            System.out.println("Errore creazione file di ouput" + dirName + "/"
+                    + "hasheval.csv");
+            System.exit(1);
+        }
+        // Creo la lista delle funzioni da valutare
+        List<PrimaryHashFunction> functions = new ArrayList<PrimaryHashFunction>();
+        functions.add(new DivisionPrimaryHashFunction());
+        functions.add(new MultiplicationPrimaryHashFunction());
+        functions.add(new FibonacciPrimaryHashFunction());
+        // Genero le sequenze di chiavi
+        List<String> keySetNames = new ArrayList<String>();
+        List<int[]> keySets = new ArrayList<int[]>();
+        Random randomGenerator = new Random(42);
+        int[] consecutive = new int[numberOfKeys];
+        int[] multiplesOf16 = new int[numberOfKeys];
+        int[] multiplesOfCapacity = new int[numberOfKeys];
+        // Multipli di 2^(16 + k): chiavi che differiscono solo nei bit dal
+        // 16 + k in su, che mettono in difficoltà le funzioni che usano i bit
+        // bassi della chiave o del suo prodotto per una costante
+        int[] multiplesOf2p20 = new int[numberOfKeys];
+        int[] multiplesOf2p24 = new int[numberOfKeys];
+        int[] random = new int[numberOfKeys];
+        int[] strings = new int[numberOfKeys];
+        for (int i = 0; i < numberOfKeys; i++) {
+            consecutive[i] = i;
+            multiplesOf16[i] = i * 16;
+            multiplesOfCapacity[i] = i * capacity;
+            multiplesOf2p20[i] = i << (16 + 4);
+            multiplesOf2p24[i] = i << (16 + 8);
+            random[i] = randomGenerator.nextInt();
+            strings[i] = ("chiave-" + i).hashCode();
+        }
+        keySetNames.add("consecutive");
+        keySets.add(consecutive);
+        keySetNames.add("multiplesOf16");
+        keySets.add(multiplesOf16);
+        keySetNames.add("multiplesOfCapacity");
+        keySets.add(multiplesOfCapacity);
+        keySetNames.add("multiplesOf2^20");
+        keySets.add(multiplesOf2p20);
+        keySetNames.add("multiplesOf2^24");
+        keySets.add(multiplesOf2p24);
+        keySetNames.add("random");
+        keySets.add(random);
+        keySetNames.add("strings");
+        keySets.add(strings);
+        // Riscaldamento: eseguo tutte le combinazioni una volta senza misurare
+        // il tempo, in modo che le misure non includano la compilazione JIT
+        long warmUp = 0;
+        for (PrimaryHashFunction f : functions)
+            for (int[] keys : keySets)
+                for (int r = 0; r < TIMING_ROUNDS; r++)
+                    warmUp += hashAll(f, keys, capacity);
+        System.out.println("Riscaldamento completato (" + warmUp + ")");
+        // Intestazione
+        o.println("Function,Keys,MaxChain,EmptyBuckets,ChiSquare,NsPerHash");
+        System.out.println("Tabella di " + capacity + " bucket, "
+                + numberOfKeys + " chiavi");
+        for (PrimaryHashFunction f : functions) {
+            String fName = f.getClass().getSimpleName();
+            for (int k = 0; k < keySets.size(); k++) {
+                int[] keys = keySets.get(k);
+                // Distribuzione delle chiavi nei bucket
+                int[] counts = new int[capacity];
+                for (int key : keys)
+                    counts[f.hash(key, capacity)]++;
+                int maxChain = 0;
+                int emptyBuckets = 0;
+                double expected = (double) numberOfKeys / capacity;
+                double chiSquare = 0;
+                for (int c : counts) {
+                    if (c > maxChain)
+                        maxChain = c;
+                    if (c == 0)
+                        emptyBuckets++;
+                    chiSquare += (c - expected) * (c - expected) / expected;
+                }
+                // Tempo di calcolo. La somma delle posizioni viene usata per
+                // evitare che il compilatore elimini le chiamate
+                long checksum = 0;
+                long startTimeNano = System.nanoTime();
+                for (int r = 0; r < TIMING_ROUNDS; r++)
+                    checksum += hashAll(f, keys, capacity);
+                long elapsedTimeNano = System.nanoTime() - startTimeNano;
+                double nsPerHash = (double) elapsedTimeNano
+                        / ((long) TIMING_ROUNDS * numberOfKeys);
+                o.println(fName + "," + keySetNames.get(k) + "," + maxChain
+                        + "," + emptyBuckets + ","
+                        + String.format(Locale.ROOT, "%.1f", chiSquare) + ","
+                        + String.format(Locale.ROOT, "%.2f", nsPerHash));
+                System.out.println(String.format(
+                        "%-36s %-20s maxChain=%6d empty=%6d chiSquare=%12.1f ns/hash=%6.2f (checksum %d)",
+                        fName, keySetNames.get(k), maxChain, emptyBuckets,
+                        chiSquare, nsPerHash, checksum));
+            }
+        }
+        o.close();
+    } // end main
+
+    /*
+     * Calcola la posizione di tutte le chiavi in una tabella di dimensione m e
+     * ne restituisce la somma. E' un
+     * metodo separato in modo che venga compilato indipendentemente dal main.
+     */
+    private static long hashAll(PrimaryHashFunction f, int[] keys, int m) {
+        long sum = 0;
+        for (int key : keys)
+            sum += f.hash(key, m);
+        return sum;
+    }
+
+}
@@ -0,0 +1,225 @@
+package it.unicam.cs.asdl2223.es10sol;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Confronta IntHashSet con le tabelle generiche CollisionListResizableHashTable
+ * e OpenAddressingResizableHashTable usate con elementi Integer, e LongHashSet
+ * con CollisionListResizableHashTable usata con elementi Long. Per numeri di
+ * chiavi crescenti misura il tempo medio in nanosecondi per inserimento, per
+ * ricerca con successo e per ricerca senza successo, e la memoria occupata
+ * dall'insieme riempito, stimata come differenza della memoria usata dalla
+ * JVM prima e dopo la costruzione.
+ *
+ * Ogni misura viene ripetuta più volte e si riporta la migliore, in modo da
+ * ridurre l'effetto della compilazione JIT e della garbage collection. I dati
+ * sono scritti su un file .csv (Comma Separated Values) e riassunti sullo
+ * standard output.
+ *
+ * Il main può essere chiamato con il nome della directory di destinazione del
+ * file come parametro di linea di comando. Se non è presente nessun parametro
+ * allora si assume la directory corrente.
+ *
+ */
+public class PrimitiveHashSetEvaluationFramework {
+
+    /*
+     * Numero minimo di chiavi.
+     */
+    private static final int MIN_KEYS = 1 << 12;
+
+    /*
+     * Numero massimo di chiavi.
+     */
+    private static final int MAX_KEYS = 1 << 21;
+
+    /*
+     * Numero di ripetizioni di ogni misura.
+     */
+    private static final int ROUNDS = 5;
+
+    /*
+     * I nomi degli insiemi confrontati, nell'ordine usato nei metodi
+     * seguenti. I primi tre contengono chiavi int, gli altri chiavi long.
+     */
+    private static final String[] NAMES = { "IntHashSet",
+            "CollisionListResizableHashTable<Integer>",
+            "OpenAddressingResizableHashTable<Integer>", "LongHashSet",
+            "CollisionListResizableHashTable<Long>" };
+
+    /*
+     * Indice in NAMES del primo insieme con chiavi long.
+     */
+    private static final int FIRST_LONG_SET = 3;
+
+    public static void main(String[] args) {
+        String dirName = null;
+        if (args.length > 0)
+            dirName = args[0];
+        else
+            dirName = ".";
+        // Creo il file di output
+        PrintStream o = null;
+        try {
+            o = new PrintStream(new File(dirName + "/" + "primitivesets.csv"));
+        } catch (FileNotFoundException e) {
+            System.out.println("Errore creazione file di ouput" + dirName + "/"
+                    + "primitivesets.csv");
+            System.exit(1);
+        }
+        o.println("Set,Keys,NsPerAdd,NsPerHit,NsPerMiss,BytesPerKey");
+        PrimaryHashFunction phf = new FibonacciPrimaryHashFunction();
+        Random randomGenerator = new Random(42);
+        for (int n = MIN_KEYS; n <= MAX_KEYS; n *= 2) {
+            // Le chiavi presenti sono pari, quelle assenti dispari
+            int[] keys = new int[n];
+            int[] missingKeys = new int[n];
+            long[] longKeys = new long[n];
+            long[] missingLongKeys = new long[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = randomGenerator.nextInt() & ~1;
+                missingKeys[i] = randomGenerator.nextInt() | 1;
+                longKeys[i] = randomGenerator.nextLong() & ~1L;
+                missingLongKeys[i] = randomGenerator.nextLong() | 1L;
+            }
+            for (int s = 0; s < NAMES.length; s++) {
+                long bestAdd = Long.MAX_VALUE;
+                long bestHit = Long.MAX_VALUE;
+                long bestMiss = Long.MAX_VALUE;
+                long bestMemory = Long.MAX_VALUE;
+                long checksum = 0;
+                for (int r = 0; r < ROUNDS; r++) {
+                    long memoryBefore = usedMemory();
+                    long start = System.nanoTime();
+                    Object set = s < FIRST_LONG_SET ? fill(s, phf, keys)
+                            : fill(s, phf, longKeys);
+                    long elapsedAdd = System.nanoTime() - start;
+                    start = System.nanoTime();
+                    checksum += s < FIRST_LONG_SET ? countPresent(set, keys)
+                            : countPresent(set, longKeys);
+                    long elapsedHit = System.nanoTime() - start;
+                    start = System.nanoTime();
+                    checksum += s < FIRST_LONG_SET
+                            ? countPresent(set, missingKeys)
+                            : countPresent(set, missingLongKeys);
+                    long elapsedMiss = System.nanoTime() - start;
+                    long memory = usedMemory() - memoryBefore;
+                    // mantengo l'insieme raggiungibile fino alla misura della
+                    // memoria
+                    checksum += set.hashCode() & 1;
+                    bestAdd = Math.min(bestAdd, elapsedAdd);
+                    bestHit = Math.min(bestHit, elapsedHit);
+                    bestMiss = Math.min(bestMiss, elapsedMiss);
+                    if (memory > 0)
+                        bestMemory = Math.min(bestMemory, memory);
+                }
+                double nsPerAdd = (double) bestAdd / n;
+                double nsPerHit = (double) bestHit / n;
+                double nsPerMiss = (double) bestMiss / n;
+                double bytesPerKey = (double) bestMemory / n;
+                o.println(NAMES[s] + "," + n + ","
+                        + String.format(Locale.ROOT, "%.2f,%.2f,%.2f,%.1f",
+                                nsPerAdd, nsPerHit, nsPerMiss, bytesPerKey));
+                System.out.println(String.format(
+                        "%-41s n=%8d add=%7.2fns hit=%7.2fns miss=%7.2fns %6.1f byte/chiave (checksum %d)",
+                        NAMES[s], n, nsPerAdd, nsPerHit, nsPerMiss,
+                        bytesPerKey, checksum));
+            }
+        }
+        o.close();
+    } // end main
+
+    /*
+     * Crea l'insieme numero s di NAMES, con chiavi int, e vi inserisce tutte
+     * le chiavi.
+     */
+    private static Object fill(int s, PrimaryHashFunction phf, int[] keys) {
+        if (s == 0) {
+            IntHashSet set = new IntHashSet(phf);
+            for (int key : keys)
+                set.add(key);
+            return set;
+        }
+        Set<Integer> set;
+        if (s == 1)
+            set = new CollisionListResizableHashTable<Integer>(phf);
+        else
+            set = new OpenAddressingResizableHashTable<Integer>(phf);
+        for (int key : keys)
+            set.add(key);
+        return set;
+    }
+
+    /*
+     * Crea l'insieme numero s di NAMES, con chiavi long, e vi inserisce tutte
+     * le chiavi.
+     */
+    private static Object fill(int s, PrimaryHashFunction phf, long[] keys) {
+        if (s == FIRST_LONG_SET) {
+            LongHashSet set = new LongHashSet(phf);
+            for (long key : keys)
+                set.add(key);
+            return set;
+        }
+        Set<Long> set = new CollisionListResizableHashTable<Long>(phf);
+        for (long key : keys)
+            set.add(key);
+        return set;
+    }
+
+    /*
+     * Conta quante delle chiavi date sono presenti nell'insieme.
+     */
+    @SuppressWarnings("unchecked")
+    private static int countPresent(Object set, int[] keys) {
+        int count = 0;
+        if (set instanceof IntHashSet) {
+            IntHashSet intSet = (IntHashSet) set;
+            for (int key : keys)
+                if (intSet.contains(key))
+                    count++;
+        } else {
+            Set<Integer> genericSet = (Set<Integer>) set;
+            for (int key : keys)
+                if (genericSet.contains(key))
+                    count++;
+        }
+        return count;
+    }
+
+    /*
+     * Conta quante delle chiavi long date sono presenti nell'insieme.
+     */
+    @SuppressWarnings("unchecked")
+    private static int countPresent(Object set, long[] keys) {
+        int count = 0;
+        if (set instanceof LongHashSet) {
+            LongHashSet longSet = (LongHashSet) set;
+            for (long key : keys)
+                if (longSet.contains(key))
+                    count++;
+        } else {
+            Set<Long> genericSet = (Set<Long>) set;
+            for (long key : keys)
+                if (genericSet.contains(key))
+                    count++;
+        }
+        return count;
+    }
+
+    /*
+     * Memoria attualmente usata dalla JVM, dopo aver richiesto una garbage
+     * collection.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
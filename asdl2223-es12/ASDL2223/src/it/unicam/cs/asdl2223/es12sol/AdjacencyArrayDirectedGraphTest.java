@@ -0,0 +1,193 @@
+package it.unicam.cs.asdl2223.es12sol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class AdjacencyArrayDirectedGraphTest {
+
+    /*
+     * Crea il grafo usato nei test con MapAdjacentListDirectedGraph.
+     */
+    private Graph<String> createSourceGraph() {
+        Graph<String> g = new MapAdjacentListDirectedGraph<String>();
+        GraphNode<String> ns = new GraphNode<String>("s");
+        GraphNode<String> nu = new GraphNode<String>("u");
+        GraphNode<String> nx = new GraphNode<String>("x");
+        GraphNode<String> ny = new GraphNode<String>("y");
+        GraphNode<String> nw = new GraphNode<String>("w");
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nw);
+        g.addEdge(new GraphEdge<String>(ns, nu, true));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, 2.05));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 3.04));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, 2.0));
+        g.addEdge(new GraphEdge<String>(ny, ns, true, 7.03));
+        g.addEdge(new GraphEdge<String>(nu, nw, true, 7.07));
+        return g;
+    }
+
+    @Test
+    final void testAdjacencyArrayDirectedGraph() {
+        assertThrows(NullPointerException.class,
+                () -> new AdjacencyArrayDirectedGraph<String>(null));
+        Graph<String> source = createSourceGraph();
+        Graph<String> g = new AdjacencyArrayDirectedGraph<String>(source);
+        assertTrue(g.isDirected());
+        assertEquals(5, g.nodeCount());
+        assertEquals(7, g.edgeCount());
+        assertEquals(source.getNodes(), g.getNodes());
+        assertEquals(source.getEdges(), g.getEdges());
+        Graph<String> empty = new AdjacencyArrayDirectedGraph<String>(
+                new MapAdjacentListDirectedGraph<String>());
+        assertTrue(empty.isEmpty());
+    }
+
+    @Test
+    final void testUnsupportedOperations() {
+        Graph<String> g = new AdjacencyArrayDirectedGraph<String>(
+                createSourceGraph());
+        GraphNode<String> nz = new GraphNode<String>("z");
+        assertThrows(UnsupportedOperationException.class,
+                () -> g.addNode(nz));
+        assertThrows(UnsupportedOperationException.class,
+                () -> g.addEdge(new GraphEdge<String>(nz, nz, true)));
+        assertThrows(UnsupportedOperationException.class, () -> g.clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> g.getNodes().add(nz));
+        assertThrows(NullPointerException.class, () -> g.addNode(null));
+    }
+
+    @Test
+    final void testGetNodeOfAndIndices() {
+        Graph<String> source = createSourceGraph();
+        Graph<String> g = new AdjacencyArrayDirectedGraph<String>(source);
+        assertThrows(NullPointerException.class, () -> g.getNodeOf(null));
+        assertNull(g.getNodeOf("z"));
+        // i nodi sono gli stessi del grafo di partenza
+        assertSame(source.getNodeOf("x"), g.getNodeOf("x"));
+        Set<Integer> indices = new HashSet<Integer>();
+        for (GraphNode<String> n : g.getNodes()) {
+            int i = g.getNodeIndexOf(n.getLabel());
+            assertTrue(i >= 0 && i < g.nodeCount());
+            assertTrue(indices.add(i));
+            assertSame(n, g.getNodeAtIndex(i));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> g.getNodeIndexOf("z"));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getNodeAtIndex(5));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getNodeAtIndex(-1));
+    }
+
+    @Test
+    final void testAdjacencyAndIngoing() {
+        Graph<String> source = createSourceGraph();
+        Graph<String> g = new AdjacencyArrayDirectedGraph<String>(source);
+        for (GraphNode<String> n : source.getNodes()) {
+            assertEquals(source.getAdjacentNodesOf(n),
+                    g.getAdjacentNodesOf(n));
+            assertEquals(source.getPredecessorNodesOf(n),
+                    g.getPredecessorNodesOf(n));
+            assertEquals(source.getEdgesOf(n), g.getEdgesOf(n));
+            assertEquals(source.getIngoingEdgesOf(n), g.getIngoingEdgesOf(n));
+            assertEquals(source.getDegreeOf(n), g.getDegreeOf(n));
+        }
+        GraphNode<String> nz = new GraphNode<String>("z");
+        assertThrows(IllegalArgumentException.class,
+                () -> g.getAdjacentNodesOf(nz));
+        assertThrows(IllegalArgumentException.class,
+                () -> g.getIngoingEdgesOf(nz));
+        assertThrows(NullPointerException.class,
+                () -> g.getEdgesOf(null));
+        // i pesi sono conservati, anche quelli non specificati
+        for (GraphEdge<String> e : g.getEdgesOf(g.getNodeOf("s")))
+            if (e.getNode2().getLabel().equals("u"))
+                assertFalse(e.hasWeight());
+            else
+                assertTrue(e.getWeight() == 5.12);
+    }
+
+    @Test
+    final void testContainsEdge() {
+        Graph<String> g = new AdjacencyArrayDirectedGraph<String>(
+                createSourceGraph());
+        GraphNode<String> ns = new GraphNode<String>("s");
+        GraphNode<String> nu = new GraphNode<String>("u");
+        GraphNode<String> nz = new GraphNode<String>("z");
+        assertTrue(g.containsEdge(new GraphEdge<String>(ns, nu, true)));
+        assertFalse(g.containsEdge(new GraphEdge<String>(nu, ns, true)));
+        assertFalse(g.containsEdge(new GraphEdge<String>(ns, nu, false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> g.containsEdge(new GraphEdge<String>(ns, nz, true)));
+        assertThrows(NullPointerException.class, () -> g.containsEdge(null));
+    }
+
+    @Test
+    final void testSuccessorsByIndex() {
+        Graph<String> source = createSourceGraph();
+        AdjacencyArrayDirectedGraph<String> g = new AdjacencyArrayDirectedGraph<String>(
+                source);
+        int x = g.getNodeIndexOf("x");
+        assertEquals(2, g.getOutDegree(x));
+        Set<String> successors = new HashSet<String>();
+        double totalWeight = 0;
+        for (int k = 0; k < g.getOutDegree(x); k++) {
+            successors.add(g.getNodeAtIndex(g.getSuccessorIndex(x, k))
+                    .getLabel());
+            totalWeight += g.getSuccessorWeight(x, k);
+        }
+        assertEquals(Set.of("u", "y"), successors);
+        assertEquals(5.04, totalWeight, 1e-9);
+        Set<String> visited = new HashSet<String>();
+        g.forEachSuccessor(g.getNodeOf("x"),
+                (i, w) -> visited.add(g.getNodeAtIndex(i).getLabel()));
+        assertEquals(successors, visited);
+        double[] visitedWeight = new double[1];
+        g.forEachSuccessor(x, (i, w) -> visitedWeight[0] += w);
+        assertEquals(totalWeight, visitedWeight[0], 1e-9);
+        assertThrows(NullPointerException.class,
+                () -> g.forEachSuccessor(x, null));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.forEachSuccessor(5, (i, w) -> {
+                }));
+        assertEquals(0, g.getOutDegree(g.getNodeIndexOf("w")));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getSuccessorIndex(x, 2));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getOutDegree(5));
+    }
+
+    @Test
+    final void testPredecessorsByIndex() {
+        Graph<String> source = createSourceGraph();
+        AdjacencyArrayDirectedGraph<String> g = new AdjacencyArrayDirectedGraph<String>(
+                source);
+        for (GraphNode<String> node : g.getNodes()) {
+            int i = g.getNodeIndexOf(node.getLabel());
+            Set<GraphNode<String>> predecessors = new HashSet<GraphNode<String>>();
+            for (int k = 0; k < g.getInDegree(i); k++)
+                predecessors.add(g.getNodeAtIndex(g.getPredecessorIndex(i, k)));
+            assertEquals(g.getInDegree(i), predecessors.size());
+            assertEquals(source.getPredecessorNodesOf(node), predecessors);
+        }
+        int u = g.getNodeIndexOf("u");
+        assertEquals(2, g.getInDegree(u));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getPredecessorIndex(u, 2));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getPredecessorIndex(u, -1));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getInDegree(-1));
+    }
+
+}
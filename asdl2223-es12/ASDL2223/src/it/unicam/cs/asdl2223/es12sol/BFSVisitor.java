@@ -1,11 +1,14 @@
 package it.unicam.cs.asdl2223.es12sol;
 
-import java.util.LinkedList;
-
 /**
  * Classe singoletto che fornisce lo schema generico di visita Breadth-First di
  * un grafo rappresentato da un oggetto di tipo Graph<L>.
  * 
+ * Le informazioni della visita sono mantenute in un oggetto SearchContext<L>
+ * creato per ogni visita. Il metodo search non modifica i nodi del grafo, per
+ * cui più visite possono essere eseguite contemporaneamente sullo stesso
+ * grafo; il metodo BFSVisit scrive invece le informazioni anche nei nodi.
+ * 
  * @author Luca Tesei
  *
  * @param <L>
@@ -35,6 +38,47 @@ public class BFSVisitor<L> {
      *                                      al grafo dato
      */
     public void BFSVisit(Graph<L> g, GraphNode<L> source) {
+        checkArguments(g, source);
+        // Inizializziamo il grafo
+        for (GraphNode<L> n : g.getNodes()) {
+            n.setColor(GraphNode.COLOR_WHITE);
+            n.setIntegerDistance(-1);
+            n.setPrevious(null);
+        }
+        // Il contesto scrive anche nei nodi
+        visit(new SearchContext<L>(g, true), source);
+    }
+
+    /**
+     * Esegue la visita in ampiezza di un certo grafo a partire da un nodo
+     * sorgente senza modificare i nodi. Le informazioni della visita
+     * (colore, distanza intera e predecessore di ogni nodo) sono restituite in
+     * un contesto creato per la visita; i nodi non raggiunti hanno distanza -1
+     * e nessun predecessore. Il grafo non deve essere modificato durante la
+     * visita.
+     * 
+     * @param g
+     *                   il grafo da visitare.
+     * @param source
+     *                   il nodo sorgente.
+     * @return il contesto con le informazioni della visita
+     * @throws NullPointerException
+     *                                      se almeno un valore passato è null
+     * @throws IllegalArgumentException
+     *                                      se il nodo sorgente non appartiene
+     *                                      al grafo dato
+     */
+    public SearchContext<L> search(Graph<L> g, GraphNode<L> source) {
+        checkArguments(g, source);
+        SearchContext<L> context = new SearchContext<L>(g);
+        visit(context, source);
+        return context;
+    }
+
+    /*
+     * Controlla gli argomenti di una visita.
+     */
+    private void checkArguments(Graph<L> g, GraphNode<L> source) {
         if (g == null)
             throw new NullPointerException("BFS ERROR: Grafo nullo");
         if (source == null)
@@ -42,38 +86,54 @@ public class BFSVisitor<L> {
         if (!g.getNodes().contains(source))
             throw new IllegalArgumentException(
                     "BFS ERROR: La sorgente non è un nodo del grafo");
+    }
 
-        // Inizializziamo il grafo
-        for (GraphNode<L> n : g.getNodes()) {
-            n.setColor(GraphNode.COLOR_WHITE);
-            n.setIntegerDistance(-1);
-            n.setPrevious(null);
-        }
+    /**
+     * Esegue la visita usando gli indici dei nodi e registrando le
+     * informazioni nel contesto, in cui all'inizio tutti i nodi sono bianchi.
+     * Viene chiamato sia da BFSVisit che da search e può essere ridefinito in
+     * una sottoclasse per cambiare il modo in cui la visita viene eseguita.
+     * 
+     * @param context
+     *                    il contesto della visita
+     * @param source
+     *                    il nodo sorgente, che appartiene al grafo del
+     *                    contesto
+     */
+    protected void visit(SearchContext<L> context, GraphNode<L> source) {
+        Graph<L> g = context.getGraph();
+        int s = context.indexOf(source);
         // Scopro la sorgente
-        source.setColor(GraphNode.COLOR_GREY);
-        source.setIntegerDistance(0);
-        source.setPrevious(null);
-        // Come coda utilizzo una LinkedList: uso addLast per inserire in coda e
-        // removeFirst per estrarre il primo elemento
-        LinkedList<GraphNode<L>> queue = new LinkedList<GraphNode<L>>();
+        context.setColor(s, GraphNode.COLOR_GREY);
+        context.setIntegerDistance(s, 0);
+        context.setPreviousIndex(s, -1);
+        // Ogni nodo entra in coda al più una volta: come coda basta un array
+        // con gli indici di inizio e di fine
+        int[] queue = new int[g.nodeCount()];
+        int head = 0;
+        int tail = 0;
         // Inserisco in coda la sorgente
-        queue.addLast(source);
+        queue[tail++] = s;
         // Ciclo Principale
-        while (!queue.isEmpty()) {
-            GraphNode<L> nodoCorrente = queue.removeFirst();
-            for (GraphNode<L> n : g.getAdjacentNodesOf(nodoCorrente)) {
+        while (head < tail) {
+            int u = queue[head++];
+            // Scorro i successori tramite gli indici, senza creare oggetti
+            int degree = g.getOutDegree(u);
+            for (int k = 0; k < degree; k++) {
+                int v = g.getSuccessorIndex(u, k);
                 // Scopro tutti i nodi bianchi adiacenti al nodo corrente
-                if (n.getColor() == GraphNode.COLOR_WHITE) {
+                if (context.getColor(v) == GraphNode.COLOR_WHITE) {
                     // Faccio tutte le operazioni relative alla scoperta
-                    n.setColor(GraphNode.COLOR_GREY);
-                    n.setIntegerDistance(nodoCorrente.getIntegerDistance() + 1);
-                    n.setPrevious(nodoCorrente);
-                    queue.addLast(n);
+                    context.setColor(v, GraphNode.COLOR_GREY);
+                    context.setIntegerDistance(v,
+                            context.getIntegerDistance(u) + 1);
+                    context.setPreviousIndex(v, u);
+                    queue[tail++] = v;
                 }
             }
             // Il nodo corrente diventa nero
-            nodoCorrente.setColor(GraphNode.COLOR_BLACK);
-            this.visitNode(nodoCorrente);
+            context.setColor(u, GraphNode.COLOR_BLACK);
+            this.visitNode(context.nodeAt(u), context);
         }
         // la visita è finita
     }
@@ -93,4 +153,19 @@ public class BFSVisitor<L> {
          */
     }
 
+    /**
+     * Questo metodo viene chiamato su tutti i nodi visitati durante la BFS
+     * quando i nodi passano da grigio a nero e riceve anche il contesto della
+     * visita, da cui leggere le informazioni quando si usa il metodo search.
+     * Di default chiama visitNode(n).
+     * 
+     * @param n
+     *                    il nodo visitato
+     * @param context
+     *                    il contesto della visita
+     */
+    public void visitNode(GraphNode<L> n, SearchContext<L> context) {
+        this.visitNode(n);
+    }
+
 }
@@ -0,0 +1,84 @@
+package it.unicam.cs.asdl2223.es12sol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BFSVisitorTest {
+
+    /*
+     * Crea un grafo con un nodo non raggiungibile da "s".
+     */
+    private Graph<String> createGraph() {
+        Graph<String> g = new MapAdjacentListDirectedGraph<String>();
+        GraphNode<String> ns = new GraphNode<String>("s");
+        GraphNode<String> nu = new GraphNode<String>("u");
+        GraphNode<String> nx = new GraphNode<String>("x");
+        GraphNode<String> ny = new GraphNode<String>("y");
+        GraphNode<String> nw = new GraphNode<String>("w");
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nw);
+        g.addEdge(new GraphEdge<String>(ns, nu, true));
+        g.addEdge(new GraphEdge<String>(ns, nx, true));
+        g.addEdge(new GraphEdge<String>(nu, ny, true));
+        g.addEdge(new GraphEdge<String>(nx, ny, true));
+        g.addEdge(new GraphEdge<String>(ny, ns, true));
+        g.addEdge(new GraphEdge<String>(nw, ns, true));
+        return g;
+    }
+
+    @Test
+    final void testBFSVisit() {
+        Graph<String> g = createGraph();
+        BFSVisitor<String> visitor = new BFSVisitor<String>();
+        assertThrows(NullPointerException.class,
+                () -> visitor.BFSVisit(null, g.getNodeOf("s")));
+        assertThrows(NullPointerException.class,
+                () -> visitor.BFSVisit(g, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> visitor.BFSVisit(g, new GraphNode<String>("z")));
+        visitor.BFSVisit(g, g.getNodeOf("s"));
+        assertEquals(0, g.getNodeOf("s").getIntegerDistance());
+        assertEquals(1, g.getNodeOf("u").getIntegerDistance());
+        assertEquals(1, g.getNodeOf("x").getIntegerDistance());
+        assertEquals(2, g.getNodeOf("y").getIntegerDistance());
+        assertEquals(-1, g.getNodeOf("w").getIntegerDistance());
+        assertNull(g.getNodeOf("s").getPrevious());
+        assertSame(g.getNodeOf("s"), g.getNodeOf("u").getPrevious());
+        assertNull(g.getNodeOf("w").getPrevious());
+        assertEquals(GraphNode.COLOR_BLACK, g.getNodeOf("y").getColor());
+        assertEquals(GraphNode.COLOR_WHITE, g.getNodeOf("w").getColor());
+    }
+
+    @Test
+    final void testSearch() {
+        Graph<String> g = createGraph();
+        List<String> visited = new ArrayList<String>();
+        BFSVisitor<String> visitor = new BFSVisitor<String>() {
+            @Override
+            public void visitNode(GraphNode<String> n) {
+                visited.add(n.getLabel());
+            }
+        };
+        SearchContext<String> c = visitor.search(g, g.getNodeOf("w"));
+        assertEquals(List.of("w", "s"), visited.subList(0, 2));
+        assertEquals(5, visited.size());
+        assertEquals("y", visited.get(4));
+        assertEquals(0, c.getIntegerDistance(g.getNodeOf("w")));
+        assertEquals(3, c.getIntegerDistance(g.getNodeOf("y")));
+        assertSame(g.getNodeOf("w"), c.getPrevious(g.getNodeOf("s")));
+        // i nodi non vengono modificati
+        for (GraphNode<String> n : g.getNodes()) {
+            assertEquals(GraphNode.COLOR_WHITE, n.getColor());
+            assertEquals(0, n.getIntegerDistance());
+        }
+    }
+
+}
@@ -1,9 +1,19 @@
 package it.unicam.cs.asdl2223.es12sol;
 
+
 /**
  * Classe singoletto che fornisce lo schema generico di visita Depth-First di un
  * grafo rappresentato da un oggetto di tipo Graph<L>.
  * 
+ * Le informazioni della visita sono mantenute in un oggetto SearchContext<L>
+ * creato per ogni visita. Il metodo search non modifica i nodi del grafo, per
+ * cui più visite possono essere eseguite contemporaneamente sullo stesso
+ * grafo; il metodo DFSVisit scrive invece le informazioni anche nei nodi.
+ * 
+ * La visita è iterativa: al posto della ricorsione usa una pila esplicita e
+ * scorre i successori di ogni nodo tramite gli indici, senza creare oggetti,
+ * per cui può essere eseguita anche su grafi con cammini molto lunghi.
+ * 
  * @author Luca Tesei
  * 
  * @param <L>
@@ -11,8 +21,8 @@ package it.unicam.cs.asdl2223.es12sol;
  */
 public class DFSVisitor<L> {
 
-    // Variabile "globale" per far andare avanti il tempo durante la DFS e
-    // assegnare i relativi tempi di scoperta e di uscita dei nodi
+    // Variabile "globale" con il tempo alla fine dell'ultima DFSVisit; durante
+    // la visita il tempo avanza nel contesto
     // E' protected per permettere il test JUnit
     protected int time;
 
@@ -39,45 +49,105 @@ public class DFSVisitor<L> {
             n.setEnteringTime(-1);
             n.setExitingTime(-1);
         }
-        // inizializziamo il tempo globale
-        this.time = 0;
+        // Il contesto scrive anche nei nodi
+        SearchContext<L> context = new SearchContext<L>(g, true);
+        visit(context);
+        this.time = context.getTime();
+    }
+
+    /**
+     * Esegue la visita in profondità di un certo grafo senza modificare i
+     * nodi. Le informazioni della visita (colore, tempo di scoperta, tempo di
+     * fine visita e predecessore di ogni nodo) sono restituite in un contesto
+     * creato per la visita. Il grafo non deve essere modificato durante la
+     * visita.
+     * 
+     * @param g
+     *              il grafo da visitare.
+     * @return il contesto con le informazioni della visita
+     * @throws NullPointerException
+     *                                  se il grafo passato è null
+     */
+    public SearchContext<L> search(Graph<L> g) {
+        if (g == null)
+            throw new NullPointerException("DFS ERROR: Grafo nullo");
+        SearchContext<L> context = new SearchContext<L>(g);
+        visit(context);
+        return context;
+    }
+
+    /*
+     * Esegue il ciclo esterno della DFS registrando le informazioni nel
+     * contesto, in cui all'inizio tutti i nodi sono bianchi. La visita in
+     * profondità da ogni radice usa una pila esplicita invece della
+     * ricorsione, per cui la profondità dell'albero di copertura non è
+     * limitata dalla dimensione dello stack del thread.
+     */
+    private void visit(SearchContext<L> context) {
+        Graph<L> g = context.getGraph();
+        int n = g.nodeCount();
+        // La pila contiene i nodi grigi, dalla radice al nodo corrente; per
+        // ognuno si tiene la posizione del prossimo successore da
+        // considerare. Ogni nodo entra nella pila al più una volta, per cui
+        // bastano due array di dimensione n
+        int[] stack = new int[n];
+        int[] position = new int[n];
         // ciclo esterno
-        for (GraphNode<L> n : g.getNodes()) {
-            if (n.getColor() == GraphNode.COLOR_WHITE)
-                // chiamo la DFS ricorsiva su n
-                recDFS(g, n);
+        for (GraphNode<L> root : g.getNodes()) {
+            int r = context.indexOf(root);
+            if (context.getColor(r) != GraphNode.COLOR_WHITE)
+                continue;
+            // la radice di un albero della foresta non ha predecessore
+            context.setPreviousIndex(r, -1);
+            int top = 0;
+            stack[top] = r;
+            position[top] = 0;
+            discover(context, r);
+            while (top >= 0) {
+                int u = stack[top];
+                // cerco il prossimo nodo bianco adiacente a u
+                int degree = g.getOutDegree(u);
+                int next = -1;
+                while (next == -1 && position[top] < degree) {
+                    int v = g.getSuccessorIndex(u, position[top]++);
+                    if (context.getColor(v) == GraphNode.COLOR_WHITE)
+                        next = v;
+                }
+                if (next != -1) {
+                    // assegno il puntatore per l'albero di copertura e vado in
+                    // profondità
+                    context.setPreviousIndex(next, u);
+                    top++;
+                    stack[top] = next;
+                    position[top] = 0;
+                    discover(context, next);
+                } else {
+                    // tutti i nodi adiacenti a u sono diventati neri
+                    top--;
+                    finish(context, u);
+                }
+            }
         }
         // Fine della visita DFS "esterna"
     }
 
     /*
-     * Esegue la DFS ricorsivamente sul nodo passato.
-     * 
-     * @param g il grafo
-     * 
-     * @param u il nodo su cui parte la DFS
+     * Scopre il nodo u.
      */
-    protected void recDFS(Graph<L> g, GraphNode<L> u) {
-        // Scopro il nodo u
-        u.setColor(GraphNode.COLOR_GREY);
-        // Incremento il tempo globale
-        this.time++;
-        // Assegno ad n il tempo di scoperta
-        u.setEnteringTime(this.time);
-        for (GraphNode<L> v : g.getAdjacentNodesOf(u)) {
-            if (v.getColor() == GraphNode.COLOR_WHITE) {
-                // assegno il puntatore per l'albero di copertura
-                v.setPrevious(u);
-                // vado in profondità
-                recDFS(g, v);
-            }
-        }
-        // tutti i nodi adiacenti a u sono diventati neri
-        // u diventa nero e assegno a u il tempo di uscita
-        u.setColor(GraphNode.COLOR_BLACK);
-        this.time++;
-        u.setExitingTime(this.time);
-        visitNode(u);
+    private void discover(SearchContext<L> context, int u) {
+        context.setColor(u, GraphNode.COLOR_GREY);
+        // Incremento il tempo globale e assegno ad u il tempo di scoperta
+        context.setEnteringTime(u, context.nextTime());
+    }
+
+    /*
+     * Termina la visita del nodo u: u diventa nero e gli viene assegnato il
+     * tempo di uscita.
+     */
+    private void finish(SearchContext<L> context, int u) {
+        context.setColor(u, GraphNode.COLOR_BLACK);
+        context.setExitingTime(u, context.nextTime());
+        visitNode(context.nodeAt(u), context);
     }
 
     /**
@@ -96,4 +166,19 @@ public class DFSVisitor<L> {
          */
     }
 
+    /**
+     * Questo metodo viene chiamato su tutti i nodi visitati durante la DFS nel
+     * momento in cui il colore passa da grigio a nero e riceve anche il
+     * contesto della visita, da cui leggere le informazioni quando si usa il
+     * metodo search. Di default chiama visitNode(n).
+     * 
+     * @param n
+     *                    il nodo visitato
+     * @param context
+     *                    il contesto della visita
+     */
+    public void visitNode(GraphNode<L> n, SearchContext<L> context) {
+        this.visitNode(n);
+    }
+
 }
@@ -0,0 +1,155 @@
+package it.unicam.cs.asdl2223.es12sol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DFSVisitorTest {
+
+    /*
+     * Crea un grafo con due componenti.
+     */
+    private Graph<String> createGraph() {
+        Graph<String> g = new MapAdjacentListDirectedGraph<String>();
+        GraphNode<String> ns = new GraphNode<String>("s");
+        GraphNode<String> nu = new GraphNode<String>("u");
+        GraphNode<String> nx = new GraphNode<String>("x");
+        GraphNode<String> ny = new GraphNode<String>("y");
+        GraphNode<String> nw = new GraphNode<String>("w");
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nw);
+        g.addEdge(new GraphEdge<String>(ns, nu, true));
+        g.addEdge(new GraphEdge<String>(nu, nx, true));
+        g.addEdge(new GraphEdge<String>(nx, ns, true));
+        g.addEdge(new GraphEdge<String>(ny, nw, true));
+        return g;
+    }
+
+    /*
+     * Controlla che i tempi siano quelli di una visita in profondità: ogni
+     * nodo è visitato, gli intervalli di due nodi sono disgiunti o annidati e
+     * l'intervallo di un nodo è contenuto in quello del suo predecessore.
+     */
+    private void checkTimes(Graph<String> g, int[] entering, int[] exiting,
+            GraphNode<String>[] previous) {
+        int n = g.nodeCount();
+        for (int i = 0; i < n; i++) {
+            assertTrue(1 <= entering[i] && entering[i] < exiting[i]
+                    && exiting[i] <= 2 * n);
+            if (previous[i] != null) {
+                int p = g.getNodeIndexOf(previous[i].getLabel());
+                assertTrue(entering[p] < entering[i]
+                        && exiting[i] < exiting[p]);
+            }
+            for (int j = 0; j < n; j++)
+                if (i != j)
+                    assertTrue(exiting[i] < entering[j]
+                            || exiting[j] < entering[i]
+                            || (entering[i] < entering[j]
+                                    && exiting[j] < exiting[i])
+                            || (entering[j] < entering[i]
+                                    && exiting[i] < exiting[j]));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    final void testDFSVisit() {
+        Graph<String> g = createGraph();
+        DFSVisitor<String> visitor = new DFSVisitor<String>();
+        assertThrows(NullPointerException.class, () -> visitor.DFSVisit(null));
+        visitor.DFSVisit(g);
+        assertEquals(10, visitor.time);
+        int n = g.nodeCount();
+        int[] entering = new int[n];
+        int[] exiting = new int[n];
+        GraphNode<String>[] previous = (GraphNode<String>[]) new GraphNode<?>[
+                n];
+        for (GraphNode<String> node : g.getNodes()) {
+            int i = g.getNodeIndexOf(node.getLabel());
+            entering[i] = node.getEnteringTime();
+            exiting[i] = node.getExitingTime();
+            previous[i] = node.getPrevious();
+            assertEquals(GraphNode.COLOR_BLACK, node.getColor());
+        }
+        checkTimes(g, entering, exiting, previous);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    final void testSearch() {
+        Graph<String> g = createGraph();
+        List<String> finished = new ArrayList<String>();
+        DFSVisitor<String> visitor = new DFSVisitor<String>() {
+            @Override
+            public void visitNode(GraphNode<String> n) {
+                finished.add(n.getLabel());
+            }
+        };
+        SearchContext<String> c = visitor.search(g);
+        assertEquals(5, finished.size());
+        assertEquals(10, c.getTime());
+        int n = g.nodeCount();
+        int[] entering = new int[n];
+        int[] exiting = new int[n];
+        GraphNode<String>[] previous = (GraphNode<String>[]) new GraphNode<?>[
+                n];
+        for (int i = 0; i < n; i++) {
+            entering[i] = c.getEnteringTime(i);
+            exiting[i] = c.getExitingTime(i);
+            previous[i] = c.getPrevious(g.getNodeAtIndex(i));
+        }
+        checkTimes(g, entering, exiting, previous);
+        // i nodi terminano in ordine di tempo di uscita
+        for (int k = 1; k < finished.size(); k++)
+            assertTrue(c.getExitingTime(g.getNodeOf(finished.get(k - 1))) < c
+                    .getExitingTime(g.getNodeOf(finished.get(k))));
+        // i nodi non vengono modificati
+        for (GraphNode<String> node : g.getNodes())
+            assertEquals(0, node.getEnteringTime());
+    }
+
+    @Test
+    final void testLongChain() {
+        // con la ricorsione un cammino così lungo esaurirebbe lo stack
+        int n = 200000;
+        Graph<Integer> g = new MapAdjacentListDirectedGraph<Integer>();
+        GraphNode<Integer> previous = null;
+        for (int i = 0; i < n; i++) {
+            GraphNode<Integer> node = new GraphNode<Integer>(i);
+            g.addNode(node);
+            if (previous != null)
+                g.addEdge(new GraphEdge<Integer>(previous, node, true));
+            previous = node;
+        }
+        List<Integer> finished = new ArrayList<Integer>();
+        DFSVisitor<Integer> visitor = new DFSVisitor<Integer>() {
+            @Override
+            public void visitNode(GraphNode<Integer> node) {
+                finished.add(node.getLabel());
+            }
+        };
+        SearchContext<Integer> c = visitor.search(g);
+        assertEquals(2 * n, c.getTime());
+        // la radice del primo albero ha tempo di scoperta 1 e da lì la
+        // visita scende fino in fondo alla catena
+        int root = 0;
+        while (c.getEnteringTime(g.getNodeOf(root)) != 1)
+            root++;
+        for (int i = root; i < n; i++) {
+            GraphNode<Integer> node = g.getNodeOf(i);
+            assertEquals(1 + i - root, c.getEnteringTime(node));
+            assertEquals(2 * (n - root) - (i - root), c.getExitingTime(node));
+        }
+        // l'ordine di fine visita è quello della ricorsione: dal fondo in su
+        assertEquals(n - 1, (int) finished.get(0));
+    }
+
+}
@@ -355,4 +355,193 @@ public abstract class Graph<L> {
                     + this.getIngoingEdgesOf(node).size();
     }
 
+    /**
+     * Restituisce il numero di successori del nodo di indice dato, cioè il
+     * numero di archi uscenti dal nodo se il grafo è orientato o il numero di
+     * archi connessi al nodo se il grafo non è orientato. Insieme a
+     * getSuccessorIndex e getSuccessorWeight permette di scorrere i successori
+     * di un nodo, nell'ordine delle posizioni da 0 a
+     * {@code getOutDegree(i) - 1}, senza creare nessun oggetto.
+     * 
+     * Questa operazione è opzionale.
+     * 
+     * @param i
+     *              l'indice del nodo
+     * @return il numero di successori del nodo di indice i
+     * @throws IndexOutOfBoundsException
+     *                                           se l'indice è fuori dai limiti
+     *                                           dell'intervallo
+     *                                           <code>[0, this.nodeCount() - 1]</code>
+     * @throws UnsupportedOperationException
+     *                                           se questa operazione non è
+     *                                           supportata dall'implementazione
+     *                                           di questo grafo
+     */
+    public abstract int getOutDegree(int i);
+
+    /**
+     * Restituisce l'indice del k-esimo successore del nodo di indice i.
+     * 
+     * Questa operazione è opzionale.
+     * 
+     * @param i
+     *              l'indice del nodo
+     * @param k
+     *              la posizione del successore, nell'intervallo
+     *              <code>[0, this.getOutDegree(i) - 1]</code>
+     * @return l'indice del k-esimo successore
+     * @throws IndexOutOfBoundsException
+     *                                           se uno dei due indici è fuori
+     *                                           dai limiti
+     * @throws UnsupportedOperationException
+     *                                           se questa operazione non è
+     *                                           supportata dall'implementazione
+     *                                           di questo grafo
+     */
+    public abstract int getSuccessorIndex(int i, int k);
+
+    /**
+     * Restituisce il peso dell'arco che collega il nodo di indice i al suo
+     * k-esimo successore.
+     * 
+     * Questa operazione è opzionale.
+     * 
+     * @param i
+     *              l'indice del nodo
+     * @param k
+     *              la posizione del successore, nell'intervallo
+     *              <code>[0, this.getOutDegree(i) - 1]</code>
+     * @return il peso dell'arco, {@code Double.NaN} se l'arco non è pesato
+     * @throws IndexOutOfBoundsException
+     *                                           se uno dei due indici è fuori
+     *                                           dai limiti
+     * @throws UnsupportedOperationException
+     *                                           se questa operazione non è
+     *                                           supportata dall'implementazione
+     *                                           di questo grafo
+     */
+    public abstract double getSuccessorWeight(int i, int k);
+
+    /**
+     * Restituisce il numero di predecessori del nodo di indice dato, cioè il
+     * numero di archi entranti nel nodo se il grafo è orientato o il numero di
+     * archi connessi al nodo se il grafo non è orientato. Insieme a
+     * getPredecessorIndex permette di scorrere i predecessori di un nodo,
+     * nell'ordine delle posizioni da 0 a {@code getInDegree(i) - 1}, senza
+     * creare nessun oggetto.
+     * 
+     * Questa operazione è opzionale.
+     * 
+     * @param i
+     *              l'indice del nodo
+     * @return il numero di predecessori del nodo di indice i
+     * @throws IndexOutOfBoundsException
+     *                                           se l'indice è fuori dai limiti
+     *                                           dell'intervallo
+     *                                           <code>[0, this.nodeCount() - 1]</code>
+     * @throws UnsupportedOperationException
+     *                                           se questa operazione non è
+     *                                           supportata dall'implementazione
+     *                                           di questo grafo
+     */
+    public abstract int getInDegree(int i);
+
+    /**
+     * Restituisce l'indice del k-esimo predecessore del nodo di indice i.
+     * 
+     * Questa operazione è opzionale.
+     * 
+     * @param i
+     *              l'indice del nodo
+     * @param k
+     *              la posizione del predecessore, nell'intervallo
+     *              <code>[0, this.getInDegree(i) - 1]</code>
+     * @return l'indice del k-esimo predecessore
+     * @throws IndexOutOfBoundsException
+     *                                           se uno dei due indici è fuori
+     *                                           dai limiti
+     * @throws UnsupportedOperationException
+     *                                           se questa operazione non è
+     *                                           supportata dall'implementazione
+     *                                           di questo grafo
+     */
+    public abstract int getPredecessorIndex(int i, int k);
+
+    /**
+     * Esegue un'azione su tutti i successori del nodo di indice i, passandole
+     * l'indice del successore e il peso dell'arco. Il metodo non crea nessun
+     * oggetto: se l'azione viene creata una volta sola, ad esempio fuori dal
+     * ciclo principale di un algoritmo, i successori vengono scorsi senza
+     * allocare memoria.
+     * 
+     * @param i
+     *                   l'indice del nodo
+     * @param action
+     *                   l'azione da eseguire su ogni successore
+     * @throws NullPointerException
+     *                                           se l'azione è null
+     * @throws IndexOutOfBoundsException
+     *                                           se l'indice è fuori dai limiti
+     *                                           dell'intervallo
+     *                                           <code>[0, this.nodeCount() - 1]</code>
+     * @throws UnsupportedOperationException
+     *                                           se le operazioni indicizzate
+     *                                           non sono supportate
+     *                                           dall'implementazione di questo
+     *                                           grafo
+     */
+    public void forEachSuccessor(int i, SuccessorConsumer action) {
+        if (action == null)
+            throw new NullPointerException(
+                    "Tentativo di scorrere i successori con un'azione null");
+        int degree = this.getOutDegree(i);
+        for (int k = 0; k < degree; k++)
+            action.accept(this.getSuccessorIndex(i, k),
+                    this.getSuccessorWeight(i, k));
+    }
+
+    /**
+     * Esegue un'azione su tutti i successori di un nodo, passandole l'indice
+     * del successore e il peso dell'arco.
+     * 
+     * @param node
+     *                   il nodo
+     * @param action
+     *                   l'azione da eseguire su ogni successore
+     * @throws NullPointerException
+     *                                           se il nodo o l'azione sono null
+     * @throws IllegalArgumentException
+     *                                           se il nodo passato non esiste
+     * @throws UnsupportedOperationException
+     *                                           se le operazioni indicizzate
+     *                                           non sono supportate
+     *                                           dall'implementazione di questo
+     *                                           grafo
+     */
+    public void forEachSuccessor(GraphNode<L> node, SuccessorConsumer action) {
+        if (node == null)
+            throw new NullPointerException(
+                    "Tentativo di scorrere i successori di un nodo null");
+        this.forEachSuccessor(this.getNodeIndexOf(node.getLabel()), action);
+    }
+
+    /**
+     * Azione eseguita da forEachSuccessor su ogni successore di un nodo.
+     */
+    @FunctionalInterface
+    public interface SuccessorConsumer {
+
+        /**
+         * Esegue l'azione su un successore.
+         * 
+         * @param successor
+         *                      l'indice del successore
+         * @param weight
+         *                      il peso dell'arco, {@code Double.NaN} se l'arco
+         *                      non è pesato
+         */
+        void accept(int successor, double weight);
+
+    }
+
 }
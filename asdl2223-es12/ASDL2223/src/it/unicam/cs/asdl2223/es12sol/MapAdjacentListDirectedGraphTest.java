@@ -3,7 +3,10 @@ package it.unicam.cs.asdl2223.es12sol;
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
@@ -128,6 +131,45 @@ class MapAdjacentListDirectedGraphTest {
         assertEquals(0, node.getColor());
     }
 
+    @Test
+    final void testGetNodeIndexOf() {
+        Graph<String> g = new MapAdjacentListDirectedGraph<String>();
+        assertThrows(NullPointerException.class,
+                () -> g.getNodeIndexOf(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> g.getNodeIndexOf("s"));
+        g.addNode(new GraphNode<String>("s"));
+        g.addNode(new GraphNode<String>("u"));
+        g.addNode(new GraphNode<String>("s"));
+        assertEquals(0, g.getNodeIndexOf("s"));
+        assertEquals(1, g.getNodeIndexOf("u"));
+        g.clear();
+        assertThrows(IllegalArgumentException.class,
+                () -> g.getNodeIndexOf("s"));
+        assertNull(g.getNodeOf("s"));
+        g.addNode(new GraphNode<String>("u"));
+        assertEquals(0, g.getNodeIndexOf("u"));
+    }
+
+    @Test
+    final void testGetNodeAtIndex() {
+        Graph<String> g = new MapAdjacentListDirectedGraph<String>();
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getNodeAtIndex(0));
+        GraphNode<String> ns = new GraphNode<String>("s");
+        g.addNode(ns);
+        GraphNode<String> nu = new GraphNode<String>("u");
+        g.addNode(nu);
+        assertSame(ns, g.getNodeAtIndex(0));
+        assertSame(nu, g.getNodeAtIndex(1));
+        for (GraphNode<String> n : g.getNodes())
+            assertSame(n, g.getNodeAtIndex(g.getNodeIndexOf(n.getLabel())));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getNodeAtIndex(2));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getNodeAtIndex(-1));
+    }
+
     @Test
     final void testGetAdjacentNodesOf() {
         Graph<String> g = new MapAdjacentListDirectedGraph<String>();
@@ -374,6 +416,44 @@ class MapAdjacentListDirectedGraphTest {
         assertTrue(g.getIngoingEdgesOf(nz).equals(edgesTest));
     }
 
+    @Test
+    final void testIngoingEdgesConsistency() {
+        Graph<Integer> g = new MapAdjacentListDirectedGraph<Integer>();
+        List<GraphNode<Integer>> nodes = new ArrayList<GraphNode<Integer>>();
+        for (int i = 0; i < 50; i++) {
+            nodes.add(new GraphNode<Integer>(i));
+            g.addNode(nodes.get(i));
+        }
+        Random random = new Random(9);
+        for (int k = 0; k < 400; k++)
+            // anche archi ripetuti e cappi
+            g.addEdge(new GraphEdge<Integer>(nodes.get(random.nextInt(50)),
+                    new GraphNode<Integer>(random.nextInt(50)), true, k));
+        for (GraphNode<Integer> n : nodes) {
+            Set<GraphEdge<Integer>> expected = new HashSet<GraphEdge<Integer>>();
+            Set<GraphNode<Integer>> expectedPredecessors = new HashSet<GraphNode<Integer>>();
+            for (GraphEdge<Integer> e : g.getEdges())
+                if (e.getNode2().equals(n)) {
+                    expected.add(e);
+                    expectedPredecessors.add(e.getNode1());
+                }
+            assertEquals(expected, g.getIngoingEdgesOf(n));
+            assertEquals(expectedPredecessors, g.getPredecessorNodesOf(n));
+        }
+        // l'insieme degli archi entranti non può essere modificato
+        assertThrows(UnsupportedOperationException.class,
+                () -> g.getIngoingEdgesOf(nodes.get(0)).clear());
+        // e nemmeno quello degli archi uscenti
+        assertThrows(UnsupportedOperationException.class,
+                () -> g.getEdgesOf(nodes.get(0)).clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> g.getEdgesOf(nodes.get(0)).add(new GraphEdge<Integer>(
+                        nodes.get(0), nodes.get(1), true)));
+        g.clear();
+        g.addNode(nodes.get(0));
+        assertTrue(g.getIngoingEdgesOf(nodes.get(0)).isEmpty());
+    }
+
     @Test
     final void testMapAdjacentListDirectedGraph() {
         Graph<String> g = new MapAdjacentListDirectedGraph<String>();
@@ -461,4 +541,92 @@ class MapAdjacentListDirectedGraphTest {
         assertTrue(g.getDegreeOf(nw)==1);
     }
 
+    @Test
+    final void testSuccessorsByIndex() {
+        Graph<String> g = new MapAdjacentListDirectedGraph<String>();
+        GraphNode<String> ns = new GraphNode<String>("s");
+        GraphNode<String> nu = new GraphNode<String>("u");
+        GraphNode<String> nx = new GraphNode<String>("x");
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        int s = g.getNodeIndexOf("s");
+        assertEquals(0, g.getOutDegree(s));
+        GraphEdge<String> esu = new GraphEdge<String>(ns, nu, true);
+        g.addEdge(esu);
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        // un arco già presente non cambia i successori
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 3.04));
+        assertEquals(2, g.getOutDegree(s));
+        assertEquals(g.getNodeIndexOf("u"), g.getSuccessorIndex(s, 0));
+        assertEquals(g.getNodeIndexOf("x"), g.getSuccessorIndex(s, 1));
+        assertTrue(Double.isNaN(g.getSuccessorWeight(s, 0)));
+        assertTrue(g.getSuccessorWeight(s, 1) == 5.12);
+        // il peso viene letto dall'arco
+        esu.setWeight(2.5);
+        assertTrue(g.getSuccessorWeight(s, 0) == 2.5);
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getSuccessorIndex(s, 2));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getSuccessorWeight(s, -1));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getOutDegree(3));
+        // forEachSuccessor visita gli stessi successori
+        Set<GraphNode<String>> successors = new HashSet<GraphNode<String>>();
+        double[] totalWeight = new double[1];
+        g.forEachSuccessor(ns, (i, w) -> {
+            successors.add(g.getNodeAtIndex(i));
+            totalWeight[0] += w;
+        });
+        assertEquals(g.getAdjacentNodesOf(ns), successors);
+        assertEquals(7.62, totalWeight[0], 1e-9);
+        assertThrows(NullPointerException.class,
+                () -> g.forEachSuccessor(ns, null));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.forEachSuccessor(3, (i, w) -> {
+                }));
+        assertThrows(NullPointerException.class,
+                () -> g.forEachSuccessor(null, (i, w) -> {
+                }));
+        assertThrows(IllegalArgumentException.class,
+                () -> g.forEachSuccessor(new GraphNode<String>("z"),
+                        (i, w) -> {
+                        }));
+        g.clear();
+        GraphNode<String> nw = new GraphNode<String>("w");
+        g.addNode(nw);
+        assertEquals(0, g.getOutDegree(0));
+    }
+
+    @Test
+    final void testPredecessorsByIndex() {
+        Graph<String> g = new MapAdjacentListDirectedGraph<String>();
+        GraphNode<String> ns = new GraphNode<String>("s");
+        GraphNode<String> nu = new GraphNode<String>("u");
+        GraphNode<String> nx = new GraphNode<String>("x");
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        int u = g.getNodeIndexOf("u");
+        assertEquals(0, g.getInDegree(u));
+        g.addEdge(new GraphEdge<String>(ns, nu, true));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 3.04));
+        // un arco già presente non cambia i predecessori
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 1.0));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        assertEquals(2, g.getInDegree(u));
+        assertEquals(g.getNodeIndexOf("s"), g.getPredecessorIndex(u, 0));
+        assertEquals(g.getNodeIndexOf("x"), g.getPredecessorIndex(u, 1));
+        assertEquals(0, g.getInDegree(g.getNodeIndexOf("s")));
+        assertEquals(1, g.getInDegree(g.getNodeIndexOf("x")));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getPredecessorIndex(u, 2));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> g.getInDegree(3));
+        g.clear();
+        g.addNode(nu);
+        assertEquals(0, g.getInDegree(0));
+    }
+
 }
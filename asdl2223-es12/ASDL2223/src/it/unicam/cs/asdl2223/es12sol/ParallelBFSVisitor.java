@@ -0,0 +1,319 @@
+package it.unicam.cs.asdl2223.es12sol;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Visita Breadth-First parallela di un grafo rappresentato da un oggetto di
+ * tipo Graph<L>. La visita procede per livelli: i nodi a distanza d dalla
+ * sorgente formano la frontiera, che viene suddivisa in parti elaborate in
+ * parallelo da task di un ForkJoinPool per scoprire i nodi a distanza d + 1.
+ * I nodi già scoperti sono marcati in un insieme di bit condiviso e un nodo
+ * viene scoperto dal solo task che riesce a marcarlo per primo; per questo,
+ * se più nodi della frontiera sono predecessori di uno stesso nodo, quale di
+ * essi diventa il suo predecessore nell'albero di copertura dipende
+ * dall'esecuzione.
+ *
+ * Se la visita è "direction-optimizing", quando la frontiera diventa grande
+ * (più di 1/BOTTOM_UP_DIVISOR dei nodi) il livello successivo viene calcolato
+ * dal basso verso l'alto: ogni nodo non ancora scoperto cerca tra i suoi
+ * predecessori un nodo della frontiera, evitando di esaminare tutti gli archi
+ * uscenti da una frontiera molto grande.
+ *
+ * Le informazioni assegnate sono le stesse della visita sequenziale:
+ * distanza intera, predecessore e colore, con i nodi non raggiunti bianchi,
+ * a distanza -1 e senza predecessore. Il metodo visitNode viene chiamato nel
+ * thread che esegue la visita, livello per livello, quando tutti i nodi del
+ * livello successivo sono stati scoperti. Il grafo non deve essere modificato
+ * durante la visita.
+ *
+ * @param <L>
+ *                le etichette dei nodi del grafo
+ */
+public class ParallelBFSVisitor<L> extends BFSVisitor<L> {
+
+    /*
+     * Numero massimo di nodi elaborati da un task senza suddividerlo.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    /*
+     * La visita dal basso verso l'alto viene usata quando la frontiera
+     * contiene più di 1/BOTTOM_UP_DIVISOR dei nodi del grafo.
+     */
+    private static final int BOTTOM_UP_DIVISOR = 20;
+
+    private final ForkJoinPool pool;
+
+    private final boolean directionOptimizing;
+
+    /**
+     * Crea un visitatore che usa il pool comune e la visita
+     * "direction-optimizing".
+     */
+    public ParallelBFSVisitor() {
+        this(ForkJoinPool.commonPool(), true);
+    }
+
+    /**
+     * Crea un visitatore che usa un pool di thread dato.
+     *
+     * @param pool
+     *                                il pool di thread su cui eseguire i task
+     *                                della visita
+     * @param directionOptimizing
+     *                                se true, i livelli con una frontiera
+     *                                grande sono calcolati dal basso verso
+     *                                l'alto
+     * @throws NullPointerException
+     *                                  se il pool è null
+     */
+    public ParallelBFSVisitor(ForkJoinPool pool, boolean directionOptimizing) {
+        if (pool == null)
+            throw new NullPointerException("BFS ERROR: Pool di thread nullo");
+        this.pool = pool;
+        this.directionOptimizing = directionOptimizing;
+    }
+
+    @Override
+    protected void visit(SearchContext<L> context, GraphNode<L> source) {
+        Graph<L> g = context.getGraph();
+        int n = g.nodeCount();
+        int s = context.indexOf(source);
+        // Scopro la sorgente; le prime assegnazioni creano gli array del
+        // contesto, in cui poi i task scrivono in posizioni diverse
+        context.setColor(s, GraphNode.COLOR_GREY);
+        context.setIntegerDistance(s, 0);
+        context.setPreviousIndex(s, -1);
+        AtomicLongArray discovered = new AtomicLongArray((n + 63) >>> 6);
+        mark(discovered, s);
+        int[] frontier = new int[] { s };
+        int level = 0;
+        // Ciclo Principale: un livello per iterazione
+        while (frontier.length > 0) {
+            level++;
+            int[] next;
+            if (this.directionOptimizing
+                    && (long) frontier.length * BOTTOM_UP_DIVISOR > n)
+                next = this.pool.invoke(new BottomUpTask(context, discovered,
+                        toBits(frontier, n), 0, n, level));
+            else
+                next = this.pool.invoke(new TopDownTask(context, discovered,
+                        frontier, 0, frontier.length, level));
+            // I nodi della frontiera diventano neri
+            for (int u : frontier) {
+                context.setColor(u, GraphNode.COLOR_BLACK);
+                this.visitNode(context.nodeAt(u), context);
+            }
+            frontier = next;
+        }
+        // la visita è finita
+    }
+
+    /*
+     * Calcola una parte del livello successivo a partire da un intervallo
+     * della frontiera, scoprendo i nodi adiacenti non ancora scoperti.
+     */
+    private class TopDownTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SearchContext<L> context;
+
+        private final AtomicLongArray discovered;
+
+        private final int[] frontier;
+
+        private final int from;
+
+        private final int to;
+
+        private final int level;
+
+        TopDownTask(SearchContext<L> context, AtomicLongArray discovered,
+                int[] frontier, int from, int to, int level) {
+            this.context = context;
+            this.discovered = discovered;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (this.to - this.from > SEQUENTIAL_THRESHOLD) {
+                int middle = (this.from + this.to) >>> 1;
+                TopDownTask left = new TopDownTask(this.context,
+                        this.discovered, this.frontier, this.from, middle,
+                        this.level);
+                TopDownTask right = new TopDownTask(this.context,
+                        this.discovered, this.frontier, middle, this.to,
+                        this.level);
+                left.fork();
+                int[] r = right.compute();
+                return concat(left.join(), r);
+            }
+            Graph<L> g = this.context.getGraph();
+            int[] found = new int[16];
+            int size = 0;
+            for (int k = this.from; k < this.to; k++) {
+                int u = this.frontier[k];
+                int degree = g.getOutDegree(u);
+                for (int j = 0; j < degree; j++) {
+                    int v = g.getSuccessorIndex(u, j);
+                    if (mark(this.discovered, v)) {
+                        discover(this.context, v, u, this.level);
+                        if (size == found.length)
+                            found = Arrays.copyOf(found, 2 * size);
+                        found[size++] = v;
+                    }
+                }
+            }
+            return Arrays.copyOf(found, size);
+        }
+
+    }
+
+    /*
+     * Calcola una parte del livello successivo cercando, per ogni nodo non
+     * ancora scoperto di un intervallo di indici, un predecessore nella
+     * frontiera.
+     */
+    private class BottomUpTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SearchContext<L> context;
+
+        private final AtomicLongArray discovered;
+
+        private final long[] frontier;
+
+        private final int from;
+
+        private final int to;
+
+        private final int level;
+
+        BottomUpTask(SearchContext<L> context, AtomicLongArray discovered,
+                long[] frontier, int from, int to, int level) {
+            this.context = context;
+            this.discovered = discovered;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (this.to - this.from > SEQUENTIAL_THRESHOLD) {
+                int middle = (this.from + this.to) >>> 1;
+                BottomUpTask left = new BottomUpTask(this.context,
+                        this.discovered, this.frontier, this.from, middle,
+                        this.level);
+                BottomUpTask right = new BottomUpTask(this.context,
+                        this.discovered, this.frontier, middle, this.to,
+                        this.level);
+                left.fork();
+                int[] r = right.compute();
+                return concat(left.join(), r);
+            }
+            Graph<L> g = this.context.getGraph();
+            int[] found = new int[16];
+            int size = 0;
+            for (int v = this.from; v < this.to; v++) {
+                if (isMarked(this.discovered, v))
+                    continue;
+                int u = findInFrontier(g, v);
+                if (u != -1) {
+                    // solo questo task esamina v, ma la parola dell'insieme
+                    // di bit è condivisa
+                    mark(this.discovered, v);
+                    discover(this.context, v, u, this.level);
+                    if (size == found.length)
+                        found = Arrays.copyOf(found, 2 * size);
+                    found[size++] = v;
+                }
+            }
+            return Arrays.copyOf(found, size);
+        }
+
+        /*
+         * Restituisce l'indice di un predecessore del nodo v che appartiene
+         * alla frontiera, -1 se non ce ne sono. I predecessori si scorrono
+         * tramite gli indici, senza creare oggetti; in un grafo non orientato
+         * sono i nodi adiacenti.
+         */
+        private int findInFrontier(Graph<L> g, int v) {
+            int degree = g.getInDegree(v);
+            for (int j = 0; j < degree; j++) {
+                int u = g.getPredecessorIndex(v, j);
+                if ((this.frontier[u >>> 6] & (1L << u)) != 0)
+                    return u;
+            }
+            return -1;
+        }
+
+    }
+
+    /*
+     * Fa tutte le operazioni relative alla scoperta del nodo v dal nodo u.
+     */
+    private static <L> void discover(SearchContext<L> context, int v, int u,
+            int level) {
+        context.setColor(v, GraphNode.COLOR_GREY);
+        context.setIntegerDistance(v, level);
+        context.setPreviousIndex(v, u);
+    }
+
+    /*
+     * Marca il nodo i nell'insieme di bit. Restituisce false se il nodo era
+     * già marcato.
+     */
+    private static boolean mark(AtomicLongArray bits, int i) {
+        int word = i >>> 6;
+        long bit = 1L << i;
+        long old;
+        do {
+            old = bits.get(word);
+            if ((old & bit) != 0)
+                return false;
+        } while (!bits.compareAndSet(word, old, old | bit));
+        return true;
+    }
+
+    /*
+     * Determina se il nodo i è marcato nell'insieme di bit.
+     */
+    private static boolean isMarked(AtomicLongArray bits, int i) {
+        return (bits.get(i >>> 6) & (1L << i)) != 0;
+    }
+
+    /*
+     * Restituisce l'insieme di bit dei nodi della frontiera.
+     */
+    private static long[] toBits(int[] frontier, int n) {
+        long[] bits = new long[(n + 63) >>> 6];
+        for (int u : frontier)
+            bits[u >>> 6] |= 1L << u;
+        return bits;
+    }
+
+    /*
+     * Concatena due array di indici.
+     */
+    private static int[] concat(int[] a, int[] b) {
+        if (a.length == 0)
+            return b;
+        if (b.length == 0)
+            return a;
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+}
@@ -0,0 +1,123 @@
+package it.unicam.cs.asdl2223.es12sol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelBFSVisitorTest {
+
+    /*
+     * Crea un grafo casuale con n nodi e m archi in cui una parte dei nodi non
+     * è raggiungibile dal nodo 0.
+     */
+    private Graph<Integer> createRandomGraph(int n, int m, long seed) {
+        Random random = new Random(seed);
+        Graph<Integer> g = new MapAdjacentListDirectedGraph<Integer>();
+        List<GraphNode<Integer>> nodes = new ArrayList<GraphNode<Integer>>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<Integer>(i));
+            g.addNode(nodes.get(i));
+        }
+        // i nodi dell'ultimo decimo hanno solo archi uscenti
+        int reachable = n - n / 10;
+        for (int k = 0; k < m; k++)
+            g.addEdge(new GraphEdge<Integer>(nodes.get(random.nextInt(n)),
+                    nodes.get(random.nextInt(reachable)), true));
+        return g;
+    }
+
+    /*
+     * Controlla che un contesto contenga una visita in ampiezza corretta
+     * confrontando le distanze con quelle della visita sequenziale e
+     * controllando che ogni predecessore sia un nodo del livello precedente
+     * collegato da un arco.
+     */
+    private void checkSearch(Graph<Integer> g, SearchContext<Integer> expected,
+            SearchContext<Integer> actual) {
+        for (int i = 0; i < g.nodeCount(); i++) {
+            assertEquals(expected.getIntegerDistance(i),
+                    actual.getIntegerDistance(i));
+            assertEquals(expected.getColor(i), actual.getColor(i));
+            int p = actual.getPreviousIndex(i);
+            if (actual.getIntegerDistance(i) <= 0)
+                assertEquals(-1, p);
+            else {
+                assertEquals(actual.getIntegerDistance(i) - 1,
+                        actual.getIntegerDistance(p));
+                assertTrue(g.getAdjacentNodesOf(g.getNodeAtIndex(p))
+                        .contains(g.getNodeAtIndex(i)));
+            }
+        }
+    }
+
+    @Test
+    final void testParallelBFSVisitor() {
+        assertThrows(NullPointerException.class,
+                () -> new ParallelBFSVisitor<String>(null, true));
+        Graph<Integer> g = createRandomGraph(10, 20, 1);
+        ParallelBFSVisitor<Integer> visitor = new ParallelBFSVisitor<Integer>();
+        assertThrows(NullPointerException.class,
+                () -> visitor.search(null, g.getNodeOf(0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> visitor.search(g, new GraphNode<Integer>(10)));
+    }
+
+    @Test
+    final void testSearch() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int seed = 0; seed < 3; seed++) {
+                Graph<Integer> g = createRandomGraph(20000, 60000, seed);
+                GraphNode<Integer> source = g.getNodeOf(0);
+                SearchContext<Integer> expected = new BFSVisitor<Integer>()
+                        .search(g, source);
+                // dall'alto verso il basso e con la scelta della direzione
+                checkSearch(g, expected, new ParallelBFSVisitor<Integer>(pool,
+                        false).search(g, source));
+                checkSearch(g, expected, new ParallelBFSVisitor<Integer>(pool,
+                        true).search(g, source));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    final void testBFSVisit() {
+        Graph<Integer> g = createRandomGraph(5000, 15000, 7);
+        GraphNode<Integer> source = g.getNodeOf(0);
+        SearchContext<Integer> expected = new BFSVisitor<Integer>().search(g,
+                source);
+        List<Integer> levels = new ArrayList<Integer>();
+        ParallelBFSVisitor<Integer> visitor = new ParallelBFSVisitor<Integer>() {
+            @Override
+            public void visitNode(GraphNode<Integer> n) {
+                levels.add(n.getIntegerDistance());
+            }
+        };
+        visitor.BFSVisit(g, source);
+        int reached = 0;
+        for (GraphNode<Integer> n : g.getNodes()) {
+            int i = g.getNodeIndexOf(n.getLabel());
+            assertEquals(expected.getIntegerDistance(i), n.getIntegerDistance());
+            assertEquals(expected.getColor(i), n.getColor());
+            if (n.getIntegerDistance() > 0) {
+                reached++;
+                assertEquals(n.getIntegerDistance() - 1,
+                        n.getPrevious().getIntegerDistance());
+            } else
+                assertNull(n.getPrevious());
+        }
+        // visitNode è chiamato una volta per ogni nodo raggiunto, per livelli
+        assertEquals(reached + 1, levels.size());
+        for (int k = 1; k < levels.size(); k++)
+            assertTrue(levels.get(k - 1) <= levels.get(k));
+    }
+
+}
@@ -0,0 +1,425 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es12sol;
+
+import java.util.Arrays;
+
+/**
+ * Stato di una singola esecuzione di un algoritmo su un grafo: colore,
+ * distanza intera, distanza in virgola mobile, predecessore e tempi di
+ * ingresso e di uscita di ogni nodo. Sono le stesse informazioni che la
+ * classe {@code GraphNode<L>} mantiene nei suoi campi, ma sono memorizzate in
+ * array di tipo primitivo indirizzati con l'indice dei nodi nel grafo (vedi
+ * {@code Graph.getNodeIndexOf(L)}), che il grafo deve quindi supportare. Il
+ * predecessore di un nodo è memorizzato come indice, -1 se il nodo non ha
+ * predecessore.
+ *
+ * Ogni esecuzione crea il suo contesto e non modifica i nodi, per cui più
+ * algoritmi possono lavorare contemporaneamente, anche da thread diversi, su
+ * uno stesso grafo che non viene modificato. Un contesto invece può essere
+ * usato da più thread contemporaneamente solo se, dopo che gli array usati
+ * sono stati creati, thread diversi assegnano informazioni di nodi diversi,
+ * come avviene in una visita parallela per livelli. Il grafo non deve essere
+ * modificato mentre il contesto è in uso.
+ *
+ * Gli array vengono creati solo quando un algoritmo assegna per la prima volta
+ * la relativa informazione. Prima di allora ogni informazione ha il valore
+ * che gli algoritmi usano per i nodi non ancora raggiunti: colore bianco,
+ * distanza intera -1, distanza in virgola mobile infinita, nessun
+ * predecessore e tempi -1.
+ *
+ * Un contesto può essere creato in modalità "write-through": in questo caso
+ * ogni informazione assegnata viene scritta anche nel nodo corrispondente,
+ * come facevano gli algoritmi prima dell'introduzione di questa classe.
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class SearchContext<L> {
+
+    private final Graph<L> graph;
+
+    private final boolean writeThrough;
+
+    private int[] colors;
+
+    private int[] integerDistances;
+
+    private double[] floatingPointDistances;
+
+    private int[] previous;
+
+    private int[] enteringTimes;
+
+    private int[] exitingTimes;
+
+    /*
+     * Orologio per i tempi di ingresso e di uscita.
+     */
+    private int time;
+
+    /**
+     * Crea un contesto per un'esecuzione su un grafo dato, senza modificare i
+     * nodi.
+     *
+     * @param graph
+     *                  il grafo
+     * @throws NullPointerException
+     *                                  se il grafo è null
+     */
+    public SearchContext(Graph<L> graph) {
+        this(graph, false);
+    }
+
+    /**
+     * Crea un contesto per un'esecuzione su un grafo dato, specificando se le
+     * informazioni assegnate devono essere scritte anche nei nodi.
+     *
+     * @param graph
+     *                         il grafo
+     * @param writeThrough
+     *                         se true ogni informazione assegnata viene
+     *                         scritta anche nel nodo corrispondente
+     * @throws NullPointerException
+     *                                  se il grafo è null
+     */
+    public SearchContext(Graph<L> graph, boolean writeThrough) {
+        if (graph == null)
+            throw new NullPointerException("Contesto per un grafo nullo");
+        this.graph = graph;
+        this.writeThrough = writeThrough;
+        this.time = 0;
+    }
+
+    /**
+     * Restituisce il grafo di questo contesto.
+     *
+     * @return il grafo di questo contesto
+     */
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Restituisce l'indice di un nodo del grafo.
+     *
+     * @param node
+     *                 il nodo
+     * @return l'indice del nodo nel grafo
+     * @throws NullPointerException
+     *                                      se il nodo è null
+     * @throws IllegalArgumentException
+     *                                      se il nodo non appartiene al grafo
+     */
+    public int indexOf(GraphNode<L> node) {
+        if (node == null)
+            throw new NullPointerException(
+                    "Richiesta dell'indice di un nodo null");
+        return this.graph.getNodeIndexOf(node.getLabel());
+    }
+
+    /**
+     * Restituisce il nodo del grafo con un certo indice.
+     *
+     * @param i
+     *              l'indice
+     * @return il nodo con indice i
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice è fuori dai limiti
+     */
+    public GraphNode<L> nodeAt(int i) {
+        return this.graph.getNodeAtIndex(i);
+    }
+
+    /*
+     * Crea un array per tutti i nodi del grafo riempito con un valore
+     * iniziale.
+     */
+    private int[] newArray(int initialValue) {
+        int[] a = new int[this.graph.nodeCount()];
+        if (initialValue != 0)
+            Arrays.fill(a, initialValue);
+        return a;
+    }
+
+    /**
+     * Restituisce il colore del nodo di indice i.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @return il colore del nodo
+     */
+    public int getColor(int i) {
+        return this.colors == null ? GraphNode.COLOR_WHITE : this.colors[i];
+    }
+
+    /**
+     * Assegna un colore al nodo di indice i.
+     *
+     * @param i
+     *                  l'indice del nodo
+     * @param color
+     *                  il colore
+     */
+    public void setColor(int i, int color) {
+        if (this.colors == null)
+            this.colors = newArray(GraphNode.COLOR_WHITE);
+        this.colors[i] = color;
+        if (this.writeThrough)
+            nodeAt(i).setColor(color);
+    }
+
+    /**
+     * Restituisce la distanza intera del nodo di indice i.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @return la distanza intera del nodo
+     */
+    public int getIntegerDistance(int i) {
+        return this.integerDistances == null ? -1 : this.integerDistances[i];
+    }
+
+    /**
+     * Assegna una distanza intera al nodo di indice i.
+     *
+     * @param i
+     *                     l'indice del nodo
+     * @param distance
+     *                     la distanza
+     */
+    public void setIntegerDistance(int i, int distance) {
+        if (this.integerDistances == null)
+            this.integerDistances = newArray(-1);
+        this.integerDistances[i] = distance;
+        if (this.writeThrough)
+            nodeAt(i).setIntegerDistance(distance);
+    }
+
+    /**
+     * Restituisce la distanza in virgola mobile del nodo di indice i.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @return la distanza del nodo
+     */
+    public double getFloatingPointDistance(int i) {
+        return this.floatingPointDistances == null ? Double.POSITIVE_INFINITY
+                : this.floatingPointDistances[i];
+    }
+
+    /**
+     * Assegna una distanza in virgola mobile al nodo di indice i.
+     *
+     * @param i
+     *                     l'indice del nodo
+     * @param distance
+     *                     la distanza
+     */
+    public void setFloatingPointDistance(int i, double distance) {
+        if (this.floatingPointDistances == null) {
+            this.floatingPointDistances = new double[this.graph.nodeCount()];
+            Arrays.fill(this.floatingPointDistances, Double.POSITIVE_INFINITY);
+        }
+        this.floatingPointDistances[i] = distance;
+        if (this.writeThrough)
+            nodeAt(i).setFloatingPointDistance(distance);
+    }
+
+    /**
+     * Restituisce l'indice del predecessore del nodo di indice i.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @return l'indice del predecessore, -1 se il nodo non ha predecessore
+     */
+    public int getPreviousIndex(int i) {
+        return this.previous == null ? -1 : this.previous[i];
+    }
+
+    /**
+     * Assegna un predecessore al nodo di indice i.
+     *
+     * @param i
+     *                         l'indice del nodo
+     * @param previousIndex
+     *                         l'indice del predecessore, -1 per nessun
+     *                         predecessore
+     */
+    public void setPreviousIndex(int i, int previousIndex) {
+        if (this.previous == null)
+            this.previous = newArray(-1);
+        this.previous[i] = previousIndex;
+        if (this.writeThrough)
+            nodeAt(i).setPrevious(
+                    previousIndex == -1 ? null : nodeAt(previousIndex));
+    }
+
+    /**
+     * Restituisce il tempo di ingresso nel nodo di indice i.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @return il tempo di ingresso
+     */
+    public int getEnteringTime(int i) {
+        return this.enteringTimes == null ? -1 : this.enteringTimes[i];
+    }
+
+    /**
+     * Assegna il tempo di ingresso nel nodo di indice i.
+     *
+     * @param i
+     *                 l'indice del nodo
+     * @param time
+     *                 il tempo
+     */
+    public void setEnteringTime(int i, int time) {
+        if (this.enteringTimes == null)
+            this.enteringTimes = newArray(-1);
+        this.enteringTimes[i] = time;
+        if (this.writeThrough)
+            nodeAt(i).setEnteringTime(time);
+    }
+
+    /**
+     * Restituisce il tempo di uscita dal nodo di indice i.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @return il tempo di uscita
+     */
+    public int getExitingTime(int i) {
+        return this.exitingTimes == null ? -1 : this.exitingTimes[i];
+    }
+
+    /**
+     * Assegna il tempo di uscita dal nodo di indice i.
+     *
+     * @param i
+     *                 l'indice del nodo
+     * @param time
+     *                 il tempo
+     */
+    public void setExitingTime(int i, int time) {
+        if (this.exitingTimes == null)
+            this.exitingTimes = newArray(-1);
+        this.exitingTimes[i] = time;
+        if (this.writeThrough)
+            nodeAt(i).setExitingTime(time);
+    }
+
+    /**
+     * Fa avanzare di uno l'orologio usato per i tempi di ingresso e di
+     * uscita.
+     *
+     * @return il nuovo tempo
+     */
+    public int nextTime() {
+        return ++this.time;
+    }
+
+    /**
+     * Restituisce il tempo corrente dell'orologio.
+     *
+     * @return il tempo corrente
+     */
+    public int getTime() {
+        return this.time;
+    }
+
+    // Versioni di comodo dei metodi di lettura che partono da un nodo
+
+    /**
+     * Restituisce il colore di un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return il colore del nodo
+     * @throws NullPointerException
+     *                                      se il nodo è null
+     * @throws IllegalArgumentException
+     *                                      se il nodo non appartiene al grafo
+     */
+    public int getColor(GraphNode<L> node) {
+        return getColor(indexOf(node));
+    }
+
+    /**
+     * Restituisce la distanza intera di un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return la distanza intera del nodo
+     * @throws NullPointerException
+     *                                      se il nodo è null
+     * @throws IllegalArgumentException
+     *                                      se il nodo non appartiene al grafo
+     */
+    public int getIntegerDistance(GraphNode<L> node) {
+        return getIntegerDistance(indexOf(node));
+    }
+
+    /**
+     * Restituisce la distanza in virgola mobile di un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return la distanza del nodo
+     * @throws NullPointerException
+     *                                      se il nodo è null
+     * @throws IllegalArgumentException
+     *                                      se il nodo non appartiene al grafo
+     */
+    public double getFloatingPointDistance(GraphNode<L> node) {
+        return getFloatingPointDistance(indexOf(node));
+    }
+
+    /**
+     * Restituisce il predecessore di un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return il predecessore del nodo, null se il nodo non ha predecessore
+     * @throws NullPointerException
+     *                                      se il nodo è null
+     * @throws IllegalArgumentException
+     *                                      se il nodo non appartiene al grafo
+     */
+    public GraphNode<L> getPrevious(GraphNode<L> node) {
+        int p = getPreviousIndex(indexOf(node));
+        return p == -1 ? null : nodeAt(p);
+    }
+
+    /**
+     * Restituisce il tempo di ingresso in un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return il tempo di ingresso
+     * @throws NullPointerException
+     *                                      se il nodo è null
+     * @throws IllegalArgumentException
+     *                                      se il nodo non appartiene al grafo
+     */
+    public int getEnteringTime(GraphNode<L> node) {
+        return getEnteringTime(indexOf(node));
+    }
+
+    /**
+     * Restituisce il tempo di uscita da un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return il tempo di uscita
+     * @throws NullPointerException
+     *                                      se il nodo è null
+     * @throws IllegalArgumentException
+     *                                      se il nodo non appartiene al grafo
+     */
+    public int getExitingTime(GraphNode<L> node) {
+        return getExitingTime(indexOf(node));
+    }
+
+}
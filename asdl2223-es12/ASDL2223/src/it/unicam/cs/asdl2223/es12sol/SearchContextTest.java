@@ -0,0 +1,111 @@
+package it.unicam.cs.asdl2223.es12sol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SearchContextTest {
+
+    /*
+     * Crea il grafo usato nei test.
+     */
+    private Graph<String> createGraph() {
+        Graph<String> g = new MapAdjacentListDirectedGraph<String>();
+        GraphNode<String> ns = new GraphNode<String>("s");
+        GraphNode<String> nu = new GraphNode<String>("u");
+        GraphNode<String> nx = new GraphNode<String>("x");
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, 2.0));
+        return g;
+    }
+
+    @Test
+    final void testSearchContext() {
+        assertThrows(NullPointerException.class,
+                () -> new SearchContext<String>(null));
+        Graph<String> g = createGraph();
+        SearchContext<String> c = new SearchContext<String>(g);
+        assertSame(g, c.getGraph());
+        assertThrows(NullPointerException.class, () -> c.indexOf(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> c.indexOf(new GraphNode<String>("z")));
+        GraphNode<String> nu = g.getNodeOf("u");
+        assertSame(nu, c.nodeAt(c.indexOf(nu)));
+    }
+
+    @Test
+    final void testDefaultValues() {
+        Graph<String> g = createGraph();
+        SearchContext<String> c = new SearchContext<String>(g);
+        for (GraphNode<String> n : g.getNodes()) {
+            assertEquals(GraphNode.COLOR_WHITE, c.getColor(n));
+            assertEquals(-1, c.getIntegerDistance(n));
+            assertTrue(
+                    c.getFloatingPointDistance(n) == Double.POSITIVE_INFINITY);
+            assertNull(c.getPrevious(n));
+            assertEquals(-1, c.getEnteringTime(n));
+            assertEquals(-1, c.getExitingTime(n));
+        }
+        assertEquals(0, c.getTime());
+        assertEquals(1, c.nextTime());
+        assertEquals(2, c.nextTime());
+        assertEquals(2, c.getTime());
+        // dopo la prima assegnazione gli altri nodi hanno il valore iniziale
+        int s = c.indexOf(g.getNodeOf("s"));
+        int u = c.indexOf(g.getNodeOf("u"));
+        c.setIntegerDistance(u, 1);
+        c.setPreviousIndex(u, s);
+        assertEquals(1, c.getIntegerDistance(u));
+        assertEquals(-1, c.getIntegerDistance(s));
+        assertSame(g.getNodeOf("s"), c.getPrevious(g.getNodeOf("u")));
+        assertEquals(-1, c.getPreviousIndex(s));
+    }
+
+    @Test
+    final void testIndependentContexts() {
+        Graph<String> g = createGraph();
+        GraphNode<String> nx = g.getNodeOf("x");
+        nx.setFloatingPointDistance(7.0);
+        SearchContext<String> c1 = new SearchContext<String>(g);
+        SearchContext<String> c2 = new SearchContext<String>(g);
+        int x = c1.indexOf(nx);
+        c1.setFloatingPointDistance(x, 3.0);
+        c1.setColor(x, GraphNode.COLOR_BLACK);
+        c2.setFloatingPointDistance(x, 5.0);
+        assertTrue(c1.getFloatingPointDistance(x) == 3.0);
+        assertTrue(c2.getFloatingPointDistance(x) == 5.0);
+        assertEquals(GraphNode.COLOR_WHITE, c2.getColor(x));
+        // i nodi non vengono modificati
+        assertTrue(nx.getFloatingPointDistance() == 7.0);
+        assertEquals(GraphNode.COLOR_WHITE, nx.getColor());
+    }
+
+    @Test
+    final void testWriteThrough() {
+        Graph<String> g = createGraph();
+        SearchContext<String> c = new SearchContext<String>(g, true);
+        GraphNode<String> ns = g.getNodeOf("s");
+        GraphNode<String> nu = g.getNodeOf("u");
+        int s = c.indexOf(ns);
+        int u = c.indexOf(nu);
+        c.setColor(u, GraphNode.COLOR_GREY);
+        c.setIntegerDistance(u, 1);
+        c.setFloatingPointDistance(u, 1.5);
+        c.setPreviousIndex(u, s);
+        c.setEnteringTime(u, c.nextTime());
+        c.setExitingTime(u, c.nextTime());
+        assertEquals(GraphNode.COLOR_GREY, nu.getColor());
+        assertEquals(1, nu.getIntegerDistance());
+        assertTrue(nu.getFloatingPointDistance() == 1.5);
+        assertSame(ns, nu.getPrevious());
+        assertEquals(1, nu.getEnteringTime());
+        assertEquals(2, nu.getExitingTime());
+        c.setPreviousIndex(u, -1);
+        assertNull(nu.getPrevious());
+    }
+
+}
@@ -0,0 +1,405 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2223.es13sol;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementazione immutabile della classe astratta {@code Graph<L>} che
+ * realizza un grafo orientato con la rappresentazione ad array di adiacenza
+ * (detta anche Compressed Sparse Row). I nodi sono numerati con indici densi
+ * nell'intervallo <code>[0, this.nodeCount() - 1]</code> e gli archi uscenti
+ * da tutti i nodi sono memorizzati uno dopo l'altro in due array di tipo
+ * primitivo, uno per gli indici dei nodi destinazione e uno per i pesi: gli
+ * archi uscenti dal nodo di indice i occupano le posizioni da
+ * {@code offsets[i]} (incluso) a {@code offsets[i + 1]} (escluso). Allo stesso
+ * modo sono memorizzati gli archi entranti in ogni nodo.
+ *
+ * Rispetto a {@code MapAdjacentListDirectedGraph<L>} non c'è un oggetto per
+ * ogni arco e scorrere gli archi uscenti da un nodo significa scorrere una
+ * porzione contigua di un array. Il grafo viene costruito una volta per tutte
+ * a partire da un altro grafo orientato e non può più essere modificato: le
+ * operazioni di inserimento e di rimozione di nodi e archi non sono
+ * supportate. I nodi sono gli stessi oggetti del grafo di partenza, mentre gli
+ * archi restituiti dai metodi che restituiscono insiemi di archi vengono
+ * creati al momento della chiamata.
+ *
+ * Le operazioni indicizzate sono supportate e quelle che scorrono i
+ * successori o i predecessori di un nodo tramite il suo indice leggono
+ * direttamente gli array, senza creare nessun oggetto.
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class AdjacencyArrayDirectedGraph<L> extends Graph<L> {
+
+    /*
+     * I nodi del grafo, nella posizione data dal loro indice.
+     */
+    private final GraphNode<L>[] nodes;
+
+    /*
+     * Associa a ogni etichetta l'indice del nodo corrispondente.
+     */
+    private final Map<L, Integer> indexOfLabel;
+
+    /*
+     * L'insieme dei nodi restituito da getNodes(), non modificabile.
+     */
+    private final Set<GraphNode<L>> nodeSet;
+
+    /*
+     * Gli archi uscenti dal nodo di indice i sono nelle posizioni da
+     * offsets[i] a offsets[i + 1] - 1 di targets e weights. L'array ha
+     * this.nodeCount() + 1 elementi.
+     */
+    private final int[] offsets;
+
+    /*
+     * Gli indici dei nodi destinazione degli archi.
+     */
+    private final int[] targets;
+
+    /*
+     * I pesi degli archi, Double.NaN per un arco non pesato.
+     */
+    private final double[] weights;
+
+    /*
+     * Gli archi entranti nel nodo di indice i sono nelle posizioni da
+     * inOffsets[i] a inOffsets[i + 1] - 1 di inEdges.
+     */
+    private final int[] inOffsets;
+
+    /*
+     * Le posizioni in targets e weights degli archi entranti.
+     */
+    private final int[] inEdges;
+
+    /*
+     * Per ogni posizione in targets, l'indice del nodo sorgente dell'arco.
+     */
+    private final int[] sources;
+
+    /**
+     * Crea un grafo con gli stessi nodi e gli stessi archi di un grafo
+     * orientato dato.
+     *
+     * @param g
+     *              il grafo da copiare
+     * @throws NullPointerException
+     *                                      se il grafo passato è null
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è
+     *                                      orientato
+     */
+    @SuppressWarnings("unchecked")
+    public AdjacencyArrayDirectedGraph(Graph<L> g) {
+        if (g == null)
+            throw new NullPointerException("Tentativo di copiare un grafo null");
+        if (!g.isDirected())
+            throw new IllegalArgumentException(
+                    "Tentativo di copiare un grafo non orientato");
+        int n = g.nodeCount();
+        this.nodes = (GraphNode<L>[]) new GraphNode<?>[n];
+        this.indexOfLabel = new HashMap<L, Integer>();
+        Set<GraphNode<L>> nodeSet = new LinkedHashSet<GraphNode<L>>();
+        // assegno gli indici ai nodi
+        int i = 0;
+        for (GraphNode<L> node : g.getNodes()) {
+            this.nodes[i] = node;
+            this.indexOfLabel.put(node.getLabel(), i);
+            nodeSet.add(node);
+            i++;
+        }
+        this.nodeSet = Collections.unmodifiableSet(nodeSet);
+        // copio gli archi uscenti di ogni nodo
+        int m = g.edgeCount();
+        this.offsets = new int[n + 1];
+        this.targets = new int[m];
+        this.weights = new double[m];
+        this.sources = new int[m];
+        int pos = 0;
+        for (i = 0; i < n; i++) {
+            for (GraphEdge<L> e : g.getEdgesOf(this.nodes[i])) {
+                this.targets[pos] = this.indexOfLabel
+                        .get(e.getNode2().getLabel());
+                this.weights[pos] = e.getWeight();
+                this.sources[pos] = i;
+                pos++;
+            }
+            this.offsets[i + 1] = pos;
+        }
+        // archi entranti: conto quelli di ogni nodo e li distribuisco
+        this.inOffsets = new int[n + 1];
+        for (int k = 0; k < m; k++)
+            this.inOffsets[this.targets[k] + 1]++;
+        for (i = 0; i < n; i++)
+            this.inOffsets[i + 1] += this.inOffsets[i];
+        this.inEdges = new int[m];
+        int[] next = new int[n];
+        for (int k = 0; k < m; k++) {
+            int t = this.targets[k];
+            this.inEdges[this.inOffsets[t] + next[t]] = k;
+            next[t]++;
+        }
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.nodes.length;
+    }
+
+    @Override
+    public int edgeCount() {
+        return this.targets.length;
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Grafo non modificabile");
+    }
+
+    @Override
+    public boolean isDirected() {
+        // Questa classe implementa grafi orientati
+        return true;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        return this.nodeSet;
+    }
+
+    @Override
+    public boolean addNode(GraphNode<L> node) {
+        if (node == null)
+            throw new NullPointerException(
+                    "Tentativo di aggiungere un nodo null");
+        throw new UnsupportedOperationException("Grafo non modificabile");
+    }
+
+    @Override
+    public boolean removeNode(GraphNode<L> node) {
+        if (node == null)
+            throw new NullPointerException(
+                    "Tentativo di rimuovere un nodo null");
+        throw new UnsupportedOperationException("Grafo non modificabile");
+    }
+
+    @Override
+    public boolean containsNode(GraphNode<L> node) {
+        if (node == null)
+            throw new NullPointerException("Tentativo di cercare un nodo null");
+        return this.indexOfLabel.containsKey(node.getLabel());
+    }
+
+    @Override
+    public GraphNode<L> getNodeOf(L label) {
+        if (label == null)
+            throw new NullPointerException(
+                    "Tentativo di cercare un nodo con etichetta null");
+        Integer i = this.indexOfLabel.get(label);
+        // null se non esiste nessun nodo con etichetta uguale a label
+        return i == null ? null : this.nodes[i];
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        if (label == null)
+            throw new NullPointerException(
+                    "Tentativo di ricercare un nodo con etichetta null");
+        Integer i = this.indexOfLabel.get(label);
+        if (i == null)
+            throw new IllegalArgumentException(
+                    "Richiesta dell'indice di un nodo non esistente");
+        return i;
+    }
+
+    @Override
+    public GraphNode<L> getNodeAtIndex(int i) {
+        if (i < 0 || i >= this.nodes.length)
+            throw new IndexOutOfBoundsException(
+                    "Indice di nodo fuori dai limiti: " + i);
+        return this.nodes[i];
+    }
+
+    /*
+     * Restituisce l'indice di un nodo del grafo.
+     *
+     * @throws NullPointerException se il nodo è null
+     *
+     * @throws IllegalArgumentException se il nodo non esiste
+     */
+    private int indexOf(GraphNode<L> node, String operation) {
+        if (node == null)
+            throw new NullPointerException(
+                    "Tentativo di ottenere " + operation + " di un nodo null");
+        Integer i = this.indexOfLabel.get(node.getLabel());
+        if (i == null)
+            throw new IllegalArgumentException("Tentativo di ottenere "
+                    + operation + " di un nodo non esistente");
+        return i;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        int i = indexOf(node, "i nodi adiacenti");
+        Set<GraphNode<L>> result = new HashSet<GraphNode<L>>();
+        for (int k = this.offsets[i]; k < this.offsets[i + 1]; k++)
+            result.add(this.nodes[this.targets[k]]);
+        return result;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        int i = indexOf(node, "i nodi predecessori");
+        Set<GraphNode<L>> result = new HashSet<GraphNode<L>>();
+        for (int k = this.inOffsets[i]; k < this.inOffsets[i + 1]; k++)
+            result.add(this.nodes[this.sources[this.inEdges[k]]]);
+        return result;
+    }
+
+    /*
+     * Crea l'arco memorizzato nella posizione k di targets e weights.
+     */
+    private GraphEdge<L> edgeAt(int k) {
+        return new GraphEdge<L>(this.nodes[this.sources[k]],
+                this.nodes[this.targets[k]], true, this.weights[k]);
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        Set<GraphEdge<L>> result = new HashSet<GraphEdge<L>>();
+        for (int k = 0; k < this.targets.length; k++)
+            result.add(edgeAt(k));
+        return result;
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        if (edge == null)
+            throw new NullPointerException("Tentativo di inserire arco nullo");
+        throw new UnsupportedOperationException("Grafo non modificabile");
+    }
+
+    @Override
+    public boolean removeEdge(GraphEdge<L> edge) {
+        throw new UnsupportedOperationException("Grafo non modificabile");
+    }
+
+    @Override
+    public boolean containsEdge(GraphEdge<L> edge) {
+        if (edge == null)
+            throw new NullPointerException(
+                    "Tentativo di cercare un arco nullo");
+        // Controllo se i nodi esistono
+        Integer u = this.indexOfLabel.get(edge.getNode1().getLabel());
+        Integer v = this.indexOfLabel.get(edge.getNode2().getLabel());
+        if (u == null || v == null)
+            throw new IllegalArgumentException(
+                    "Ricerca di un arco con almeno uno dei due nodi collegati non esistente");
+        if (!edge.isDirected())
+            return false;
+        // Cerco l'arco tra quelli uscenti dal nodo sorgente
+        for (int k = this.offsets[u]; k < this.offsets[u + 1]; k++)
+            if (this.targets[k] == v)
+                return true;
+        return false;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        int i = indexOf(node, "gli archi uscenti");
+        Set<GraphEdge<L>> result = new HashSet<GraphEdge<L>>();
+        for (int k = this.offsets[i]; k < this.offsets[i + 1]; k++)
+            result.add(edgeAt(k));
+        return result;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        int i = indexOf(node, "gli archi entranti");
+        Set<GraphEdge<L>> result = new HashSet<GraphEdge<L>>();
+        for (int k = this.inOffsets[i]; k < this.inOffsets[i + 1]; k++)
+            result.add(edgeAt(this.inEdges[k]));
+        return result;
+    }
+
+    @Override
+    public int getDegreeOf(GraphNode<L> node) {
+        int i = indexOf(node, "il grado");
+        return this.offsets[i + 1] - this.offsets[i] + this.inOffsets[i + 1]
+                - this.inOffsets[i];
+    }
+
+    @Override
+    public int getOutDegree(int i) {
+        checkIndex(i);
+        return this.offsets[i + 1] - this.offsets[i];
+    }
+
+    @Override
+    public int getSuccessorIndex(int i, int k) {
+        return this.targets[edgePosition(i, k)];
+    }
+
+    @Override
+    public double getSuccessorWeight(int i, int k) {
+        return this.weights[edgePosition(i, k)];
+    }
+
+    @Override
+    public void forEachSuccessor(int i, SuccessorConsumer action) {
+        if (action == null)
+            throw new NullPointerException(
+                    "Tentativo di scorrere i successori con un'azione null");
+        // un solo controllo dell'indice, poi scorro la porzione degli array
+        checkIndex(i);
+        for (int k = this.offsets[i]; k < this.offsets[i + 1]; k++)
+            action.accept(this.targets[k], this.weights[k]);
+    }
+
+    @Override
+    public int getInDegree(int i) {
+        checkIndex(i);
+        return this.inOffsets[i + 1] - this.inOffsets[i];
+    }
+
+    @Override
+    public int getPredecessorIndex(int i, int k) {
+        checkIndex(i);
+        if (k < 0 || k >= this.inOffsets[i + 1] - this.inOffsets[i])
+            throw new IndexOutOfBoundsException(
+                    "Indice di arco fuori dai limiti: " + k);
+        return this.sources[this.inEdges[this.inOffsets[i] + k]];
+    }
+
+    /*
+     * Controlla che i sia l'indice di un nodo.
+     */
+    private void checkIndex(int i) {
+        if (i < 0 || i >= this.nodes.length)
+            throw new IndexOutOfBoundsException(
+                    "Indice di nodo fuori dai limiti: " + i);
+    }
+
+    /*
+     * Restituisce la posizione in targets e weights del k-esimo arco uscente
+     * dal nodo di indice i.
+     */
+    private int edgePosition(int i, int k) {
+        checkIndex(i);
+        if (k < 0 || k >= this.offsets[i + 1] - this.offsets[i])
+            throw new IndexOutOfBoundsException(
+                    "Indice di arco fuori dai limiti: " + k);
+        return this.offsets[i] + k;
+    }
+
+}
@@ -3,11 +3,22 @@ package it.unicam.cs.asdl2223.es13sol;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+
 /**
  * Classe che implementa l'algoritmo di Dijkstra per il calcolo dei cammini
- * minimi da una sorgente singola. L'algoritmo usa una coda con priorità
- * inefficiente (implementata con una List) che per estrarre il minimo impiega
- * O(n).
+ * minimi da una sorgente singola. L'algoritmo usa come coda con priorità uno
+ * heap binario indicizzato (IndexedMinPriorityQueue) in cui i nodi sono
+ * identificati dai loro indici nel grafo: l'estrazione del minimo e la
+ * diminuzione della distanza di un nodo costano O(log n) e il calcolo costa
+ * quindi O((n + m) log n). Nella coda entrano solo i nodi raggiunti dalla
+ * sorgente.
+ * 
+ * Distanze e predecessori sono mantenuti in un oggetto SearchContext<L>
+ * indirizzato con gli indici dei nodi nel grafo. Il metodo
+ * computeShortestPathsFrom li scrive anche nei nodi, come richiesto
+ * dall'interfaccia, mentre il metodo search non modifica né i nodi né questo
+ * oggetto: più calcoli da sorgenti diverse possono quindi essere eseguiti
+ * contemporaneamente sullo stesso grafo, purché questo non venga modificato.
  * 
  * @author Template: Luca Tesei, Implementazione: collettiva
  *
@@ -25,11 +36,8 @@ public class DijkstraShortestPathComputer<L>
     // flag che indica se i cammini minimi sono stati calcolati almeno una volta
     private boolean isComputed = false;
 
-    /*
-     * Contiene i nodi ancora da analizzare, la coda con priorità viene gestita
-     * tramite lista e l'elemento minimo viene cercato e rimosso con costo O(n)
-     */
-    private List<GraphNode<L>> queue;
+    // contesto dell'ultimo calcolo fatto con computeShortestPathsFrom
+    private SearchContext<L> lastContext;
 
     /**
      * Crea un calcolatore di cammini minimi a sorgente singola per un grafo
@@ -74,11 +82,53 @@ public class DijkstraShortestPathComputer<L>
         this.grafo = graph;
         this.isComputed = false;
         this.lastSource = null;
-        this.queue = new ArrayList<GraphNode<L>>();
     }
 
     @Override
     public void computeShortestPathsFrom(GraphNode<L> sourceNode) {
+        checkSource(sourceNode);
+        // inizializzazione dei nodi: distanza iniziale sconosciuta, con un
+        // valore che non potrà mai assumere, e nessun predecessore
+        for (GraphNode<L> node : grafo.getNodes()) {
+            node.setFloatingPointDistance(Double.POSITIVE_INFINITY);
+            node.setPrevious(null);
+        }
+        // il contesto scrive anche nei nodi
+        SearchContext<L> context = new SearchContext<L>(grafo, true);
+        compute(context, sourceNode);
+        this.lastContext = context;
+        this.lastSource = sourceNode;
+        this.isComputed = true;
+    }
+
+    /**
+     * Calcola i cammini minimi a partire da una sorgente data senza
+     * modificare i nodi del grafo né lo stato di questo calcolatore. Le
+     * distanze e i predecessori sono restituiti in un contesto creato per il
+     * calcolo; i nodi non raggiungibili hanno distanza infinita. Questo metodo
+     * può essere chiamato contemporaneamente da più thread, purché il grafo
+     * non venga modificato.
+     *
+     * @param sourceNode
+     *                       il nodo sorgente
+     * @return il contesto con le distanze e i predecessori calcolati
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public SearchContext<L> search(GraphNode<L> sourceNode) {
+        checkSource(sourceNode);
+        SearchContext<L> context = new SearchContext<L>(grafo);
+        compute(context, sourceNode);
+        return context;
+    }
+
+    /*
+     * Controlla che il nodo sorgente sia un nodo del grafo.
+     */
+    private void checkSource(GraphNode<L> sourceNode) {
         if (sourceNode == null) {
             throw new NullPointerException("Il nodo passato è nullo");
         }
@@ -86,60 +136,55 @@ public class DijkstraShortestPathComputer<L>
             throw new IllegalArgumentException(
                     "Il nodo passato non è contenuto nel grafo");
         }
-        // inizializzazione
-        for (GraphNode<L> node : grafo.getNodes()) {
-            if (node.equals(sourceNode)) {
-                // distanza dalla sorgente è 0
-                node.setFloatingPointDistance(0.0);
-            } else {
-                // distanza iniziale sconosciuta
-                // Imposto tutte le distanze dei nodi con un valore che non
-                // potrà mai assumere
-                node.setFloatingPointDistance(Double.POSITIVE_INFINITY);
-            }
-            // inizializzo il campo previuous a null
-            node.setPrevious(null);
-            // aggiungo il nodo alla coda
-            queue.add(node);
-        }
+    }
+
+    /*
+     * Esegue l'algoritmo registrando distanze e predecessori nel contesto. Gli
+     * elementi della coda sono gli indici dei nodi nel grafo.
+     */
+    private void compute(SearchContext<L> context, GraphNode<L> sourceNode) {
+        IndexedMinPriorityQueue queue = new IndexedMinPriorityQueue(
+                grafo.nodeCount());
+        // distanza dalla sorgente è 0
+        int source = context.indexOf(sourceNode);
+        context.setFloatingPointDistance(source, 0.0);
+        context.setPreviousIndex(source, -1);
+        queue.insert(source, 0.0);
         while (!queue.isEmpty()) {
-            GraphNode<L> currentNode = extractMinimumFrom(queue);
-            // per ogni arco che fa parte degli archi connessi al nodo corrente
-            for (GraphEdge<L> edge : grafo.getEdgesOf(currentNode))
+            int current = queue.extractMin();
+            // per ogni arco uscente dal nodo corrente, scorso tramite gli
+            // indici senza creare oggetti
+            int degree = grafo.getOutDegree(current);
+            for (int k = 0; k < degree; k++)
                 // pongo il valore della distanza = distanza nodo corrente +
                 // peso dell'arco
-                relax(currentNode, edge);
+                relax(context, current, grafo.getSuccessorIndex(current, k),
+                        grafo.getSuccessorWeight(current, k), queue);
         }
-        this.lastSource = sourceNode;
-        this.isComputed = true;
     }
 
-    private void relax(GraphNode<L> currentNode, GraphEdge<L> edge) {
-        double newDistance = currentNode.getFloatingPointDistance()
-                + edge.getWeight();
+    /*
+     * Rilassa l'arco di peso dato dal nodo corrente al nodo target. Se la
+     * distanza del nodo target diminuisce il nodo viene inserito nella coda,
+     * se non c'è ancora, oppure la sua priorità viene diminuita. Poiché i pesi
+     * non sono negativi la distanza di un nodo già estratto non può più
+     * diminuire.
+     */
+    private void relax(SearchContext<L> context, int current, int target,
+            double weight, IndexedMinPriorityQueue queue) {
+        double newDistance = context.getFloatingPointDistance(current)
+                + weight;
         // relax del nodo
-        if (newDistance < edge.getNode2().getFloatingPointDistance()) {
-            edge.getNode2().setFloatingPointDistance(newDistance);
-            edge.getNode2().setPrevious(currentNode);
-
+        if (newDistance < context.getFloatingPointDistance(target)) {
+            context.setFloatingPointDistance(target, newDistance);
+            context.setPreviousIndex(target, current);
+            if (queue.contains(target))
+                queue.decreasePriority(target, newDistance);
+            else
+                queue.insert(target, newDistance);
         }
     }
 
-    private GraphNode<L> extractMinimumFrom(List<GraphNode<L>> l) {
-        // Cerca nella lista il nodo con distanza minima
-        int minDistanceNodeIndex = 0;
-        for (int i = 1; i < l.size(); i++)
-            if (l.get(i).getFloatingPointDistance() < l
-                    .get(minDistanceNodeIndex).getFloatingPointDistance()) {
-                minDistanceNodeIndex = i;
-            }
-        // il nodo in posizione minDistanceNodeIndex della lista è quello
-        // che ha distanza minima
-        GraphNode<L> toReturn = l.get(minDistanceNodeIndex);
-        l.remove(minDistanceNodeIndex);
-        return toReturn;
-    }
-
     @Override
     public boolean isComputed() {
         return this.isComputed;
@@ -174,40 +219,63 @@ public class DijkstraShortestPathComputer<L>
         if (!isComputed()) {
             throw new IllegalStateException("Cammini minimi non computati!");
         }
-        // prendo il nodo del grafo che corrisponde al targetNode
-        GraphNode<L> currentNode = grafo.getNodeOf(targetNode.getLabel());
-        // Se il nodo non può essere raggiunto dalla sorgente e non è la
-        // sorgente
-        if (!currentNode.equals(this.lastSource)
-                && currentNode.getPrevious() == null) {
+        return getShortestPathTo(this.lastContext, targetNode);
+    }
+
+    /**
+     * Restituisce il cammino minimo verso un nodo target a partire dalle
+     * informazioni di un contesto restituito dal metodo search.
+     *
+     * @param context
+     *                       il contesto di un calcolo dei cammini minimi su
+     *                       questo grafo
+     * @param targetNode
+     *                       il nodo verso cui restituire il cammino minimo
+     * @return il cammino minimo calcolato dalla sorgente del contesto verso il
+     *         nodo target, una lista vuota se il target è la sorgente, null se
+     *         il target non è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se almeno un parametro è null
+     * @throws IllegalArgumentException
+     *                                      se il contesto non è relativo al
+     *                                      grafo di questo calcolatore o se il
+     *                                      nodo target non esiste nel grafo
+     */
+    public List<GraphEdge<L>> getShortestPathTo(SearchContext<L> context,
+            GraphNode<L> targetNode) {
+        if (context == null)
+            throw new NullPointerException("Contesto nullo");
+        if (context.getGraph() != this.grafo)
+            throw new IllegalArgumentException(
+                    "Il contesto non è relativo a questo grafo");
+        int current = context.indexOf(targetNode);
+        // Se il nodo non può essere raggiunto dalla sorgente
+        if (context
+                .getFloatingPointDistance(current) == Double.POSITIVE_INFINITY)
             return null;
-        }
         // creo la lista che rappresenta il cammino
         List<GraphEdge<L>> shortestPath = new ArrayList<GraphEdge<L>>();
-        // Se il nodo target ha un nodo precedente
-        if (currentNode.equals(this.lastSource))
-            // Cammino vuoto
-            return shortestPath;
         // Finché ha un precedente
-        while (currentNode.getPrevious() != null) {
+        while (context.getPreviousIndex(current) != -1) {
+            int previous = context.getPreviousIndex(current);
+            GraphNode<L> currentNode = context.nodeAt(current);
             // Cerco l'arco che lo collega al precedente e lo aggiungo alla
-            // liata
-            for (GraphEdge<L> e : grafo.getEdgesOf(currentNode.getPrevious()))
+            // lista
+            for (GraphEdge<L> e : grafo.getEdgesOf(context.nodeAt(previous)))
                 if (e.getNode2().equals(currentNode)) {
                     shortestPath.add(e);
                     break; // esco dalla ricerca dell'arco da inserire
                 }
-            // Il targetNode diventa il suo previous e continuo finché non
+            // Il nodo corrente diventa il suo previous e continuo finché non
             // ne ha più
-            currentNode = currentNode.getPrevious();
+            current = previous;
         }
 
         /*
          * sono dovuto partire dal nodo di arrivo ed andare a ritroso fino al
-         * nodo di partenza attraverso il metodo getPrevious() dei nodi,
-         * aggiungere ogni arco attraversato in una List ed una volta arrivato
-         * al nodo di partenza fare il reverse() della lista in modo da avere il
-         * percorso in ordine
+         * nodo di partenza attraverso i predecessori, aggiungere ogni arco
+         * attraversato in una List ed una volta arrivato al nodo di partenza
+         * fare il reverse() della lista in modo da avere il percorso in ordine
          *
          */
         Collections.reverse(shortestPath);
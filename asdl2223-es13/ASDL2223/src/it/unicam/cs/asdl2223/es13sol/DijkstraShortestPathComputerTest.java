@@ -4,7 +4,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -175,4 +177,118 @@ class DijkstraShortestPathComputerTest {
         assertEquals(nx, c.getLastSource());
     }
 
+    @Test
+    public void testRandomGraphAgainstBellmanFord() {
+        int n = 200;
+        Random random = new Random(5);
+        Graph<Integer> g = new MapAdjacentListDirectedGraph<Integer>();
+        List<GraphNode<Integer>> nodes = new ArrayList<GraphNode<Integer>>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<Integer>(i));
+            g.addNode(nodes.get(i));
+        }
+        List<GraphEdge<Integer>> edges = new ArrayList<GraphEdge<Integer>>();
+        for (int k = 0; k < 5 * n; k++) {
+            GraphEdge<Integer> e = new GraphEdge<Integer>(
+                    nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n)),
+                    true, random.nextInt(100));
+            if (g.addEdge(e))
+                edges.add(e);
+        }
+        DijkstraShortestPathComputer<Integer> c = new DijkstraShortestPathComputer<Integer>(
+                g);
+        c.computeShortestPathsFrom(nodes.get(0));
+        // distanze calcolate con l'algoritmo di Bellman-Ford
+        double[] expected = new double[n];
+        Arrays.fill(expected, Double.POSITIVE_INFINITY);
+        expected[0] = 0;
+        for (int round = 1; round < n; round++)
+            for (GraphEdge<Integer> e : edges) {
+                int u = e.getNode1().getLabel();
+                int v = e.getNode2().getLabel();
+                if (expected[u] + e.getWeight() < expected[v])
+                    expected[v] = expected[u] + e.getWeight();
+            }
+        for (int i = 0; i < n; i++) {
+            assertEquals(expected[i],
+                    nodes.get(i).getFloatingPointDistance(), 1e-9);
+            List<GraphEdge<Integer>> path = c.getShortestPathTo(nodes.get(i));
+            if (expected[i] == Double.POSITIVE_INFINITY)
+                assertNull(path);
+            else {
+                double length = 0;
+                for (GraphEdge<Integer> e : path)
+                    length += e.getWeight();
+                assertEquals(expected[i], length, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testSearchConcurrent() throws InterruptedException {
+        int n = 200;
+        Random random = new Random(11);
+        Graph<Integer> g = new MapAdjacentListDirectedGraph<Integer>();
+        List<GraphNode<Integer>> nodes = new ArrayList<GraphNode<Integer>>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<Integer>(i));
+            g.addNode(nodes.get(i));
+        }
+        for (int k = 0; k < 5 * n; k++)
+            g.addEdge(new GraphEdge<Integer>(nodes.get(random.nextInt(n)),
+                    nodes.get(random.nextInt(n)), true, random.nextInt(100)));
+        DijkstraShortestPathComputer<Integer> c = new DijkstraShortestPathComputer<Integer>(
+                g);
+        int sources = 8;
+        // risultati attesi calcolati uno alla volta con computeShortestPathsFrom
+        double[][] expected = new double[sources][n];
+        for (int s = 0; s < sources; s++) {
+            c.computeShortestPathsFrom(nodes.get(s));
+            for (int i = 0; i < n; i++)
+                expected[s][i] = nodes.get(i).getFloatingPointDistance();
+        }
+        for (GraphNode<Integer> node : nodes)
+            node.setFloatingPointDistance(-1);
+        // un thread per sorgente sullo stesso calcolatore e sullo stesso grafo
+        @SuppressWarnings("unchecked")
+        SearchContext<Integer>[] contexts = (SearchContext<Integer>[]) new SearchContext<?>[
+                sources];
+        Thread[] threads = new Thread[sources];
+        for (int s = 0; s < sources; s++) {
+            final int source = s;
+            threads[s] = new Thread(
+                    () -> contexts[source] = c.search(nodes.get(source)));
+            threads[s].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        for (int s = 0; s < sources; s++)
+            for (int i = 0; i < n; i++) {
+                assertEquals(expected[s][i],
+                        contexts[s].getFloatingPointDistance(nodes.get(i)),
+                        1e-9);
+                List<GraphEdge<Integer>> path = c
+                        .getShortestPathTo(contexts[s], nodes.get(i));
+                if (expected[s][i] == Double.POSITIVE_INFINITY)
+                    assertNull(path);
+                else {
+                    double length = 0;
+                    for (GraphEdge<Integer> e : path)
+                        length += e.getWeight();
+                    assertEquals(expected[s][i], length, 1e-9);
+                }
+            }
+        // i nodi non sono stati modificati e l'ultimo calcolo è ancora valido
+        for (GraphNode<Integer> node : nodes)
+            assertTrue(node.getFloatingPointDistance() == -1);
+        assertEquals(nodes.get(sources - 1), c.getLastSource());
+        assertThrows(NullPointerException.class,
+                () -> c.getShortestPathTo(null, nodes.get(0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> c.getShortestPathTo(
+                        new SearchContext<Integer>(
+                                new MapAdjacentListDirectedGraph<Integer>()),
+                        nodes.get(0)));
+    }
+
 }
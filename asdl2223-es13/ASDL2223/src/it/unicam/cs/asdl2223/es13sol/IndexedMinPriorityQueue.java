@@ -0,0 +1,240 @@
+package it.unicam.cs.asdl2223.es13sol;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Coda con priorità realizzata con uno heap binario di minimo i cui elementi
+ * sono gli interi nell'intervallo <code>[0, capacity - 1]</code>, ognuno con
+ * una priorità di tipo double. Oltre allo heap viene mantenuta, per ogni
+ * elemento, la sua posizione nello heap: in questo modo si può controllare in
+ * tempo costante se un elemento è presente e diminuirne la priorità in tempo
+ * logaritmico, come serve ad esempio nell'algoritmo di Dijkstra.
+ *
+ * Gli elementi sono tipicamente gli indici dei nodi di un grafo.
+ *
+ */
+public class IndexedMinPriorityQueue {
+
+    /*
+     * Lo heap: nelle prime size posizioni ci sono gli elementi presenti.
+     */
+    private final int[] heap;
+
+    /*
+     * La posizione nello heap di ogni elemento, -1 se l'elemento non è
+     * presente.
+     */
+    private final int[] positions;
+
+    /*
+     * La priorità di ogni elemento presente.
+     */
+    private final double[] priorities;
+
+    private int size;
+
+    /**
+     * Costruisce una coda vuota per gli elementi nell'intervallo
+     * <code>[0, capacity - 1]</code>.
+     *
+     * @param capacity
+     *                     il numero di elementi possibili
+     * @throws IllegalArgumentException
+     *                                      se capacity è negativa
+     */
+    public IndexedMinPriorityQueue(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException(
+                    "Capacità negativa: " + capacity);
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.priorities = new double[capacity];
+        for (int i = 0; i < capacity; i++)
+            this.positions[i] = -1;
+        this.size = 0;
+    }
+
+    /**
+     * Restituisce il numero di elementi nella coda.
+     *
+     * @return il numero di elementi nella coda
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Determina se la coda è vuota.
+     *
+     * @return true se la coda è vuota.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Determina se un elemento è nella coda.
+     *
+     * @param i
+     *              l'elemento
+     * @return true se l'elemento è nella coda
+     * @throws IndexOutOfBoundsException
+     *                                       se l'elemento non è
+     *                                       nell'intervallo
+     *                                       <code>[0, capacity - 1]</code>
+     */
+    public boolean contains(int i) {
+        checkElement(i);
+        return this.positions[i] != -1;
+    }
+
+    /**
+     * Inserisce un elemento con una certa priorità.
+     *
+     * @param i
+     *                     l'elemento da inserire
+     * @param priority
+     *                     la sua priorità
+     * @throws IndexOutOfBoundsException
+     *                                       se l'elemento non è
+     *                                       nell'intervallo
+     *                                       <code>[0, capacity - 1]</code>
+     * @throws IllegalArgumentException
+     *                                       se l'elemento è già presente
+     */
+    public void insert(int i, double priority) {
+        if (contains(i))
+            throw new IllegalArgumentException(
+                    "Elemento già presente nella coda: " + i);
+        this.priorities[i] = priority;
+        this.heap[this.size] = i;
+        this.positions[i] = this.size;
+        this.size++;
+        moveUp(this.size - 1);
+    }
+
+    /**
+     * Diminuisce la priorità di un elemento presente.
+     *
+     * @param i
+     *                     l'elemento
+     * @param priority
+     *                     la nuova priorità, minore o uguale a quella attuale
+     * @throws IndexOutOfBoundsException
+     *                                       se l'elemento non è
+     *                                       nell'intervallo
+     *                                       <code>[0, capacity - 1]</code>
+     * @throws IllegalArgumentException
+     *                                       se l'elemento non è presente o la
+     *                                       nuova priorità è maggiore di
+     *                                       quella attuale
+     */
+    public void decreasePriority(int i, double priority) {
+        if (!contains(i))
+            throw new IllegalArgumentException(
+                    "Elemento non presente nella coda: " + i);
+        if (priority > this.priorities[i])
+            throw new IllegalArgumentException(
+                    "Tentativo di aumentare la priorità dell'elemento " + i);
+        this.priorities[i] = priority;
+        moveUp(this.positions[i]);
+    }
+
+    /**
+     * Restituisce la priorità di un elemento presente.
+     *
+     * @param i
+     *              l'elemento
+     * @return la priorità dell'elemento
+     * @throws IndexOutOfBoundsException
+     *                                       se l'elemento non è
+     *                                       nell'intervallo
+     *                                       <code>[0, capacity - 1]</code>
+     * @throws IllegalArgumentException
+     *                                       se l'elemento non è presente
+     */
+    public double getPriority(int i) {
+        if (!contains(i))
+            throw new IllegalArgumentException(
+                    "Elemento non presente nella coda: " + i);
+        return this.priorities[i];
+    }
+
+    /**
+     * Estrae l'elemento con priorità minima. Dopo la chiamata tale elemento
+     * non è più presente nella coda.
+     *
+     * @return l'elemento con priorità minima
+     * @throws NoSuchElementException
+     *                                    se la coda è vuota
+     */
+    public int extractMin() {
+        if (this.size == 0)
+            throw new NoSuchElementException(
+                    "Estrazione del minimo da una coda vuota");
+        int min = this.heap[0];
+        this.size--;
+        this.positions[min] = -1;
+        if (this.size > 0) {
+            // l'ultimo elemento va nella radice e scende al suo posto
+            int last = this.heap[this.size];
+            this.heap[0] = last;
+            this.positions[last] = 0;
+            heapify(0);
+        }
+        return min;
+    }
+
+    /*
+     * Fa salire l'elemento in posizione p scambiandolo con il padre finché la
+     * proprietà dello heap non è soddisfatta.
+     */
+    private void moveUp(int p) {
+        int element = this.heap[p];
+        double priority = this.priorities[element];
+        while (p > 0) {
+            int parent = (p - 1) / 2;
+            if (this.priorities[this.heap[parent]] <= priority)
+                break;
+            // il padre scende nella posizione p
+            this.heap[p] = this.heap[parent];
+            this.positions[this.heap[p]] = p;
+            p = parent;
+        }
+        this.heap[p] = element;
+        this.positions[element] = p;
+    }
+
+    /*
+     * Fa scendere l'elemento in posizione p scambiandolo con il figlio di
+     * priorità minima finché la proprietà dello heap non è soddisfatta.
+     */
+    private void heapify(int p) {
+        int element = this.heap[p];
+        double priority = this.priorities[element];
+        while (2 * p + 1 < this.size) {
+            int child = 2 * p + 1;
+            if (child + 1 < this.size && this.priorities[this.heap[child
+                    + 1]] < this.priorities[this.heap[child]])
+                child++;
+            if (this.priorities[this.heap[child]] >= priority)
+                break;
+            // il figlio sale nella posizione p
+            this.heap[p] = this.heap[child];
+            this.positions[this.heap[p]] = p;
+            p = child;
+        }
+        this.heap[p] = element;
+        this.positions[element] = p;
+    }
+
+    /*
+     * Controlla che i sia un elemento possibile.
+     */
+    private void checkElement(int i) {
+        if (i < 0 || i >= this.positions.length)
+            throw new IndexOutOfBoundsException(
+                    "Elemento fuori dai limiti: " + i);
+    }
+
+}
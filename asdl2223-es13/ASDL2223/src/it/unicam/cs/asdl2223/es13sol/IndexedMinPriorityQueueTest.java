@@ -0,0 +1,91 @@
+package it.unicam.cs.asdl2223.es13sol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IndexedMinPriorityQueueTest {
+
+    @Test
+    final void testInsertExtractMin() {
+        IndexedMinPriorityQueue q = new IndexedMinPriorityQueue(5);
+        assertTrue(q.isEmpty());
+        q.insert(3, 7.5);
+        q.insert(0, 2.0);
+        q.insert(4, 9.0);
+        q.insert(1, 2.5);
+        assertEquals(4, q.size());
+        assertTrue(q.contains(4));
+        assertFalse(q.contains(2));
+        assertEquals(7.5, q.getPriority(3), 0);
+        assertEquals(0, q.extractMin());
+        assertFalse(q.contains(0));
+        assertEquals(1, q.extractMin());
+        assertEquals(3, q.extractMin());
+        assertEquals(4, q.extractMin());
+        assertTrue(q.isEmpty());
+        assertThrows(NoSuchElementException.class, () -> q.extractMin());
+        // un elemento estratto può essere reinserito
+        q.insert(0, 1.0);
+        assertEquals(0, q.extractMin());
+    }
+
+    @Test
+    final void testDecreasePriority() {
+        IndexedMinPriorityQueue q = new IndexedMinPriorityQueue(4);
+        q.insert(0, 10.0);
+        q.insert(1, 20.0);
+        q.insert(2, Double.POSITIVE_INFINITY);
+        q.decreasePriority(2, 5.0);
+        assertEquals(5.0, q.getPriority(2), 0);
+        q.decreasePriority(1, 1.0);
+        assertEquals(1, q.extractMin());
+        assertEquals(2, q.extractMin());
+        assertEquals(0, q.extractMin());
+        q.insert(3, 4.0);
+        assertThrows(IllegalArgumentException.class,
+                () -> q.decreasePriority(3, 8.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> q.decreasePriority(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> q.insert(3, 1.0));
+    }
+
+    @Test
+    final void testLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new IndexedMinPriorityQueue(-1));
+        IndexedMinPriorityQueue q = new IndexedMinPriorityQueue(3);
+        assertThrows(IndexOutOfBoundsException.class, () -> q.insert(3, 1.0));
+        assertThrows(IndexOutOfBoundsException.class, () -> q.contains(-1));
+    }
+
+    @Test
+    final void testRandomAgainstPriorityQueue() {
+        int n = 1000;
+        IndexedMinPriorityQueue q = new IndexedMinPriorityQueue(n);
+        PriorityQueue<Double> expected = new PriorityQueue<Double>();
+        Random random = new Random(3);
+        double[] priorities = new double[n];
+        for (int i = 0; i < n; i++) {
+            priorities[i] = random.nextDouble() * 1000;
+            q.insert(i, priorities[i]);
+        }
+        // diminuisco la priorità di metà degli elementi
+        for (int i = 0; i < n; i += 2) {
+            priorities[i] = priorities[i] * random.nextDouble();
+            q.decreasePriority(i, priorities[i]);
+        }
+        for (int i = 0; i < n; i++)
+            expected.add(priorities[i]);
+        while (!q.isEmpty()) {
+            int min = q.extractMin();
+            assertEquals(expected.poll(), priorities[min], 0);
+        }
+    }
+
+}
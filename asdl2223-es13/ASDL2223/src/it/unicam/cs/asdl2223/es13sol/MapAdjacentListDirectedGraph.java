@@ -3,10 +3,14 @@
  */
 package it.unicam.cs.asdl2223.es13sol;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Implementazione della classe astratta {@code Graph<L>} che realizza un grafo
@@ -31,8 +35,30 @@ import java.util.HashSet;
  * questo set. I test di presenza si basano sui metodi equals ridefiniti per
  * nodi e archi nelle classi GraphNode<L> e GraphEdge<L>.
  * 
- * Questa classe non supporta le operazioni di rimozione di nodi e archi e le
- * operazioni indicizzate di ricerca di nodi e archi.
+ * Accanto alle liste di adiacenza viene mantenuta una seconda mappa, con la
+ * stessa struttura, che associa a ogni nodo l'insieme degli archi entranti. In
+ * questo modo gli archi entranti e i predecessori di un nodo si ottengono in
+ * tempo proporzionale al loro numero, senza scorrere tutti gli archi del
+ * grafo, al prezzo di memorizzare due riferimenti per ogni arco.
+ * 
+ * Per trovare un nodo a partire dalla sua etichetta viene mantenuta anche una
+ * mappa che associa a ogni etichetta l'indice del nodo, mentre i nodi sono
+ * memorizzati in una lista nell'ordine di inserimento. L'indice di un nodo è
+ * la sua posizione in questa lista: poiché i nodi non possono essere rimossi,
+ * l'indice di un nodo non cambia finché il grafo non viene svuotato con
+ * clear(). In questo modo la ricerca di un nodo tramite l'etichetta e le
+ * operazioni indicizzate sui nodi costano O(1).
+ * 
+ * Infine, per ogni nodo viene mantenuta la lista dei suoi successori, con gli
+ * indici dei nodi destinazione in un array di interi insieme agli archi
+ * corrispondenti, e allo stesso modo la lista dei suoi predecessori, con gli
+ * indici dei nodi sorgente degli archi entranti. Le operazioni che scorrono i successori di un nodo tramite
+ * il suo indice, come forEachSuccessor, e quelle che ne scorrono i
+ * predecessori usano queste liste e non creano nessun
+ * oggetto, a differenza di getAdjacentNodesOf che crea ogni volta un nuovo
+ * insieme.
+ * 
+ * Questa classe non supporta le operazioni di rimozione di nodi e archi.
  * 
  * @author Luca Tesei
  *
@@ -48,12 +74,48 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
      */
     private final Map<GraphNode<L>, Set<GraphEdge<L>>> adjacentLists;
 
+    /*
+     * Le liste di adiacenza inverse: ogni nodo viene associato con l'insieme
+     * degli archi entranti, vuoto se il nodo non ha archi entranti.
+     */
+    private final Map<GraphNode<L>, Set<GraphEdge<L>>> ingoingLists;
+
+    /*
+     * I nodi del grafo in ordine di inserimento. La posizione di un nodo in
+     * questa lista è il suo indice.
+     */
+    private final List<GraphNode<L>> nodeList;
+
+    /*
+     * Associa a ogni etichetta l'indice del nodo corrispondente.
+     */
+    private final Map<L, Integer> indexOfLabel;
+
+    /*
+     * Per ogni indice di nodo, nella stessa posizione, la lista dei successori
+     * del nodo. Serve a scorrere i successori tramite gli indici senza creare
+     * oggetti.
+     */
+    private final List<SuccessorList> successorLists;
+
+    /*
+     * Per ogni indice di nodo, nella stessa posizione, la lista dei
+     * predecessori del nodo, con gli indici dei nodi sorgente e gli archi
+     * entranti.
+     */
+    private final List<SuccessorList> predecessorLists;
+
     /**
      * Crea un grafo vuoto.
      */
     public MapAdjacentListDirectedGraph() {
         // Inizializza la mappa con la mappa vuota
         this.adjacentLists = new HashMap<GraphNode<L>, Set<GraphEdge<L>>>();
+        this.ingoingLists = new HashMap<GraphNode<L>, Set<GraphEdge<L>>>();
+        this.nodeList = new ArrayList<GraphNode<L>>();
+        this.indexOfLabel = new HashMap<L, Integer>();
+        this.successorLists = new ArrayList<SuccessorList>();
+        this.predecessorLists = new ArrayList<SuccessorList>();
     }
 
     @Override
@@ -74,6 +136,11 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
     @Override
     public void clear() {
         this.adjacentLists.clear();
+        this.ingoingLists.clear();
+        this.nodeList.clear();
+        this.indexOfLabel.clear();
+        this.successorLists.clear();
+        this.predecessorLists.clear();
     }
 
     @Override
@@ -97,6 +164,12 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
             return false;
         // inserisco il nodo associando un insieme vuoto di archi uscenti
         this.adjacentLists.put(node, new HashSet<GraphEdge<L>>());
+        this.ingoingLists.put(node, new HashSet<GraphEdge<L>>());
+        // il nuovo nodo prende il primo indice libero
+        this.indexOfLabel.put(node.getLabel(), this.nodeList.size());
+        this.nodeList.add(node);
+        this.successorLists.add(new SuccessorList());
+        this.predecessorLists.add(new SuccessorList());
         return true;
     }
 
@@ -121,12 +194,11 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
         if (label == null)
             throw new NullPointerException(
                     "Tentativo di cercare un nodo con etichetta null");
-        Set<GraphNode<L>> nodes = this.adjacentLists.keySet();
-        for (GraphNode<L> n : nodes)
-            if (n.getLabel().equals(label))
-                return n;
-        // non esiste nessun nodo con etichetta uguale a label
-        return null;
+        Integer i = this.indexOfLabel.get(label);
+        if (i == null)
+            // non esiste nessun nodo con etichetta uguale a label
+            return null;
+        return this.nodeList.get(i);
     }
 
     @Override
@@ -134,14 +206,19 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
         if (label == null)
             throw new NullPointerException(
                     "Tentativo di ricercare un nodo con etichetta null");
-        throw new UnsupportedOperationException(
-                "Ricerca dei nodi con indice non supportata");
+        Integer i = this.indexOfLabel.get(label);
+        if (i == null)
+            throw new IllegalArgumentException(
+                    "Richiesta dell'indice di un nodo non esistente");
+        return i;
     }
 
     @Override
     public GraphNode<L> getNodeAtIndex(int i) {
-        throw new UnsupportedOperationException(
-                "Ricerca dei nodi con indice non supportata");
+        if (i < 0 || i >= this.nodeList.size())
+            throw new IndexOutOfBoundsException(
+                    "Indice di nodo fuori dai limiti: " + i);
+        return this.nodeList.get(i);
     }
 
     @Override
@@ -173,9 +250,9 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
                     "Richiesta dei predecessori di un nodo non esistente");
         // creo l'insieme risultato
         Set<GraphNode<L>> result = new HashSet<GraphNode<L>>();
-        // cerco tutti gli archi che entrano in node e inserisco i nodi sorgente
-        // nel risultato
-        Set<GraphEdge<L>> inEdges = this.getIngoingEdgesOf(node);
+        // inserisco nel risultato i nodi sorgente degli archi che entrano in
+        // node
+        Set<GraphEdge<L>> inEdges = this.ingoingLists.get(node);
         for (GraphEdge<L> e : inEdges)
             result.add(e.getNode1());
         return result;
@@ -205,7 +282,17 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
             throw new IllegalArgumentException(
                     "Inserimento di un arco con almeno uno dei due nodi collegati non esistente");
         // Inserisco l'arco nella lista di adiacenza del nodo sorgente
-        return this.adjacentLists.get(edge.getNode1()).add(edge);
+        if (!this.adjacentLists.get(edge.getNode1()).add(edge))
+            return false;
+        // e nella lista inversa del nodo destinazione
+        this.ingoingLists.get(edge.getNode2()).add(edge);
+        // il nodo destinazione diventa l'ultimo successore del nodo sorgente
+        int source = this.indexOfLabel.get(edge.getNode1().getLabel());
+        int target = this.indexOfLabel.get(edge.getNode2().getLabel());
+        this.successorLists.get(source).add(target, edge);
+        // e il nodo sorgente l'ultimo predecessore del nodo destinazione
+        this.predecessorLists.get(target).add(source, edge);
+        return true;
     }
 
     @Override
@@ -237,7 +324,10 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
         if (edges == null)
             throw new IllegalArgumentException(
                     "Richiesta degli archi uscenti di un nodo non esistente");
-        return edges;
+        // come per gli archi entranti l'insieme non può essere modificato,
+        // altrimenti le due mappe e le liste dei successori non sarebbero più
+        // coerenti
+        return Collections.unmodifiableSet(edges);
     }
 
     @Override
@@ -245,19 +335,123 @@ public class MapAdjacentListDirectedGraph<L> extends Graph<L> {
         if (node == null)
             throw new NullPointerException(
                     "Tentativo di ottenere gli archi entranti in un nodo null");
+        Set<GraphEdge<L>> edges = this.ingoingLists.get(node);
         // controllo se il nodo esiste
-        if (!this.adjacentLists.containsKey(node))
+        if (edges == null)
             throw new IllegalArgumentException(
                     "Richiesta degli archi entranti di un nodo non esistente");
-        // creo l'insieme risultato
-        Set<GraphEdge<L>> result = new HashSet<GraphEdge<L>>();
-        // cerco fra tutti gli archi quelli che entrano in node e li inserisco
-        // nel risultato
-        Set<GraphEdge<L>> allEdges = this.getEdges();
-        for (GraphEdge<L> e : allEdges)
-            if (e.getNode2().equals(node))
-                result.add(e);
-        return result;
+        // l'insieme non può essere modificato, altrimenti le due mappe non
+        // sarebbero più coerenti
+        return Collections.unmodifiableSet(edges);
+    }
+
+    @Override
+    public int getOutDegree(int i) {
+        return successorListAt(i).size;
+    }
+
+    @Override
+    public int getSuccessorIndex(int i, int k) {
+        SuccessorList successors = successorListAt(i);
+        checkPosition(successors, k);
+        return successors.indices[k];
+    }
+
+    @Override
+    public double getSuccessorWeight(int i, int k) {
+        SuccessorList successors = successorListAt(i);
+        checkPosition(successors, k);
+        return successors.edges[k].getWeight();
+    }
+
+    @Override
+    public void forEachSuccessor(int i, SuccessorConsumer action) {
+        if (action == null)
+            throw new NullPointerException(
+                    "Tentativo di scorrere i successori con un'azione null");
+        // un solo controllo dell'indice, poi scorro direttamente gli array
+        SuccessorList successors = successorListAt(i);
+        int[] indices = successors.indices;
+        GraphEdge<?>[] edges = successors.edges;
+        for (int k = 0; k < successors.size; k++)
+            action.accept(indices[k], edges[k].getWeight());
+    }
+
+    @Override
+    public int getInDegree(int i) {
+        return predecessorListAt(i).size;
+    }
+
+    @Override
+    public int getPredecessorIndex(int i, int k) {
+        SuccessorList predecessors = predecessorListAt(i);
+        checkPosition(predecessors, k);
+        return predecessors.indices[k];
+    }
+
+    /*
+     * Restituisce la lista dei successori del nodo di indice i.
+     */
+    private SuccessorList successorListAt(int i) {
+        if (i < 0 || i >= this.successorLists.size())
+            throw new IndexOutOfBoundsException(
+                    "Indice di nodo fuori dai limiti: " + i);
+        return this.successorLists.get(i);
+    }
+
+    /*
+     * Restituisce la lista dei predecessori del nodo di indice i.
+     */
+    private SuccessorList predecessorListAt(int i) {
+        if (i < 0 || i >= this.predecessorLists.size())
+            throw new IndexOutOfBoundsException(
+                    "Indice di nodo fuori dai limiti: " + i);
+        return this.predecessorLists.get(i);
+    }
+
+    /*
+     * Controlla che k sia una posizione di una lista di successori o di
+     * predecessori.
+     */
+    private void checkPosition(SuccessorList successors, int k) {
+        if (k < 0 || k >= successors.size)
+            throw new IndexOutOfBoundsException(
+                    "Posizione di successore fuori dai limiti: " + k);
+    }
+
+    /*
+     * Lista dei successori di un nodo: gli indici dei nodi destinazione e gli
+     * archi uscenti corrispondenti, nello stesso ordine, in due array che
+     * vengono raddoppiati quando sono pieni. Viene usata anche per la lista
+     * dei predecessori, con gli indici dei nodi sorgente e gli archi
+     * entranti. Dagli archi si leggono i pesi,
+     * che possono essere cambiati anche dopo l'inserimento. Poiché gli archi
+     * non possono essere rimossi la lista viene solo allungata.
+     */
+    private static class SuccessorList {
+
+        private static final GraphEdge<?>[] NO_EDGES = new GraphEdge<?>[0];
+
+        private int[] indices = new int[0];
+
+        private GraphEdge<?>[] edges = NO_EDGES;
+
+        private int size = 0;
+
+        /*
+         * Aggiunge un successore in fondo alla lista.
+         */
+        private void add(int index, GraphEdge<?> edge) {
+            if (this.size == this.indices.length) {
+                int capacity = Math.max(4, 2 * this.size);
+                this.indices = Arrays.copyOf(this.indices, capacity);
+                this.edges = Arrays.copyOf(this.edges, capacity);
+            }
+            this.indices[this.size] = index;
+            this.edges[this.size] = edge;
+            this.size++;
+        }
+
     }
 
 }